@@ -20,6 +20,8 @@ import org.identityconnectors.framework.spi.Connector;
 import org.identityconnectors.framework.spi.PoolableConnector;
 import org.identityconnectors.framework.spi.operations.*;
 
+import java.io.FileNotFoundException;
+import java.net.ConnectException;
 import java.util.*;
 
 import static com.evolveum.icf.dummy.connector.Utils.notNull;
@@ -127,6 +129,15 @@ public abstract class AbstractBaseDummyConnector implements PoolableConnector, T
         resource.setMonsterization(this.configuration.isMonsterized());
         resource.setUidMode(UidMode.of(this.configuration.getUidMode()));
         resource.setHierarchicalObjectsEnabled(this.configuration.isHierarchicalObjectsEnabled());
+        if (this.configuration.getOperationDelayOffset() != null) {
+            resource.setOperationDelayOffset(this.configuration.getOperationDelayOffset());
+        }
+        if (this.configuration.getOperationDelayRange() != null) {
+            resource.setOperationDelayRange(this.configuration.getOperationDelayRange());
+        }
+        if (this.configuration.getGeneratedAccounts() > 0) {
+            generateAccounts();
+        }
 
         if (connected) {
             throw new IllegalStateException("Double connect in " + this);
@@ -141,6 +152,26 @@ public abstract class AbstractBaseDummyConnector implements PoolableConnector, T
         LOG.info("Connected connector #{0} to dummy resource instance {1} ({2} connections open)", instanceNumber, resource, resource.getConnectionCount());
     }
 
+    private void generateAccounts() {
+        try {
+            int generated = resource.generateAccountsIfEmpty(
+                    configuration.getGeneratedAccountNamePattern(), configuration.getGeneratedAccounts());
+            if (generated > 0) {
+                LOG.info("Generated {0} accounts on dummy resource instance {1}", generated, resource);
+            }
+        } catch (ObjectAlreadyExistsException | ConflictException e) {
+            throw new AlreadyExistsException(e.getMessage(), e);
+        } catch (ConnectException e) {
+            throw new ConnectionFailedException(e.getMessage(), e);
+        } catch (FileNotFoundException e) {
+            throw new ConnectorIOException(e.getMessage(), e);
+        } catch (ObjectDoesNotExistException | SchemaViolationException e) {
+            throw new InvalidAttributeValueException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            throw new OperationTimeoutException(e);
+        }
+    }
+
     private static synchronized int getNextInstanceNumber() {
         instanceCounter++;
         return instanceCounter;
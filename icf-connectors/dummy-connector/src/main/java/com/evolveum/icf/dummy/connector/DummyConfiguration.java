@@ -70,6 +70,10 @@ public class DummyConfiguration extends AbstractConfiguration {
     private String[] alwaysRequireUpdateOfAttribute = new String[0];
     private boolean canRead = true;
     private boolean hierarchicalObjectsEnabled;
+    private Integer operationDelayOffset;
+    private Integer operationDelayRange;
+    private int generatedAccounts;
+    private String generatedAccountNamePattern = "account-%08d";
 
     /**
      * Defines name of the dummy resource instance. There may be several dummy resource running in
@@ -495,6 +499,52 @@ public class DummyConfiguration extends AbstractConfiguration {
         this.hierarchicalObjectsEnabled = hierarchicalObjectsEnabled;
     }
 
+    /**
+     * Artificial delay of each operation (in milliseconds), emulating the latency of a real target.
+     * If not set, the delay set on the dummy resource (e.g. by the test code) is kept.
+     */
+    @ConfigurationProperty
+    public Integer getOperationDelayOffset() {
+        return operationDelayOffset;
+    }
+
+    public void setOperationDelayOffset(Integer operationDelayOffset) {
+        this.operationDelayOffset = operationDelayOffset;
+    }
+
+    /** Random part of the artificial delay; see {@link #getOperationDelayOffset()}. */
+    @ConfigurationProperty
+    public Integer getOperationDelayRange() {
+        return operationDelayRange;
+    }
+
+    public void setOperationDelayRange(Integer operationDelayRange) {
+        this.operationDelayRange = operationDelayRange;
+    }
+
+    /**
+     * Number of accounts to be generated when the connector is initialized and the resource has no accounts.
+     * Used to set up a target for load tests without any test code.
+     */
+    @ConfigurationProperty
+    public int getGeneratedAccounts() {
+        return generatedAccounts;
+    }
+
+    public void setGeneratedAccounts(int generatedAccounts) {
+        this.generatedAccounts = generatedAccounts;
+    }
+
+    /** Pattern for names of generated accounts, to be used with {@link String#format(String, Object...)}. */
+    @ConfigurationProperty
+    public String getGeneratedAccountNamePattern() {
+        return generatedAccountNamePattern;
+    }
+
+    public void setGeneratedAccountNamePattern(String generatedAccountNamePattern) {
+        this.generatedAccountNamePattern = generatedAccountNamePattern;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -512,6 +562,13 @@ public class DummyConfiguration extends AbstractConfiguration {
             }
         }
 
+        if (generatedAccounts < 0) {
+            throw new ConfigurationException("Number of generated accounts must not be negative");
+        }
+        if (generatedAccounts > 0 && StringUtils.isBlank(generatedAccountNamePattern)) {
+            throw new ConfigurationException("No pattern for names of generated accounts");
+        }
+
         LOG.info("uselessString: {0}", uselessString);
         if (requireUselessString && StringUtils.isBlank(uselessString)) {
             throw new ConfigurationException("No useless string");
@@ -12,6 +12,7 @@ import java.io.FileNotFoundException;
 import java.net.ConnectException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.evolveum.midpoint.util.MiscUtil;
 
@@ -65,6 +66,12 @@ public abstract class DummyObject implements DebugDumpable {
 
     private BreakMode modifyBreakMode = null;
 
+    /** Number of modifications of this object that are currently in the artificial delay. */
+    private final AtomicInteger modificationsInDelay = new AtomicInteger();
+
+    /** Maximal number of modifications of this object that were in the artificial delay at the same time. */
+    private final AtomicInteger maxModificationsInDelay = new AtomicInteger();
+
     public DummyObject() {
     }
 
@@ -483,10 +490,23 @@ public abstract class DummyObject implements DebugDumpable {
 
     private void delayOperation() throws InterruptedException {
         if (resource != null) {
-            resource.delayOperation();
+            maxModificationsInDelay.accumulateAndGet(modificationsInDelay.incrementAndGet(), Math::max);
+            try {
+                resource.delayOperation();
+            } finally {
+                modificationsInDelay.decrementAndGet();
+            }
         }
     }
 
+    /**
+     * Returns the maximal number of modifications of this object that were in the artificial delay at the same time.
+     * Useful to check that modifications of a single object do not overlap (or that they do).
+     */
+    public int getMaxModificationsInDelay() {
+        return maxModificationsInDelay.get();
+    }
+
     protected void checkSchema(String attrName, Collection<Object> values, String operationName) throws SchemaViolationException {
         if (resource == null || !resource.isEnforceSchema() || resource.isSchemaBroken()) {
             return;
@@ -12,6 +12,7 @@ import java.io.FileNotFoundException;
 import java.net.ConnectException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -116,6 +117,12 @@ public class DummyResource implements DebugDumpable {
 
     private int operationDelayOffset;
     private int operationDelayRange;
+
+    /** Number of operations that are currently in the artificial delay. */
+    private final AtomicInteger operationsInDelay = new AtomicInteger();
+
+    /** Maximal number of operations that were in the artificial delay at the same time. */
+    private final AtomicInteger maxOperationsInDelay = new AtomicInteger();
     private boolean syncSearchHandlerStart;
 
     /**
@@ -146,6 +153,12 @@ public class DummyResource implements DebugDumpable {
     private BreakMode modifyBreakMode = BreakMode.NONE;
     private BreakMode deleteBreakMode = BreakMode.NONE;
 
+    /**
+     * Errors injected at random, indexed by the operation name ("get", "add", "modify", "delete").
+     * Applied only if the respective break mode is {@link BreakMode#NONE}.
+     */
+    private final Map<String, InjectedError> injectedErrors = new ConcurrentHashMap<>();
+
     private boolean blockOperations;
 
     /** simulates volatile behavior (on create) */
@@ -193,6 +206,7 @@ public class DummyResource implements DebugDumpable {
         blockOperations = false;
         syncSearchHandlerStart = false;
         resetBreakMode();
+        injectedErrors.clear();
         hookRegistry.reset();
     }
 
@@ -222,6 +236,7 @@ public class DummyResource implements DebugDumpable {
         latestSyncToken.set(0);
         writeOperationCount = 0;
         groupMembersReadCount = 0;
+        maxOperationsInDelay.set(0);
     }
 
     public static DummyResource getInstance() {
@@ -288,7 +303,7 @@ public class DummyResource implements DebugDumpable {
     }
 
     BreakMode getModifyBreakMode() {
-        return modifyBreakMode;
+        return modifyBreakMode != BreakMode.NONE ? modifyBreakMode : getInjectedBreakMode("modify");
     }
 
     public void setModifyBreakMode(BreakMode modifyBreakMode) {
@@ -307,6 +322,28 @@ public class DummyResource implements DebugDumpable {
         setBreakMode(BreakMode.NONE);
     }
 
+    /**
+     * Makes given operation ("get", "add", "modify", "delete") fail with given probability (0 to 1), in the way
+     * specified by the break mode. Useful to emulate a flaky target in load tests.
+     */
+    public void setInjectedError(@NotNull String operation, double probability, @NotNull BreakMode breakMode) {
+        argCheck(probability >= 0 && probability <= 1, "Probability out of range: %s", probability);
+        injectedErrors.put(operation, new InjectedError(probability, breakMode));
+    }
+
+    public void clearInjectedErrors() {
+        injectedErrors.clear();
+    }
+
+    private @NotNull BreakMode getInjectedBreakMode(String operation) {
+        InjectedError injectedError = injectedErrors.get(operation);
+        if (injectedError != null && ThreadLocalRandom.current().nextDouble() < injectedError.probability()) {
+            return injectedError.breakMode();
+        } else {
+            return BreakMode.NONE;
+        }
+    }
+
     public void setBlockOperations(boolean blockOperations) {
         this.blockOperations = blockOperations;
     }
@@ -371,6 +408,14 @@ public class DummyResource implements DebugDumpable {
         this.operationDelayRange = operationDelayRange;
     }
 
+    /**
+     * Returns the maximal number of operations that were in the artificial delay at the same time (since the last
+     * {@link #clear()}). Useful to check that the operations really overlap, without relying on the wall clock.
+     */
+    public int getMaxOperationsInDelay() {
+        return maxOperationsInDelay.get();
+    }
+
     public void setSyncSearchHandlerStart(boolean syncSearchHandlerStart) {
         this.syncSearchHandlerStart = syncSearchHandlerStart;
     }
@@ -700,14 +745,16 @@ public class DummyResource implements DebugDumpable {
                 .deleteLink(first, second);
     }
 
-    private synchronized <T extends DummyObject> String addObject(ObjectStore<T> store, T objectToAdd)
+    private <T extends DummyObject> String addObject(ObjectStore<T> store, T objectToAdd)
             throws ObjectAlreadyExistsException, ConnectException, FileNotFoundException, SchemaViolationException,
             ConflictException, InterruptedException, ObjectDoesNotExistException {
-        checkBlockOperations();
-        recordWriteOperation("add");
-        breakIt(addBreakMode, "add");
-        delayOperation();
+        beforeWriteOperation("add", addBreakMode);
+        return addObjectInternal(store, objectToAdd);
+    }
 
+    private synchronized <T extends DummyObject> String addObjectInternal(ObjectStore<T> store, T objectToAdd)
+            throws ObjectAlreadyExistsException, ConflictException, FileNotFoundException, ObjectDoesNotExistException,
+            SchemaViolationException, InterruptedException, ConnectException {
         Class<? extends DummyObject> type = objectToAdd.getClass();
 
         // This is "resource-generated" attribute, used to simulate resources which - by default - generate attributes
@@ -773,7 +820,7 @@ public class DummyResource implements DebugDumpable {
         }
     }
 
-    public synchronized <T extends DummyObject> void deleteObjectByName(String objectClassName, String name)
+    public <T extends DummyObject> void deleteObjectByName(String objectClassName, String name)
             throws ObjectDoesNotExistException, ConnectException, FileNotFoundException, SchemaViolationException,
             ConflictException, InterruptedException {
         if (DummyAccount.OBJECT_CLASS_NAME.equals(objectClassName)) {
@@ -794,7 +841,7 @@ public class DummyResource implements DebugDumpable {
         }
     }
 
-    public synchronized <T extends DummyObject> void deleteObjectById(String objectClassName, String id)
+    public <T extends DummyObject> void deleteObjectById(String objectClassName, String id)
             throws ObjectDoesNotExistException, ConnectException, FileNotFoundException, SchemaViolationException,
             ConflictException, InterruptedException {
         if (DummyAccount.OBJECT_CLASS_NAME.equals(objectClassName)) {
@@ -818,14 +865,16 @@ public class DummyResource implements DebugDumpable {
         }
     }
 
-    private synchronized <T extends DummyObject> void deleteObjectByName(Class<T> type, ObjectStore<T> store, String name)
+    private <T extends DummyObject> void deleteObjectByName(Class<T> type, ObjectStore<T> store, String name)
             throws ObjectDoesNotExistException, ConnectException, FileNotFoundException, SchemaViolationException,
             ConflictException, InterruptedException {
-        checkBlockOperations();
-        recordWriteOperation("delete");
-        breakIt(deleteBreakMode, "delete");
-        delayOperation();
+        beforeWriteOperation("delete", deleteBreakMode);
+        deleteObjectByNameInternal(type, store, name);
+    }
 
+    private synchronized <T extends DummyObject> void deleteObjectByNameInternal(Class<T> type, ObjectStore<T> store, String name)
+            throws ObjectDoesNotExistException, ConnectException, FileNotFoundException, SchemaViolationException,
+            ConflictException, InterruptedException {
         String normalName = normalizeName(name);
         T existingObject;
 
@@ -875,14 +924,16 @@ public class DummyResource implements DebugDumpable {
         deleteObjectById(DummyOrg.class, orgStore, id);
     }
 
-    private synchronized <T extends DummyObject> void deleteObjectById(Class<T> type, ObjectStore<T> store, String id)
+    private <T extends DummyObject> void deleteObjectById(Class<T> type, ObjectStore<T> store, String id)
             throws ObjectDoesNotExistException, ConnectException, FileNotFoundException, SchemaViolationException,
             ConflictException, InterruptedException {
-        checkBlockOperations();
-        recordWriteOperation("delete");
-        breakIt(deleteBreakMode, "delete");
-        delayOperation();
+        beforeWriteOperation("delete", deleteBreakMode);
+        deleteObjectByIdInternal(type, store, id);
+    }
 
+    private synchronized <T extends DummyObject> void deleteObjectByIdInternal(Class<T> type, ObjectStore<T> store, String id)
+            throws ObjectDoesNotExistException, ConnectException, FileNotFoundException, SchemaViolationException,
+            ConflictException, InterruptedException {
         DummyObject object = allObjects.get(id);
         if (object == null) {
             throw new ObjectDoesNotExistException(type.getSimpleName()+" with id '"+id+"' does not exist");
@@ -915,15 +966,18 @@ public class DummyResource implements DebugDumpable {
         }
     }
 
-    private synchronized <T extends DummyObject> void renameObject(
+    private <T extends DummyObject> void renameObject(
             ObjectStore<T> store, String id, String oldName, String newName)
             throws ObjectDoesNotExistException, ObjectAlreadyExistsException, ConnectException, FileNotFoundException,
             SchemaViolationException, ConflictException, InterruptedException {
-        checkBlockOperations();
-        recordWriteOperation("modify");
-        breakIt(modifyBreakMode, "modify");
-        delayOperation();
+        beforeWriteOperation("modify", modifyBreakMode);
+        renameObjectInternal(store, id, oldName, newName);
+    }
 
+    private synchronized <T extends DummyObject> void renameObjectInternal(
+            ObjectStore<T> store, String id, String oldName, String newName)
+            throws ObjectDoesNotExistException, ObjectAlreadyExistsException, ConnectException, FileNotFoundException,
+            SchemaViolationException, ConflictException, InterruptedException {
         hierarchySupport.checkHasContainingOrg(newName);
 
         T existingObject;
@@ -983,6 +1037,31 @@ public class DummyResource implements DebugDumpable {
         return addObject(accountStore, newAccount);
     }
 
+    /**
+     * Quickly populates the resource with generated accounts, e.g. as a target for load tests. The names are created
+     * from the pattern (like `account-%08d`) and numbers from 0 to `count - 1`. Neither the artificial delays
+     * nor break modes are applied. Does nothing if there are any accounts already, so it is safe to be called
+     * from multiple connector instances.
+     *
+     * The resource is locked for the whole generation, so all other write operations (and the synchronized reads)
+     * wait until it is finished. Hence, it should be called before the load starts, e.g. when the connector is initialized,
+     * as the dummy connector does for `generatedAccounts` configuration property.
+     *
+     * @return number of accounts generated
+     */
+    public synchronized int generateAccountsIfEmpty(@NotNull String namePattern, int count)
+            throws ObjectAlreadyExistsException, ConflictException, FileNotFoundException, ObjectDoesNotExistException,
+            SchemaViolationException, InterruptedException, ConnectException {
+        if (accountStore.size() > 0) {
+            return 0;
+        }
+        LOGGER.info("Generating {} accounts on dummy resource {}", count, instanceName);
+        for (int i = 0; i < count; i++) {
+            addObjectInternal(accountStore, new DummyAccount(String.format(namePattern, i)));
+        }
+        return count;
+    }
+
     public void deleteAccountByName(String id)
             throws ObjectDoesNotExistException, ConnectException, FileNotFoundException, SchemaViolationException,
             ConflictException, InterruptedException {
@@ -1210,7 +1289,22 @@ public class DummyResource implements DebugDumpable {
         deltas.add(delta);
     }
 
+    /**
+     * The part of add/delete/rename operation that is executed before the resource is locked. In particular, the artificial
+     * delay is applied here, so that delays of concurrent operations overlap, just like latencies of a real target would.
+     */
+    private void beforeWriteOperation(String operation, BreakMode breakMode)
+            throws ConnectException, FileNotFoundException, SchemaViolationException, ConflictException, InterruptedException {
+        checkBlockOperations();
+        recordWriteOperation(operation);
+        breakIt(breakMode, operation);
+        delayOperation();
+    }
+
     private void breakIt(BreakMode breakMode, String operation) throws ConnectException, FileNotFoundException, SchemaViolationException, ConflictException {
+        if (breakMode == BreakMode.NONE) {
+            breakMode = getInjectedBreakMode(operation);
+        }
         if (breakMode == BreakMode.NONE) {
             //noinspection UnnecessaryReturnStatement
             return;
@@ -1247,12 +1341,15 @@ public class DummyResource implements DebugDumpable {
             delay += RND.nextInt(operationDelayRange);
         }
         LOGGER.debug("Delaying dummy {} operation for {} ms", instanceName, delay);
+        maxOperationsInDelay.accumulateAndGet(operationsInDelay.incrementAndGet(), Math::max);
         try {
             Thread.sleep(delay);
             LOGGER.debug("Operation delay on dummy {} wait done", instanceName);
         } catch (InterruptedException e) {
             LOGGER.debug("Operation delay on dummy {} interrupted: {}", instanceName, e.getMessage());
             throw e;
+        } finally {
+            operationsInDelay.decrementAndGet();
         }
     }
 
@@ -1417,6 +1514,9 @@ public class DummyResource implements DebugDumpable {
         hookRegistry.invokeHooks(invoker);
     }
 
+    private record InjectedError(double probability, @NotNull BreakMode breakMode) {
+    }
+
     /** Special class so we can control all update/delete operations. */
     private class AllObjects {
 
@@ -11,6 +11,13 @@ import static com.evolveum.icf.dummy.resource.LinkClassDefinition.LinkClassDefin
 import static com.evolveum.icf.dummy.resource.LinkClassDefinition.Participant.ParticipantBuilder.aParticipant;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.evolveum.midpoint.util.DebugUtil;
 
@@ -162,4 +169,56 @@ public class TestDummyResource {
         var contract = contractsForScienceUpdated.iterator().next();
         assertThat(contract).isEqualTo(contractsForP100001.iterator().next());
     }
+
+    /** Bulk generation, overlapping artificial delays, and random errors; used for load testing. */
+    @Test
+    void test200LoadTestingFeatures() throws Exception {
+        var resource = DummyResource.getInstance("load");
+        resource.populateWithDefaultSchema();
+
+        // WHEN generating accounts
+        int generated = resource.generateAccountsIfEmpty("user-%06d", 1000);
+
+        // THEN all are there, and the second generation is skipped
+        assertThat(generated).as("generated accounts").isEqualTo(1000);
+        assertThat(resource.listAccounts()).as("accounts").hasSize(1000);
+        assertThat(resource.getAccountByName("user-000999")).as("last account").isNotNull();
+        assertThat(resource.generateAccountsIfEmpty("user-%06d", 1000)).as("generated again").isZero();
+
+        // WHEN adding accounts concurrently with artificial delay
+        int threads = 4;
+        int delay = 300;
+        resource.setOperationDelayOffset(delay);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < threads; i++) {
+                var account = new DummyAccount("concurrent-" + i);
+                futures.add(executor.submit(() -> resource.addAccount(account)));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+
+            // THEN the delays overlap (serialized delays would never be in progress at the same time)
+            assertThat(resource.getMaxOperationsInDelay()).as("max operations in delay").isGreaterThan(1);
+            for (int i = 0; i < threads; i++) {
+                assertThat(resource.getAccountByName("concurrent-" + i)).as("added account").isNotNull();
+            }
+        } finally {
+            executor.shutdownNow();
+            resource.setOperationDelayOffset(0);
+        }
+
+        // WHEN injecting errors into "add" operation
+        resource.setInjectedError("add", 1.0, BreakMode.NETWORK);
+
+        // THEN the operation fails, while other ones do not
+        assertThatThrownBy(() -> resource.addAccount(new DummyAccount("failing")))
+                .isInstanceOf(ConnectException.class);
+        assertThat(resource.getAccountByName("user-000000")).as("first account").isNotNull();
+
+        resource.clearInjectedErrors();
+        resource.addAccount(new DummyAccount("not-failing"));
+    }
 }
@@ -265,6 +265,12 @@ public class CacheConfigurationManager {
             addCacheSettings(aggregate, CacheType.GLOBAL_REPO_QUERY_CACHE, profile.getGlobalRepoQueryCache());
         }
 
+        // Not-found caches are opt-in, so they are not covered by the localRepoCache/globalRepoCache shortcuts.
+        addCacheSettings(aggregate, CacheType.LOCAL_REPO_NOT_FOUND_CACHE, profile.getLocalRepoNotFoundCache());
+        addCacheSettings(aggregate, CacheType.GLOBAL_REPO_NOT_FOUND_CACHE, profile.getGlobalRepoNotFoundCache());
+        addCacheSettings(aggregate, CacheType.RESOURCE_CACHE, profile.getResourceCache());
+        addCacheSettings(aggregate, CacheType.RESOURCE_SCHEMA_CACHE, profile.getResourceSchemaCache());
+
         addCacheSettings(aggregate, CacheType.LOCAL_FOCUS_CONSTRAINT_CHECKER_CACHE, profile.getLocalFocusConstraintCheckerCache());
         addCacheSettings(aggregate, CacheType.LOCAL_SHADOW_CONSTRAINT_CHECKER_CACHE, profile.getLocalShadowConstraintCheckerCache());
         addCacheSettings(aggregate, CacheType.LOCAL_ASSOCIATION_TARGET_SEARCH_EVALUATOR_CACHE, profile.getLocalAssociationTargetSearchEvaluatorCache());
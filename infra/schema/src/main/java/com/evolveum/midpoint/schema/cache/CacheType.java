@@ -14,8 +14,10 @@ public enum CacheType {
 
     LOCAL_REPO_OBJECT_CACHE, LOCAL_REPO_VERSION_CACHE, LOCAL_REPO_QUERY_CACHE,
     GLOBAL_REPO_OBJECT_CACHE, GLOBAL_REPO_VERSION_CACHE, GLOBAL_REPO_QUERY_CACHE,
+    LOCAL_REPO_NOT_FOUND_CACHE, GLOBAL_REPO_NOT_FOUND_CACHE,
     LOCAL_FOCUS_CONSTRAINT_CHECKER_CACHE, LOCAL_SHADOW_CONSTRAINT_CHECKER_CACHE,
     LOCAL_ASSOCIATION_TARGET_SEARCH_EVALUATOR_CACHE,
-    LOCAL_DEFAULT_SEARCH_EVALUATOR_CACHE
+    LOCAL_DEFAULT_SEARCH_EVALUATOR_CACHE,
+    RESOURCE_CACHE, RESOURCE_SCHEMA_CACHE
 
 }
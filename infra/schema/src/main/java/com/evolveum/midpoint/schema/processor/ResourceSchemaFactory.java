@@ -194,6 +194,38 @@ public class ResourceSchemaFactory {
         }
     }
 
+    /**
+     * Sets up the native schema of the (mutable) resource from a schema parsed earlier, if the XSD definition
+     * is the same as the one the schema was parsed from. This avoids parsing the same schema again when the resource
+     * is changed in other respects.
+     *
+     * @param sourceXsdSchemaElement XSD the schema was parsed from; must not be modified by anyone
+     * @return true if the schema was reused
+     */
+    public static boolean reuseNativeSchema(
+            @NotNull PrismObject<ResourceType> resource,
+            @NotNull Element sourceXsdSchemaElement,
+            @NotNull NativeResourceSchema schema) {
+        Element resourceXsdSchemaElement = ResourceTypeUtil.getResourceXsdSchemaElement(resource);
+        if (resourceXsdSchemaElement == null || resource.isImmutable()) {
+            return false;
+        }
+        schema.checkImmutable();
+        // Synchronization because of MID-5648, see getNativeSchema.
+        synchronized (resourceXsdSchemaElement) {
+            if (resource.getUserData(USER_DATA_KEY_NATIVE_SCHEMA) != null) {
+                return false;
+            }
+            synchronized (sourceXsdSchemaElement) {
+                if (!resourceXsdSchemaElement.isEqualNode(sourceXsdSchemaElement)) {
+                    return false;
+                }
+            }
+            resource.setUserData(USER_DATA_KEY_NATIVE_SCHEMA, schema);
+            return true;
+        }
+    }
+
     @VisibleForTesting
     public static boolean hasParsedSchema(ResourceType resource) {
         return resource.asPrismObject().getUserData(USER_DATA_KEY_NATIVE_SCHEMA) != null;
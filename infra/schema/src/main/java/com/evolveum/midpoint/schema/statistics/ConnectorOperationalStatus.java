@@ -29,6 +29,9 @@ public class ConnectorOperationalStatus implements DebugDumpable, Serializable {
     public static final String F_POOL_CONFIG_MAX_IDLE_TIME = "poolConfigMaxIdleTime";
     public static final String F_POOL_STATUS_NUM_IDLE = "poolStatusNumIdle";
     public static final String F_POOL_STATUS_NUM_ACTIVE = "poolStatusNumActive";
+    public static final String F_POOL_STATUS_PEAK_ACTIVE = "poolStatusPeakActive";
+    public static final String F_POOL_STATUS_OPERATIONS = "poolStatusOperations";
+    public static final String F_POOL_STATUS_OPERATIONS_WHEN_EXHAUSTED = "poolStatusOperationsWhenExhausted";
 
     private String connectorName;
     private String connectorClassName;
@@ -46,6 +49,17 @@ public class ConnectorOperationalStatus implements DebugDumpable, Serializable {
     private Integer poolStatusNumIdle;
     private Integer poolStatusNumActive;
 
+    // pool usage, as observed by midPoint since the connector instance was created
+
+    /** Maximal number of connector operations in progress at once. */
+    private Integer poolStatusPeakActive;
+
+    /** Number of connector operations started. */
+    private Long poolStatusOperations;
+
+    /** Number of connector operations started when all pooled connectors were in use, i.e. that had to wait for one. */
+    private Long poolStatusOperationsWhenExhausted;
+
     public String getConnectorName() {
         return connectorName;
     }
@@ -134,6 +148,30 @@ public class ConnectorOperationalStatus implements DebugDumpable, Serializable {
         this.poolStatusNumActive = poolStatusNumActive;
     }
 
+    public Integer getPoolStatusPeakActive() {
+        return poolStatusPeakActive;
+    }
+
+    public void setPoolStatusPeakActive(Integer poolStatusPeakActive) {
+        this.poolStatusPeakActive = poolStatusPeakActive;
+    }
+
+    public Long getPoolStatusOperations() {
+        return poolStatusOperations;
+    }
+
+    public void setPoolStatusOperations(Long poolStatusOperations) {
+        this.poolStatusOperations = poolStatusOperations;
+    }
+
+    public Long getPoolStatusOperationsWhenExhausted() {
+        return poolStatusOperationsWhenExhausted;
+    }
+
+    public void setPoolStatusOperationsWhenExhausted(Long poolStatusOperationsWhenExhausted) {
+        this.poolStatusOperationsWhenExhausted = poolStatusOperationsWhenExhausted;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -148,6 +186,10 @@ public class ConnectorOperationalStatus implements DebugDumpable, Serializable {
         result = prime * result + ((poolConfigWaitTimeout == null) ? 0 : poolConfigWaitTimeout.hashCode());
         result = prime * result + ((poolStatusNumActive == null) ? 0 : poolStatusNumActive.hashCode());
         result = prime * result + ((poolStatusNumIdle == null) ? 0 : poolStatusNumIdle.hashCode());
+        result = prime * result + ((poolStatusPeakActive == null) ? 0 : poolStatusPeakActive.hashCode());
+        result = prime * result + ((poolStatusOperations == null) ? 0 : poolStatusOperations.hashCode());
+        result = prime * result
+                + ((poolStatusOperationsWhenExhausted == null) ? 0 : poolStatusOperationsWhenExhausted.hashCode());
         return result;
     }
 
@@ -226,6 +268,27 @@ public class ConnectorOperationalStatus implements DebugDumpable, Serializable {
         } else if (!poolStatusNumIdle.equals(other.poolStatusNumIdle)) {
             return false;
         }
+        if (poolStatusPeakActive == null) {
+            if (other.poolStatusPeakActive != null) {
+                return false;
+            }
+        } else if (!poolStatusPeakActive.equals(other.poolStatusPeakActive)) {
+            return false;
+        }
+        if (poolStatusOperations == null) {
+            if (other.poolStatusOperations != null) {
+                return false;
+            }
+        } else if (!poolStatusOperations.equals(other.poolStatusOperations)) {
+            return false;
+        }
+        if (poolStatusOperationsWhenExhausted == null) {
+            if (other.poolStatusOperationsWhenExhausted != null) {
+                return false;
+            }
+        } else if (!poolStatusOperationsWhenExhausted.equals(other.poolStatusOperationsWhenExhausted)) {
+            return false;
+        }
         return true;
     }
 
@@ -249,7 +312,10 @@ public class ConnectorOperationalStatus implements DebugDumpable, Serializable {
         DebugUtil.debugDumpWithLabelLn(sb, "poolConfigMinEvictableIdleTime", poolConfigMinEvictableIdleTime, indent + 1);
         DebugUtil.debugDumpWithLabelLn(sb, "poolConfigMaxIdleTime", poolConfigMaxIdleTime, indent + 1);
         DebugUtil.debugDumpWithLabelLn(sb, "poolStatusNumIdle", poolStatusNumIdle, indent + 1);
-        DebugUtil.debugDumpWithLabel(sb, "poolStatusNumActive", poolStatusNumActive, indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "poolStatusNumActive", poolStatusNumActive, indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "poolStatusPeakActive", poolStatusPeakActive, indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "poolStatusOperations", poolStatusOperations, indent + 1);
+        DebugUtil.debugDumpWithLabel(sb, "poolStatusOperationsWhenExhausted", poolStatusOperationsWhenExhausted, indent + 1);
         return sb.toString();
 
     }
@@ -491,6 +491,11 @@ public class ResourceTypeUtil {
         return resource.getConsistency().isAvoidDuplicateValues();
     }
 
+    public static boolean isCoalesceEntitlementModifications(ResourceType resource) {
+        ResourceConsistencyType consistency = resource.getConsistency();
+        return consistency != null && Boolean.TRUE.equals(consistency.isCoalesceEntitlementModifications());
+    }
+
     public static boolean isCaseIgnoreAttributeNames(ResourceType resource) {
         if (resource.getConsistency() == null) {
             return false;
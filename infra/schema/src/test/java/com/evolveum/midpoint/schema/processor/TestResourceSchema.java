@@ -311,6 +311,36 @@ public class TestResourceSchema extends AbstractSchemaTest {
         assertCapabilities(resourceType);
     }
 
+    /** A parsed native schema can be reused for another version of the resource, but only if the XSD is the same. */
+    @Test
+    public void testReuseNativeSchema() throws Exception {
+        File resourceFile = new File("src/test/resources/common/xml/ns/resource-opendj.xml");
+        PrismObject<ResourceType> original = PrismTestUtil.parseObject(resourceFile);
+        NativeResourceSchema schema = ResourceSchemaFactory.getNativeSchema(original);
+        assertThat(schema).as("parsed schema").isNotNull();
+        Element sourceXsd = (Element) ResourceTypeUtil.getResourceXsdSchemaElement(original).cloneNode(true);
+
+        // WHEN (the same XSD, other things changed)
+        PrismObject<ResourceType> sameXsd = PrismTestUtil.parseObject(resourceFile);
+        sameXsd.asObjectable().setDescription("changed");
+        boolean reusedForSameXsd = ResourceSchemaFactory.reuseNativeSchema(sameXsd, sourceXsd, schema);
+
+        // THEN
+        assertThat(reusedForSameXsd).as("reused for the same XSD").isTrue();
+        assertThat(ResourceSchemaFactory.getNativeSchema(sameXsd)).as("schema of the new version").isSameAs(schema);
+
+        // WHEN (changed XSD)
+        PrismObject<ResourceType> changedXsd = PrismTestUtil.parseObject(resourceFile);
+        Element xsd = (Element) ResourceTypeUtil.getResourceXsdSchemaElement(changedXsd).cloneNode(true);
+        xsd.setAttribute("version", "2");
+        ResourceTypeUtil.setResourceXsdSchema(changedXsd, xsd);
+        boolean reusedForChangedXsd = ResourceSchemaFactory.reuseNativeSchema(changedXsd, sourceXsd, schema);
+
+        // THEN
+        assertThat(reusedForChangedXsd).as("reused for changed XSD").isFalse();
+        assertThat(ResourceSchemaFactory.hasParsedSchema(changedXsd.asObjectable())).as("has parsed schema").isFalse();
+    }
+
     private void assertCapabilities(ResourceType resource) throws SchemaException {
         CapabilitiesType capabilities = resource.getCapabilities();
         assertThat(capabilities).as("capabilities").isNotNull();
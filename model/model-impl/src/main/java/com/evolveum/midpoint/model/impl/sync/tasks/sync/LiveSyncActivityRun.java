@@ -144,7 +144,9 @@ public final class LiveSyncActivityRun
                 activity.getExecutionMode(),
                 def.getBatchSize(),
                 def.isUpdateLiveSyncTokenInDryRun(),
-                def.isUpdateLiveSyncTokenInPreviewMode());
+                def.isUpdateLiveSyncTokenInPreviewMode(),
+                def.isPipelinedBatches(),
+                def.getMaxPipelinedBatches());
     }
 
     @Override
@@ -7,6 +7,8 @@
 
 package com.evolveum.midpoint.model.impl.sync.tasks.sync;
 
+import java.util.Objects;
+
 import com.evolveum.midpoint.model.impl.sync.tasks.ResourceSetTaskWorkDefinition;
 
 import org.jetbrains.annotations.NotNull;
@@ -21,9 +23,14 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.ResourceObjectSetTyp
 
 public class LiveSyncWorkDefinition extends ResourceSetTaskWorkDefinition implements ResourceObjectSetSpecificationProvider {
 
+    /** See `maxPipelinedBatches` in {@link LiveSyncWorkDefinitionType}. */
+    private static final int DEFAULT_MAX_PIPELINED_BATCHES = 100;
+
     private final Integer batchSize;
     private final boolean updateLiveSyncTokenInDryRun;
     private final boolean updateLiveSyncTokenInPreviewMode;
+    private final boolean pipelinedBatches;
+    private final int maxPipelinedBatches;
 
     LiveSyncWorkDefinition(@NotNull WorkDefinitionFactory.WorkDefinitionInfo info) {
         super(info);
@@ -32,6 +39,9 @@ public class LiveSyncWorkDefinition extends ResourceSetTaskWorkDefinition implem
         updateLiveSyncTokenInPreviewMode = Boolean.TRUE.equals(typedDefinition.isUpdateLiveSyncTokenInPreviewMode());
         ResourceObjectSetUtil.removeQuery(getResourceObjectSetSpecification());
         updateLiveSyncTokenInDryRun = Boolean.TRUE.equals(typedDefinition.isUpdateLiveSyncTokenInDryRun());
+        pipelinedBatches = Boolean.TRUE.equals(typedDefinition.isPipelinedBatches());
+        maxPipelinedBatches = Objects.requireNonNullElse(
+                typedDefinition.getMaxPipelinedBatches(), DEFAULT_MAX_PIPELINED_BATCHES);
     }
 
     Integer getBatchSize() {
@@ -46,11 +56,21 @@ public class LiveSyncWorkDefinition extends ResourceSetTaskWorkDefinition implem
         return updateLiveSyncTokenInPreviewMode;
     }
 
+    boolean isPipelinedBatches() {
+        return pipelinedBatches;
+    }
+
+    int getMaxPipelinedBatches() {
+        return maxPipelinedBatches;
+    }
+
     @Override
     protected void debugDumpContent(StringBuilder sb, int indent) {
         DebugUtil.debugDumpWithLabelLn(sb, "resourceObjects", getResourceObjectSetSpecification(), indent+1);
         DebugUtil.debugDumpWithLabelLn(sb, "batchSize", batchSize, indent+1);
         DebugUtil.debugDumpWithLabelLn(sb, "updateLiveSyncTokenInDryRun", updateLiveSyncTokenInDryRun, indent+1);
-        DebugUtil.debugDumpWithLabel(sb, "updateLiveSyncTokenInPreviewMode", updateLiveSyncTokenInPreviewMode, indent+1);
+        DebugUtil.debugDumpWithLabelLn(sb, "updateLiveSyncTokenInPreviewMode", updateLiveSyncTokenInPreviewMode, indent+1);
+        DebugUtil.debugDumpWithLabelLn(sb, "pipelinedBatches", pipelinedBatches, indent+1);
+        DebugUtil.debugDumpWithLabel(sb, "maxPipelinedBatches", maxPipelinedBatches, indent+1);
     }
 }
@@ -26,6 +26,7 @@ import com.evolveum.midpoint.util.exception.CommonException;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.TriggerType;
 
 /**
  * Single execution of a trigger scanner task part.
@@ -37,6 +38,12 @@ final class TriggerScanActivityRun
 
     private TriggerScanItemProcessor itemProcessor;
 
+    /**
+     * Whether there are any triggers due, according to the trigger table. Determined (once per run) only for
+     * the native repository; `null` means "unknown", so the regular search must be done.
+     */
+    private Boolean dueTriggersPresent;
+
     TriggerScanActivityRun(
             @NotNull ActivityRunInstantiationContext<TriggerScanWorkDefinition, TriggerScanActivityHandler> context) {
         super(context, "Trigger scan");
@@ -59,12 +66,38 @@ final class TriggerScanActivityRun
     @Override
     public void customizeQuery(SearchSpecification<ObjectType> searchSpecification, OperationResult result) {
         LOGGER.debug("Looking for triggers with timestamps up to {}", thisScanTimestamp);
+        if (Boolean.FALSE.equals(determineDueTriggersPresent(result))) {
+            LOGGER.debug("No triggers are due, skipping the search for objects");
+            searchSpecification.addFilter(
+                    PrismContext.get().queryFactory().createNone());
+            return;
+        }
         searchSpecification.addFilter(
                 PrismContext.get().queryFor(ObjectType.class)
                         .item(F_TRIGGER, F_TIMESTAMP).le(thisScanTimestamp)
                         .buildFilter());
     }
 
+    /**
+     * The native repository keeps triggers in a dedicated (indexed) table, so we can cheaply check whether there is
+     * anything to do at all. If not, we can avoid the search over all objects, which is the usual case for a scanner
+     * running every few minutes. The search is not replaced in other cases, as it also provides bucketing, etc.
+     */
+    private Boolean determineDueTriggersPresent(OperationResult result) {
+        if (dueTriggersPresent == null && getModelBeans().cacheRepositoryService.isNative()) {
+            int dueTriggers = getModelBeans().cacheRepositoryService.countContainers(
+                    TriggerType.class,
+                    PrismContext.get().queryFor(TriggerType.class)
+                            .item(F_TIMESTAMP).le(thisScanTimestamp)
+                            .build(),
+                    null,
+                    result);
+            LOGGER.trace("Due triggers found: {}", dueTriggers);
+            dueTriggersPresent = dueTriggers > 0;
+        }
+        return dueTriggersPresent;
+    }
+
     @Override
     public boolean processItem(@NotNull ObjectType object,
             @NotNull ItemProcessingRequest<ObjectType> request, RunningTask workerTask, OperationResult result)
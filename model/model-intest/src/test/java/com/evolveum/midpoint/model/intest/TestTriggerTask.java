@@ -7,6 +7,7 @@
 package com.evolveum.midpoint.model.intest;
 
 import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.util.AssertionErrors.assertTrue;
 import static org.testng.AssertJUnit.*;
 
@@ -26,8 +27,10 @@ import com.evolveum.midpoint.model.intest.util.MockTriggerHandler;
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.delta.ItemDelta;
 import com.evolveum.midpoint.prism.xml.XmlTypeConverter;
+import com.evolveum.midpoint.repo.api.perf.PerformanceInformation;
 import com.evolveum.midpoint.repo.sqale.SqaleRepositoryService;
 import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.statistics.RepositoryPerformanceInformationUtil;
 import com.evolveum.midpoint.schema.util.task.ActivityPath;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.test.IntegrationTestTools;
@@ -112,6 +115,8 @@ public class TestTriggerTask extends AbstractInitializedModelIntegrationTest {
 
     /**
      * Waits for the task next run. No triggers should be processed.
+     *
+     * In the native repository, the search for objects is skipped altogether, as there are no due triggers.
      */
     @Test
     public void test105NoTrigger() throws Exception {
@@ -123,6 +128,7 @@ public class TestTriggerTask extends AbstractInitializedModelIntegrationTest {
 
         when();
 
+        repositoryService.getPerformanceMonitor().clearGlobalPerformanceInformation();
         waitForTaskNextRunAssertSuccess(TASK_TRIGGER_SCANNER_OID);
 
         then();
@@ -131,6 +137,9 @@ public class TestTriggerTask extends AbstractInitializedModelIntegrationTest {
 
         assertNull("Trigger was called while not expecting it", testTriggerHandler.getLastObject());
         assertNoTrigger(UserType.class, USER_JACK_OID);
+        if (isNewRepo) {
+            assertObjectSearchExecuted(false);
+        }
 
         // @formatter:off
         assertTask(TASK_TRIGGER_SCANNER_OID, "after")
@@ -143,6 +152,8 @@ public class TestTriggerTask extends AbstractInitializedModelIntegrationTest {
 
     /**
      * Creates a trigger and waits for task next run. The trigger should get processed.
+     *
+     * As there is a due trigger, the regular search for objects is executed (also in the native repository).
      */
     @Test
     public void test110TriggerCalledAgain() throws Exception {
@@ -155,6 +166,7 @@ public class TestTriggerTask extends AbstractInitializedModelIntegrationTest {
 
         when();
 
+        repositoryService.getPerformanceMonitor().clearGlobalPerformanceInformation();
         waitForTaskNextRunAssertSuccess(TASK_TRIGGER_SCANNER_OID);
 
         then();
@@ -164,6 +176,9 @@ public class TestTriggerTask extends AbstractInitializedModelIntegrationTest {
         assertNotNull("Trigger was not called", testTriggerHandler.getLastObject());
         assertEquals("Trigger was called incorrect number of times", 1, testTriggerHandler.getInvocationCount());
         assertNoTrigger(UserType.class, USER_JACK_OID);
+        if (isNewRepo) {
+            assertObjectSearchExecuted(true);
+        }
 
         // @formatter:off
         assertTask(TASK_TRIGGER_SCANNER_OID, "after")
@@ -629,4 +644,21 @@ public class TestTriggerTask extends AbstractInitializedModelIntegrationTest {
     }
 
     // trigger scanner task is suspended here; and handler is set to a delay of one day (reset will clear that)
+
+    /**
+     * Checks whether the scanner searched for objects since the global repository performance information was cleared.
+     * Native repository only: there, the search is skipped (by using the `none` filter) if there are no due triggers.
+     */
+    private void assertObjectSearchExecuted(boolean expected) {
+        PerformanceInformation performanceInformation =
+                repositoryService.getPerformanceMonitor().getGlobalPerformanceInformation();
+        displayValue("performance information",
+                RepositoryPerformanceInformationUtil.format(performanceInformation.toRepositoryPerformanceInformationType()));
+        int searches = performanceInformation.getInvocationCount("SqaleRepositoryService.searchObjectsIterative");
+        if (expected) {
+            assertThat(searches).as("searchObjectsIterative operation count").isPositive();
+        } else {
+            assertThat(searches).as("searchObjectsIterative operation count").isZero();
+        }
+    }
 }
@@ -47,6 +47,7 @@ import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.schema.util.task.TaskTypeUtil;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.test.DummyTestResource;
+import com.evolveum.midpoint.test.IntegrationTestTools;
 import com.evolveum.midpoint.test.TestObject;
 import com.evolveum.midpoint.test.asserter.TaskAsserter;
 import com.evolveum.midpoint.util.exception.CommonException;
@@ -106,6 +107,7 @@ public class TestLiveSyncTask extends AbstractInitializedModelIntegrationTest {
     private static final TestObject<TaskType> TASK_SLOW_RESOURCE = TestObject.file(TEST_DIR, "task-intsync-slow-resource.xml", "ca51f209-1ef5-42b3-84e7-5f639ee8e300");
     private static final TestObject<TaskType> TASK_SLOW_MODEL = TestObject.file(TEST_DIR, "task-intsync-slow-model.xml", "c37dda96-e547-41c2-b343-b890bc7fade9");
     private static final TestObject<TaskType> TASK_BATCHED = TestObject.file(TEST_DIR, "task-intsync-batched.xml", "ef22bf7b-5d28-4a57-b3a5-6fa58491eeb3");
+    private static final TestObject<TaskType> TASK_PIPELINED = TestObject.file(TEST_DIR, "task-intsync-pipelined.xml", "5c1e7a92-3f4b-4d8e-9a61-2b7c8d9e0f13");
     private static final TestObject<TaskType> TASK_ERROR = TestObject.file(TEST_DIR, "task-intsync-error.xml", "b697f3a8-9d02-4924-8627-c1f216e88ed3");
     private static final TestObject<TaskType> TASK_SLOW_RESOURCE_IMPRECISE = TestObject.file(TEST_DIR, "task-intsync-slow-resource-imprecise.xml", "82407cd3-7b1f-4054-b45a-fc4d9aed8ae3");
     private static final TestObject<TaskType> TASK_SLOW_MODEL_IMPRECISE = TestObject.file(TEST_DIR, "task-intsync-slow-model-imprecise.xml", "066c6993-8b94-445c-aaff-937184bbe6ca");
@@ -179,6 +181,7 @@ public class TestLiveSyncTask extends AbstractInitializedModelIntegrationTest {
         initLiveSyncTask(TASK_SLOW_MODEL, initTask, initResult);
         initLiveSyncTask(TASK_SLOW_MODEL_IMPRECISE, initTask, initResult);
         initLiveSyncTask(TASK_BATCHED, initTask, initResult);
+        initLiveSyncTask(TASK_PIPELINED, initTask, initResult);
 
         addObject(((TestObject.FileBasedTestObjectSource) (TASK_BATCHED_IMPRECISE.source)).getFile(), initTask, initResult,
                 workerThreadsCustomizer(getWorkerThreads()));
@@ -469,6 +472,88 @@ public class TestLiveSyncTask extends AbstractInitializedModelIntegrationTest {
         assertObjects(UserType.class, query, 29);       // and all records should be imported
     }
 
+    /**
+     * Pipelined batches with precise token values. The run should not stop after the first batch, but it should stop
+     * after `maxPipelinedBatches` (3) batches, i.e. after 30 records.
+     */
+    @Test
+    public void test121PipelinedBatches() throws Exception {
+        given();
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        ObjectQuery query = getStartsWithQuery(USER_P);
+        deleteUsers(query, result);
+
+        interruptedSyncResource.getDummyResource().setOperationDelayOffset(0);
+        DummyInterruptedSyncResource.delay = 0;
+        DummyInterruptedSyncResource.errorOn = null;
+
+        when();
+        waitForTaskNextRun(TASK_PIPELINED.oid, 20_000, true);
+
+        then();
+        stabilize();
+        Task taskAfter = taskManager.getTaskWithResult(TASK_PIPELINED.oid, result);
+        displayTaskWithOperationStats("Task after", taskAfter);
+        assertEquals("Wrong token value", (Integer) 30, getIntToken(taskAfter));
+
+        assertObjects(UserType.class, query, 30);
+    }
+
+    /**
+     * Suspends a pipelined run in the middle. While the run is in progress, the stored token must correspond to the batches
+     * fully processed so far (in the single-threaded case, exactly to the last batch boundary), so the processing can be
+     * resumed from there even if the run does not finish regularly.
+     */
+    @Test
+    public void test122PipelinedBatchesInterrupted() throws Exception {
+        given();
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        ObjectQuery query = getStartsWithQuery(USER_P);
+        deleteUsers(query, result);
+
+        // Resource gives out changes quickly. But they are processed slowly.
+        interruptedSyncResource.getDummyResource().setOperationDelayOffset(0);
+        DummyInterruptedSyncResource.delay = 100;
+        DummyInterruptedSyncResource.errorOn = null;
+
+        int tokenBefore = getIntToken(taskManager.getTaskWithResult(TASK_PIPELINED.oid, result));
+        displayValue("Token before", tokenBefore);
+
+        when("run is started and the first batch is processed");
+        waitForTaskNextStart(TASK_PIPELINED.oid, 2000, true);  // starts the task
+        IntegrationTestTools.waitFor("Waiting for the token to be updated between batches",
+                () -> getIntToken(taskManager.getTaskWithResult(TASK_PIPELINED.oid, result)) > tokenBefore,
+                20_000, 50);
+
+        then("token corresponds to the processed batches");
+        Task taskMidway = taskManager.getTaskWithResult(TASK_PIPELINED.oid, result);
+        int tokenMidway = getIntToken(taskMidway);
+        displayValue("Token midway", tokenMidway);
+        assertEquals("Task is not running", TaskExecutionStateType.RUNNING, taskMidway.getExecutionState());
+        assertThat(tokenMidway).as("token midway").isLessThan(tokenBefore + 30);
+        if (getWorkerThreads() <= 1) {
+            assertThat((tokenMidway - tokenBefore) % 10).as("token midway relative to batch boundary").isZero();
+        }
+
+        when("run is suspended");
+        boolean suspended = suspendTask(TASK_PIPELINED.oid, 10000);
+
+        then("token corresponds to the processed changes");
+        assertTrue("Task was not suspended", suspended);
+        Task taskAfter = taskManager.getTaskWithResult(TASK_PIPELINED.oid, result);
+        displayTaskWithOperationStats("Task after", taskAfter);
+        int tokenAfter = getIntToken(taskAfter);
+        displayValue("Token after", tokenAfter);
+        assertThat(tokenAfter).as("token after").isGreaterThanOrEqualTo(tokenMidway);
+        if (getWorkerThreads() <= 1) {
+            assertObjects(UserType.class, query, tokenAfter - tokenBefore);
+        }
+    }
+
     /**
      * Batched operation with imprecise token values. This should not be allowed.
      */
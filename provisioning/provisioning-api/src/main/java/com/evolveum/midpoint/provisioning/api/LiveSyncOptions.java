@@ -31,6 +31,12 @@ public class LiveSyncOptions {
     private final boolean updateLiveSyncTokenInDryRun;
     private final boolean updateLiveSyncTokenInPreviewMode;
 
+    /** Fetch the next batch (if any) right after the previous one, while its changes are being processed. */
+    private final boolean pipelinedBatches;
+
+    /** Maximal number of batches fetched in a single run in the pipelined mode; `null` means no limit. */
+    private final Integer maxPipelinedBatches;
+
     public LiveSyncOptions() {
         this(ExecutionModeType.FULL, null, false, false);
     }
@@ -40,10 +46,22 @@ public class LiveSyncOptions {
             Integer batchSize,
             boolean updateLiveSyncTokenInDryRun,
             boolean updateLiveSyncTokenInPreviewMode) {
+        this(executionMode, batchSize, updateLiveSyncTokenInDryRun, updateLiveSyncTokenInPreviewMode, false, null);
+    }
+
+    public LiveSyncOptions(
+            @NotNull ExecutionModeType executionMode,
+            Integer batchSize,
+            boolean updateLiveSyncTokenInDryRun,
+            boolean updateLiveSyncTokenInPreviewMode,
+            boolean pipelinedBatches,
+            Integer maxPipelinedBatches) {
         this.executionMode = executionMode;
         this.batchSize = batchSize;
         this.updateLiveSyncTokenInDryRun = updateLiveSyncTokenInDryRun;
         this.updateLiveSyncTokenInPreviewMode = updateLiveSyncTokenInPreviewMode;
+        this.pipelinedBatches = pipelinedBatches;
+        this.maxPipelinedBatches = maxPipelinedBatches;
     }
 
     public @NotNull ExecutionModeType getExecutionMode() {
@@ -61,4 +79,12 @@ public class LiveSyncOptions {
     public boolean isUpdateLiveSyncTokenInPreviewMode() {
         return updateLiveSyncTokenInPreviewMode;
     }
+
+    public boolean isPipelinedBatches() {
+        return pipelinedBatches;
+    }
+
+    public Integer getMaxPipelinedBatches() {
+        return maxPipelinedBatches;
+    }
 }
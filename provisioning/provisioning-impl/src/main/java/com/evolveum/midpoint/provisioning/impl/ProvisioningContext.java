@@ -872,6 +872,10 @@ public class ProvisioningContext implements DebugDumpable, ExecutionModeProvider
         return ResourceTypeUtil.isAvoidDuplicateValues(resource);
     }
 
+    public boolean isCoalesceEntitlementModifications() {
+        return ResourceTypeUtil.isCoalesceEntitlementModifications(resource);
+    }
+
     public void checkProtectedObjectAddition(ResourceObjectShadow object)
             throws SecurityViolationException {
         if (isAddDisabled(object.getEffectiveOperationPolicyRequired())) { // TODO treat the severity as well
@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.provisioning.impl.resourceobjects;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.xml.namespace.QName;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+
+import com.evolveum.midpoint.prism.PrismPropertyValue;
+import com.evolveum.midpoint.prism.delta.PropertyDelta;
+import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
+import com.evolveum.midpoint.provisioning.ucf.api.Operation;
+import com.evolveum.midpoint.provisioning.ucf.api.PropertyModificationOperation;
+import com.evolveum.midpoint.schema.processor.ResourceObjectIdentification;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.util.exception.CommonException;
+import com.evolveum.midpoint.util.exception.SystemException;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * Coalesces concurrent modifications of the same entitlement object (e.g. a group) into a single modify operation.
+ *
+ * When many subjects (e.g. accounts) are provisioned concurrently, each of them induces a separate modification
+ * of the entitlement object, typically adding or removing a single `ri:member` value. Instead of executing them
+ * one after another, the modifications that arrive while a modification of the same object is in progress are
+ * queued, and then executed as a single modification by the first of the waiting threads (the "leader"). There is
+ * no artificial delay: a modification that finds no other modification in progress is executed immediately.
+ * At most one modification of each object is in progress at any time.
+ *
+ * The combined modification is executed in the leader's context (task, connector instance), but each thread records
+ * the outcome in its own operation result. If the combined modification fails, each thread executes its own operations
+ * alone, so that the error is attributed to the respective subject operation. The same is done if the waiting takes
+ * longer than {@link #WAIT_TIMEOUT_MILLIS}.
+ *
+ * Only simple add/delete modifications are coalesced. A request that contains anything else (or that conflicts
+ * with the requests before it) ends the batch, and is executed in one of the next rounds.
+ *
+ * See {@link ProvisioningContext#isCoalesceEntitlementModifications()}.
+ */
+@Component
+class EntitlementModificationCoalescer {
+
+    private static final Trace LOGGER = TraceManager.getTrace(EntitlementModificationCoalescer.class);
+
+    private static final String OP_EXECUTE_COALESCED = EntitlementModificationCoalescer.class.getName() + ".executeCoalesced";
+
+    /** Maximal number of requests executed together. */
+    private static final int MAX_BATCH_SIZE = 100;
+
+    /** How long a request waits for its turn before it is executed alone. */
+    private static final long WAIT_TIMEOUT_MILLIS = 60_000L;
+
+    /** Lanes of the entitlement objects being currently modified. A lane exists only while it is busy. Guarded by itself. */
+    private final Map<LaneKey, Lane> lanes = new HashMap<>();
+
+    /**
+     * Executes the operations on given entitlement object, possibly together with operations from other threads.
+     * Returns when the operations were executed (or throws the exception if they failed).
+     */
+    void execute(
+            @NotNull ProvisioningContext entitlementCtx,
+            @NotNull ResourceObjectIdentification.WithPrimary identification,
+            @NotNull Collection<Operation> operations,
+            @NotNull OperationResult result) throws CommonException {
+
+        var key = new LaneKey(entitlementCtx.getResourceOid(), ResourceObjectDiscriminator.of(identification));
+        var request = new Request(entitlementCtx, identification, operations);
+
+        boolean leading;
+        synchronized (lanes) {
+            var lane = lanes.computeIfAbsent(key, k -> new Lane());
+            leading = !lane.busy;
+            if (leading) {
+                lane.busy = true;
+            } else {
+                lane.waiting.add(request);
+            }
+        }
+
+        if (!leading) {
+            switch (awaitOutcome(key, request)) {
+                case DONE:
+                    recordCoalesced(request, result);
+                    return;
+                case EXECUTE_ALONE:
+                    executeAlone(request, result);
+                    return;
+                case LEAD:
+                    break;
+            }
+        }
+
+        // We are the leader now, so the lane is busy, and nobody else takes from it.
+        try {
+            List<Request> batch;
+            synchronized (lanes) {
+                batch = takeBatch(request, lanes.get(key));
+            }
+            executeBatch(batch, result);
+        } finally {
+            handOver(key);
+        }
+    }
+
+    /** Passes the leadership to the first waiting request, or closes the lane if there's none. */
+    private void handOver(LaneKey key) {
+        synchronized (lanes) {
+            var lane = lanes.get(key);
+            if (lane == null) {
+                LOGGER.warn("No lane for {} when handing over the leadership", key); // should not occur
+                return;
+            }
+            var next = lane.waiting.poll();
+            if (next != null) {
+                next.outcome.complete(Outcome.LEAD);
+            } else {
+                lanes.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Takes the requests to be executed together. The first one is the leader's own request. The others are taken
+     * from the waiting ones; they are executed by the leader now, so they no longer wait for the leadership.
+     */
+    private @NotNull List<Request> takeBatch(@NotNull Request own, Lane lane) {
+        var batch = new ArrayList<Request>();
+        batch.add(own);
+        if (lane == null || !own.isMergeable()) {
+            return batch;
+        }
+        var merged = new HashMap<QName, PropertyDelta<?>>();
+        own.mergeInto(merged);
+        for (var iterator = lane.waiting.iterator(); iterator.hasNext(); ) {
+            var request = iterator.next();
+            if (batch.size() >= MAX_BATCH_SIZE || !request.canBeMergedInto(merged)) {
+                break;
+            }
+            request.mergeInto(merged);
+            batch.add(request);
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    private void executeBatch(List<Request> batch, OperationResult result) throws CommonException {
+        var own = batch.get(0);
+        if (batch.size() == 1) {
+            executeAlone(own, result);
+            return;
+        }
+        var others = batch.subList(1, batch.size());
+        LOGGER.trace("Executing {} coalesced modifications of {}", batch.size(), own.identification);
+        var batchResult = result.subresult(OP_EXECUTE_COALESCED)
+                .setMinor()
+                .addContext("requests", batch.size())
+                .build();
+        try {
+            ResourceObjectUcfModifyOperation.execute(
+                    own.ctx, null, null, own.identification, mergeOperations(batch), null, batchResult, null);
+            batchResult.recordSuccess();
+        } catch (CommonException | RuntimeException e) {
+            LOGGER.debug("Coalesced modification of {} ({} requests) failed, executing the requests one by one: {}",
+                    own.identification, batch.size(), e.getMessage(), e);
+            // The error is not final: each request is executed again, and its own error (if any) is recorded there.
+            batchResult.recordHandledError(e);
+            others.forEach(request -> request.outcome.complete(Outcome.EXECUTE_ALONE));
+            executeAlone(own, result);
+            return;
+        } catch (Throwable t) {
+            batchResult.recordFatalError(t);
+            others.forEach(request -> request.outcome.complete(Outcome.EXECUTE_ALONE));
+            throw t;
+        } finally {
+            batchResult.close();
+        }
+        var leader = Thread.currentThread().getName();
+        others.forEach(request -> {
+            request.batchSize = batch.size();
+            request.leader = leader;
+            request.outcome.complete(Outcome.DONE);
+        });
+    }
+
+    private void executeAlone(Request request, OperationResult result) throws CommonException {
+        ResourceObjectUcfModifyOperation.execute(
+                request.ctx, null, null, request.identification, request.operations, null, result, null);
+    }
+
+    /** Records the execution of the request by the leader; in the request's own result. */
+    private void recordCoalesced(Request request, OperationResult result) {
+        var subresult = result.subresult(OP_EXECUTE_COALESCED)
+                .setMinor()
+                .addContext("requests", request.batchSize)
+                .addContext("executedBy", request.leader)
+                .build();
+        subresult.recordSuccess();
+        subresult.close();
+    }
+
+    private @NotNull Collection<Operation> mergeOperations(List<Request> batch) {
+        var merged = new LinkedHashMap<QName, PropertyModificationOperation<?>>();
+        for (var request : batch) {
+            for (var operation : request.operations) {
+                var propOp = (PropertyModificationOperation<?>) operation;
+                var existing = merged.get(propOp.getItemName());
+                if (existing == null) {
+                    var newOp = new PropertyModificationOperation<>(propOp.getPropertyDelta().clone());
+                    newOp.setMatchingRuleQName(propOp.getMatchingRuleQName());
+                    merged.put(propOp.getItemName(), newOp);
+                } else {
+                    var delta = propOp.getPropertyDelta();
+                    emptyIfNull(delta.getValuesToAdd()).forEach(v -> existing.swallowValue(v.clone(), true));
+                    emptyIfNull(delta.getValuesToDelete()).forEach(v -> existing.swallowValue(v.clone(), false));
+                }
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Waits until the request is executed by a leader, or until the leadership is passed to it. The waiting is bounded
+     * and interruptible: when the time is up, or when the thread is interrupted, the request is withdrawn from the lane.
+     * If it cannot be withdrawn, it is already being executed by the leader, so we wait for the (imminent) outcome.
+     */
+    private Outcome awaitOutcome(LaneKey key, Request request) {
+        try {
+            return request.outcome.get(WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (withdraw(key, request)) {
+                LOGGER.warn("Waiting for the modification of {} took more than {} ms, executing it alone",
+                        request.identification, WAIT_TIMEOUT_MILLIS);
+                return Outcome.EXECUTE_ALONE;
+            }
+        } catch (InterruptedException e) {
+            if (withdraw(key, request)) {
+                Thread.currentThread().interrupt();
+                throw new SystemException("Interrupted while waiting for the modification of " + request.identification, e);
+            }
+            Thread.currentThread().interrupt(); // will be dealt with after the modification
+        } catch (ExecutionException e) {
+            throw new SystemException("Unexpected outcome of the modification of " + request.identification, e);
+        }
+        return request.outcome.join(); // never completed exceptionally
+    }
+
+    /** Returns `true` if the request was still waiting; after that, nobody will complete its outcome. */
+    private boolean withdraw(LaneKey key, Request request) {
+        synchronized (lanes) {
+            var lane = lanes.get(key);
+            return lane != null && lane.waiting.remove(request);
+        }
+    }
+
+    private static <T> Collection<T> emptyIfNull(Collection<T> collection) {
+        return collection != null ? collection : List.of();
+    }
+
+    private enum Outcome {
+
+        /** The thread should execute its own request along with the others waiting. */
+        LEAD,
+
+        /** The request was executed (as part of a batch) by the leader. */
+        DONE,
+
+        /** The batch failed; the thread should execute its own request alone, to get its own error (if any). */
+        EXECUTE_ALONE
+    }
+
+    private record LaneKey(@NotNull String resourceOid, @NotNull ResourceObjectDiscriminator discriminator) {
+    }
+
+    /** Modifications of a single entitlement object. */
+    private static class Lane {
+
+        /** Is there a leader executing a modification? Guarded by the lanes map. */
+        private boolean busy;
+
+        /** Requests waiting for the leadership. Guarded by the lanes map. */
+        @NotNull private final Deque<Request> waiting = new ArrayDeque<>();
+    }
+
+    private static class Request {
+
+        @NotNull private final ProvisioningContext ctx;
+        @NotNull private final ResourceObjectIdentification.WithPrimary identification;
+        @NotNull private final Collection<Operation> operations;
+        @NotNull private final CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+
+        /** Number of requests executed together; set by the leader before {@link Outcome#DONE} is reported. */
+        private int batchSize;
+
+        /** Name of the thread that executed the request; set by the leader before {@link Outcome#DONE} is reported. */
+        private String leader;
+
+        Request(
+                @NotNull ProvisioningContext ctx,
+                @NotNull ResourceObjectIdentification.WithPrimary identification,
+                @NotNull Collection<Operation> operations) {
+            this.ctx = ctx;
+            this.identification = identification;
+            this.operations = operations;
+        }
+
+        /** Only simple (non-replace) property modifications can be merged. */
+        boolean isMergeable() {
+            for (var operation : operations) {
+                if (!(operation instanceof PropertyModificationOperation<?> propOp)
+                        || propOp.getPropertyDelta().isReplace()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** The request must not delete what the previous requests add, and vice versa. */
+        boolean canBeMergedInto(Map<QName, PropertyDelta<?>> merged) {
+            if (!isMergeable()) {
+                return false;
+            }
+            for (var operation : operations) {
+                var delta = ((PropertyModificationOperation<?>) operation).getPropertyDelta();
+                var existing = merged.get(delta.getElementName());
+                if (existing != null
+                        && (intersects(delta.getValuesToAdd(), existing.getValuesToDelete())
+                        || intersects(delta.getValuesToDelete(), existing.getValuesToAdd()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Records the values of this request, to be checked by {@link #canBeMergedInto(Map)}. */
+        void mergeInto(Map<QName, PropertyDelta<?>> merged) {
+            if (!isMergeable()) {
+                return;
+            }
+            for (var operation : operations) {
+                var delta = ((PropertyModificationOperation<?>) operation).getPropertyDelta();
+                var existing = merged.get(delta.getElementName());
+                if (existing == null) {
+                    merged.put(delta.getElementName(), delta.clone());
+                } else {
+                    //noinspection unchecked,rawtypes
+                    ((PropertyDelta) existing).merge(delta);
+                }
+            }
+        }
+
+        private static boolean intersects(
+                Collection<? extends PrismPropertyValue<?>> values1, Collection<? extends PrismPropertyValue<?>> values2) {
+            if (values1 == null || values2 == null) {
+                return false;
+            }
+            for (var value : values1) {
+                if (values2.contains(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
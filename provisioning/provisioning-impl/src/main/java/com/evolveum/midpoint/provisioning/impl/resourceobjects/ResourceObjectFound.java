@@ -10,14 +10,17 @@ package com.evolveum.midpoint.provisioning.impl.resourceobjects;
 import java.util.Objects;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
 import com.evolveum.midpoint.provisioning.ucf.api.UcfResourceObject;
+import com.evolveum.midpoint.schema.processor.ResourceObjectIdentification;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.util.DebugUtil;
 import com.evolveum.midpoint.util.annotation.Experimental;
 import com.evolveum.midpoint.util.exception.CommonException;
+import com.evolveum.midpoint.util.exception.SchemaException;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
 
@@ -79,6 +82,14 @@ public class ResourceObjectFound extends AbstractLazilyInitializableResourceEnti
         return initialUcfResourceObject;
     }
 
+    /**
+     * Identification of the object as provided by UCF, i.e. available before the initialization.
+     * Used e.g. to look up repo shadows for a number of objects in advance.
+     */
+    public @Nullable ResourceObjectIdentification<?> getInitialIdentification() throws SchemaException {
+        return initialResourceObject.getIdentification();
+    }
+
     /** Returns the best available resource object. */
     public @NotNull ExistingResourceObjectShadow getResourceObject() {
         return getCompleteResourceObject().resourceObject();
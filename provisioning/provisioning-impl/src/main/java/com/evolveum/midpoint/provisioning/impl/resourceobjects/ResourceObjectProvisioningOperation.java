@@ -10,6 +10,7 @@ package com.evolveum.midpoint.provisioning.impl.resourceobjects;
 import com.evolveum.midpoint.provisioning.api.GenericConnectorException;
 import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
 import com.evolveum.midpoint.provisioning.impl.RepoShadow;
+import com.evolveum.midpoint.provisioning.impl.ResourceObjectOperations;
 import com.evolveum.midpoint.provisioning.ucf.api.*;
 import com.evolveum.midpoint.provisioning.util.ProvisioningUtil;
 import com.evolveum.midpoint.schema.processor.ShadowSimpleAttributeDefinition;
@@ -161,21 +162,26 @@ abstract class ResourceObjectProvisioningOperation {
             var result = parentResult.createMinorSubresult(OPERATION_MODIFY_ENTITLEMENT);
             try {
 
-                ResourceObjectUcfModifyOperation.execute(
-                        entitlementCtx,
-                        null,
-                        operationsEntry.getValue().getCurrentResourceObject(),
-                        ResourceObjectIdentification.of(entitlementCtx.getObjectDefinitionRequired(), entitlementIdentifiers),
-                        entitlementOperations,
-                        null,
-                        result,
-                        connOptions);
+                var entitlementIdentification =
+                        ResourceObjectIdentification.of(entitlementCtx.getObjectDefinitionRequired(), entitlementIdentifiers);
+                if (canCoalesceEntitlementOperations(entitlementCtx, operationsEntry.getValue())) {
+                    b.entitlementModificationCoalescer.execute(
+                            entitlementCtx, entitlementIdentification, entitlementOperations, result);
+                } else {
+                    ResourceObjectUcfModifyOperation.execute(
+                            entitlementCtx,
+                            null,
+                            operationsEntry.getValue().getCurrentResourceObject(),
+                            entitlementIdentification,
+                            entitlementOperations,
+                            null,
+                            result,
+                            connOptions);
+                }
 
                 result.recordSuccess();
 
-            } catch (ObjectNotFoundException | CommunicationException | SchemaException | SecurityViolationException |
-                    PolicyViolationException | ConfigurationException | ObjectAlreadyExistsException |
-                    ExpressionEvaluationException e) {
+            } catch (CommonException e) {
                 // We need to handle this specially.
                 // E.g. ObjectNotFoundException means that the entitlement object was not found,
                 // not that the subject was not found. It we throw ObjectNotFoundException here it may be
@@ -195,6 +201,17 @@ abstract class ResourceObjectProvisioningOperation {
         }
     }
 
+    /**
+     * Coalescing is not done if the operations depend on the current state of the object, or if they are executed
+     * under a specific identity; see {@link EntitlementModificationCoalescer}.
+     */
+    private boolean canCoalesceEntitlementOperations(
+            ProvisioningContext entitlementCtx, ResourceObjectOperations entitlementOperations) {
+        return entitlementCtx.isCoalesceEntitlementModifications()
+                && entitlementOperations.getCurrentResourceObject() == null
+                && (connOptions == null || connOptions.getRunAsIdentification() == null);
+    }
+
     @Nullable
     ExistingResourceObjectShadow preOrPostRead(
             ProvisioningContext ctx,
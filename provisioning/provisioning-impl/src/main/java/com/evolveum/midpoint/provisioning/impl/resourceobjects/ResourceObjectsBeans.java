@@ -37,6 +37,7 @@ class ResourceObjectsBeans {
     @Autowired ResourceObjectConverter resourceObjectConverter;
     @Autowired FakeIdentifierGenerator fakeIdentifierGenerator;
     @Autowired ResourceObjectReferenceResolver resourceObjectReferenceResolver;
+    @Autowired EntitlementModificationCoalescer entitlementModificationCoalescer;
 
     // From other parts of the code
     @Autowired CacheConfigurationManager cacheConfigurationManager;
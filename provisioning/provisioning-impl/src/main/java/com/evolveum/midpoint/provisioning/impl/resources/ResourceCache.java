@@ -8,13 +8,20 @@ package com.evolveum.midpoint.provisioning.impl.resources;
 
 import com.evolveum.midpoint.CacheInvalidationContext;
 import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.prism.delta.ChangeType;
 import com.evolveum.midpoint.repo.api.Cache;
 import com.evolveum.midpoint.repo.api.RepositoryService;
 import com.evolveum.midpoint.repo.api.CacheRegistry;
+import com.evolveum.midpoint.repo.cache.invalidation.RepositoryCacheInvalidationDetails;
+import com.evolveum.midpoint.schema.cache.CacheConfigurationManager;
+import com.evolveum.midpoint.schema.cache.CacheType;
 import com.evolveum.midpoint.schema.internals.InternalMonitor;
+import com.evolveum.midpoint.schema.processor.NativeResourceSchema;
 import com.evolveum.midpoint.schema.processor.ResourceSchemaFactory;
 import com.evolveum.midpoint.schema.processor.ResourceSchemaRegistry;
 import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.ResourceTypeUtil;
+import com.evolveum.midpoint.util.caching.CacheConfiguration;
 import com.evolveum.midpoint.util.caching.CachePerformanceCollector;
 import com.evolveum.midpoint.util.exception.ConfigurationException;
 import com.evolveum.midpoint.util.exception.ObjectNotFoundException;
@@ -27,6 +34,7 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.SingleCacheStateInfo
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.SetMultimap;
 import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Element;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -34,11 +42,12 @@ import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.evolveum.midpoint.util.MiscUtil.schemaCheck;
 import static com.evolveum.midpoint.util.caching.CacheConfiguration.StatisticsLevel.PER_CACHE;
@@ -48,7 +57,17 @@ import static com.evolveum.midpoint.util.caching.CacheConfiguration.StatisticsLe
  *
  * Resource cache is similar to repository cache. One of the differences is that it does not expire its entries.
  * It relies on versions and on invalidation events instead. So we have to use resource object versions when querying it.
- * (This could be perhaps changed in the future. But not now.)
+ *
+ * The exception is {@link #getIfLatest(String, boolean, OperationResult)}: if the time to live is configured for this cache
+ * (see {@link CacheType#RESOURCE_CACHE}), a resource whose version was checked against the repository within that time
+ * is returned without asking the repository again. In the meanwhile, we rely on the invalidation events (which are
+ * clusterwide, if so configured). By default, the version is checked on each call.
+ *
+ * Reading is lock-free; the modifications (put, invalidation) are synchronized.
+ *
+ * Optionally (see {@link CacheType#RESOURCE_SCHEMA_CACHE}), the parsed native schemas of cached resources are kept even after
+ * the resources are invalidated, so they can be reused for newer versions of the resources having the same schema definition.
+ * See {@link #reuseParsedNativeSchema(ResourceType)}.
  *
  * The cache deals with concrete resources, i.e. _not_ the abstract ones. So, when an abstract resource is invalidated,
  * all concrete ones that inherit from it should be invalidated as well.
@@ -64,6 +83,7 @@ public class ResourceCache implements Cache {
     @Autowired private ResourceSchemaRegistry resourceSchemaRegistry;
     @Autowired private CacheRegistry cacheRegistry;
     @Autowired @Qualifier("cacheRepositoryService") private RepositoryService repositoryService;
+    @Autowired private CacheConfigurationManager cacheConfigurationManager;
 
     @PostConstruct
     public void register() {
@@ -79,9 +99,23 @@ public class ResourceCache implements Cache {
      * Note that prism objects in this map are always not null and immutable.
      * And they must remain immutable after getting them from the cache.
      *
-     * As for ConcurrentHashMap: Although we use synchronization whenever possible, let's be extra cautious here.
+     * Modifications are guarded by `this`; reading is done without locking.
+     */
+    private final Map<String, CachedResource> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on each invalidation of a resource (or of the whole cache). A version check is considered valid only if no invalidation occurred since
+     * the check was started; otherwise, we could trust a resource that was modified during the check.
+     */
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * Native schemas of cached resources, along with the XSD they were parsed from. Entries survive the invalidation
+     * of individual resources (that's the point); they are replaced when a newer version of the resource is cached,
+     * and removed when the resource is deleted.
+     * Used only if {@link CacheType#RESOURCE_SCHEMA_CACHE} is enabled.
      */
-    private final Map<String, PrismObject<ResourceType>> cache = new ConcurrentHashMap<>();
+    private final Map<String, ParsedNativeSchema> parsedNativeSchemas = new ConcurrentHashMap<>();
 
     /**
      * `K -> V` means that (concrete) resource `V` depends on (concrete or abstract) resource `K`.
@@ -106,21 +140,71 @@ public class ResourceCache implements Cache {
 
         updateDependencies(oid, ancestorsOids);
 
-        PrismObject<ResourceType> cachedResource = cache.get(oid);
-        if (cachedResource == null) {
+        CachedResource cached = cache.get(oid);
+        if (cached == null) {
             LOGGER.debug("Caching(new): {}", resource);
-            cache.put(oid, resource.asPrismObject().createImmutableClone());
-        } else if (compareVersion(resource.getVersion(), cachedResource.getVersion())) {
+            cache.put(oid, new CachedResource(resource.asPrismObject().createImmutableClone()));
+            rememberParsedNativeSchema(resource);
+        } else if (compareVersion(resource.getVersion(), cached.resource.getVersion())) {
             LOGGER.debug("Caching fizzle, resource already cached: {}", resource);
             // We already have equivalent resource, nothing to do
             //  TODO is this correct? What if the resource being put here is newer than the existing one (although having the same version)?
         } else {
             LOGGER.debug("Caching(replace): {}", resource);
-            cache.put(oid, resource.asPrismObject().createImmutableClone());
+            cache.put(oid, new CachedResource(resource.asPrismObject().createImmutableClone()));
             resourceSchemaRegistry.putSchema(oid, ResourceSchemaFactory.getCompleteSchema(resource));
+            rememberParsedNativeSchema(resource);
+        }
+    }
+
+    /** Guarded by `this` (responsibility of the caller). */
+    private void rememberParsedNativeSchema(@NotNull ResourceType resource) throws SchemaException {
+        String oid = resource.getOid();
+        if (!isSchemaCacheEnabled()) {
+            parsedNativeSchemas.remove(oid);
+            return;
+        }
+        NativeResourceSchema schema = ResourceSchemaFactory.getNativeSchema(resource);
+        Element xsdSchemaElement = ResourceTypeUtil.getResourceXsdSchemaElement(resource);
+        if (schema != null && xsdSchemaElement != null) {
+            // We need our own copy of the XSD, as the resource may be modified by the caller.
+            // Synchronization is there because of MID-5648 (see ResourceSchemaFactory#getNativeSchema).
+            Element xsdSchemaElementCopy;
+            synchronized (xsdSchemaElement) {
+                xsdSchemaElementCopy = (Element) xsdSchemaElement.cloneNode(true);
+            }
+            parsedNativeSchemas.put(oid, new ParsedNativeSchema(xsdSchemaElementCopy, schema));
+        } else {
+            parsedNativeSchemas.remove(oid);
         }
     }
 
+    /**
+     * Provides the (mutable) resource with a previously parsed native schema, if its XSD is the same as the one of
+     * the resource that was cached under the same OID before. Does nothing if the schema cache is not enabled.
+     *
+     * Typical scenario: the resource was modified (e.g. its configuration or operational state), so the cached
+     * version was invalidated, but the schema remained the same.
+     */
+    void reuseParsedNativeSchema(@NotNull ResourceType resource) {
+        String oid = resource.getOid();
+        ParsedNativeSchema parsed = oid != null ? parsedNativeSchemas.get(oid) : null;
+        if (parsed == null || !isSchemaCacheEnabled()) {
+            return;
+        }
+        if (ResourceSchemaFactory.reuseNativeSchema(resource.asPrismObject(), parsed.xsdSchemaElement(), parsed.schema())) {
+            LOGGER.debug("Reused parsed native schema for {}", resource);
+        } else {
+            LOGGER.trace("Parsed native schema for {} could not be reused", resource);
+        }
+    }
+
+    private boolean isSchemaCacheEnabled() {
+        CacheConfiguration configuration = cacheConfigurationManager.getConfiguration(CacheType.RESOURCE_SCHEMA_CACHE);
+        return configuration != null
+                && (configuration.getMaxSize() == null || configuration.getMaxSize() != 0);
+    }
+
     /**
      * Updates the {@link #dependencyMap} with the current information about ancestors of given (concrete) resource.
      *
@@ -145,21 +229,28 @@ public class ResourceCache implements Cache {
     /**
      * Gets a resource if it has specified version. If it has not, purges it from the cache (even if it exists there).
      */
-    synchronized PrismObject<ResourceType> get(@NotNull String oid, String requestedVersion, boolean readOnly) {
+    PrismObject<ResourceType> get(@NotNull String oid, String requestedVersion, boolean readOnly) {
         InternalMonitor.getResourceCacheStats().recordRequest();
 
-        PrismObject<ResourceType> resourceToReturn;
-        PrismObject<ResourceType> cachedResource = cache.get(oid);
-        if (cachedResource == null) {
+        CachedResource cached = cache.get(oid);
+        if (cached == null) {
             LOGGER.debug("MISS(not cached) for {} (get)", oid);
-            resourceToReturn = null;
-        } else if (!compareVersion(requestedVersion, cachedResource.getVersion())) {
-            LOGGER.debug("MISS(wrong version) for {} (req={}, actual={})", oid, requestedVersion, cachedResource.getVersion());
+            return recordMiss();
+        } else if (!compareVersion(requestedVersion, cached.resource.getVersion())) {
+            LOGGER.debug("MISS(wrong version) for {} (req={}, actual={})", oid, requestedVersion, cached.resource.getVersion());
             LOGGER.trace("Cached resource version {} does not match requested resource version {}, purging from cache",
-                    cachedResource.getVersion(), requestedVersion);
-            invalidateSingle(oid);
-            resourceToReturn = null;
-        } else if (readOnly) {
+                    cached.resource.getVersion(), requestedVersion);
+            invalidateSingleIfUnchanged(oid, cached);
+            return recordMiss();
+        } else {
+            return returnHit(cached, readOnly);
+        }
+    }
+
+    private PrismObject<ResourceType> returnHit(@NotNull CachedResource cached, boolean readOnly) {
+        PrismObject<ResourceType> resourceToReturn;
+        PrismObject<ResourceType> cachedResource = cached.resource;
+        if (readOnly) {
             cachedResource.checkImmutable();
             LOGGER.trace("HIT(read only) for {} (v{})", cachedResource, cachedResource.getVersion());
             resourceToReturn = cachedResource;
@@ -167,81 +258,123 @@ public class ResourceCache implements Cache {
             LOGGER.debug("HIT(returning clone) for {} (v{})", cachedResource, cachedResource.getVersion());
             resourceToReturn = cachedResource.clone();
         }
-
-        if (resourceToReturn != null) {
-            CachePerformanceCollector.INSTANCE.registerHit(ResourceCache.class, ResourceType.class, PER_CACHE);
-            InternalMonitor.getResourceCacheStats().recordHit();
-        } else {
-            CachePerformanceCollector.INSTANCE.registerMiss(ResourceCache.class, ResourceType.class, PER_CACHE);
-            InternalMonitor.getResourceCacheStats().recordMiss();
-        }
+        CachePerformanceCollector.INSTANCE.registerHit(ResourceCache.class, ResourceType.class, PER_CACHE);
+        InternalMonitor.getResourceCacheStats().recordHit();
         return resourceToReturn;
     }
 
+    private PrismObject<ResourceType> recordMiss() {
+        CachePerformanceCollector.INSTANCE.registerMiss(ResourceCache.class, ResourceType.class, PER_CACHE);
+        InternalMonitor.getResourceCacheStats().recordMiss();
+        return null;
+    }
+
     /**
      * Gets a resource without specifying requested version: returns one only if it has the same version as in the repo.
      *
      * This requires a cooperation with the repository cache. Therefore this method is NOT synchronized
      * and has operation result as its parameter.
+     *
+     * If the resource version was checked recently (see {@link #getVersionCheckInterval()}), the repository is not asked.
      */
     PrismObject<ResourceType> getIfLatest(@NotNull String oid, boolean readonly, OperationResult parentResult)
             throws SchemaException, ObjectNotFoundException {
         // First let's check if the cache contains given resource. If not, we can avoid getting version from the repo.
-        if (contains(oid)) {
-            String version = repositoryService.getVersion(ResourceType.class, oid, parentResult);
-            return get(oid, version, readonly);
-        } else {
+        CachedResource cached = cache.get(oid);
+        if (cached == null) {
             LOGGER.debug("MISS(not cached) for {} (getIfLatest)", oid);
-            CachePerformanceCollector.INSTANCE.registerMiss(ResourceCache.class, ResourceType.class, PER_CACHE);
-            InternalMonitor.getResourceCacheStats().recordMiss();
-            return null;
+            return recordMiss();
+        }
+
+        long versionCheckInterval = getVersionCheckInterval();
+        if (versionCheckInterval > 0 && cached.isVersionCheckValid(versionCheckInterval, invalidationCount.get())) {
+            LOGGER.trace("Version of {} was checked recently, not checking it now", oid);
+            InternalMonitor.getResourceCacheStats().recordRequest();
+            return returnHit(cached, readonly);
         }
+
+        long invalidationCountBefore = invalidationCount.get();
+        String version = repositoryService.getVersion(ResourceType.class, oid, parentResult);
+        PrismObject<ResourceType> resource = get(oid, version, readonly);
+        if (resource != null) {
+            cached.recordVersionCheck(invalidationCountBefore);
+        }
+        return resource;
     }
 
-    private synchronized boolean contains(@NotNull String oid) {
-        return cache.containsKey(oid);
+    /** How long (in milliseconds) can we trust the version of a cached resource without checking it. Zero means "not at all". */
+    private long getVersionCheckInterval() {
+        CacheConfiguration configuration = cacheConfigurationManager.getConfiguration(CacheType.RESOURCE_CACHE);
+        Integer timeToLive = configuration != null ? configuration.getTimeToLive() : null;
+        return timeToLive != null ? timeToLive * 1000L : 0;
     }
 
     /**
      * Returns currently cached version. FOR DIAGNOSTICS ONLY.
      */
-    synchronized String getVersion(String oid) {
+    String getVersion(String oid) {
         if (oid == null) {
             return null;
         }
-        PrismObject<ResourceType> cachedResource = cache.get(oid);
-        if (cachedResource == null) {
+        CachedResource cached = cache.get(oid);
+        if (cached == null) {
             return null;
         }
-        return cachedResource.getVersion();
+        return cached.resource.getVersion();
     }
 
     @Override
     public synchronized void invalidate(Class<?> type, String oid, CacheInvalidationContext context) {
+        // Invalidations of other types do not touch the invalidation count, so they do not force version checks.
         if (type == null || type.isAssignableFrom(ResourceType.class)) {
             if (oid != null) {
-                invalidateSingle(oid);
+                invalidateSingle(oid, isDeletion(context));
             } else {
                 invalidateAll();
             }
         }
     }
 
-    /** Invalidates single (concrete) resource and all its descendants. */
-    synchronized void invalidateSingle(@NotNull String oid) {
+    private static boolean isDeletion(CacheInvalidationContext context) {
+        return context != null
+                && context.getDetails() instanceof RepositoryCacheInvalidationDetails details
+                && details.getResult() != null
+                && details.getResult().getChangeType() == ChangeType.DELETE;
+    }
+
+    /** Invalidates given resource (and its descendants), unless it was replaced in the meanwhile. */
+    private synchronized void invalidateSingleIfUnchanged(@NotNull String oid, @NotNull CachedResource cached) {
+        if (cache.get(oid) == cached) {
+            invalidateSingle(oid, false);
+        }
+    }
+
+    /**
+     * Invalidates single (concrete) resource and all its descendants.
+     *
+     * @param deleted Is the resource being deleted? If so, its parsed native schema is forgotten as well.
+     */
+    synchronized void invalidateSingle(@NotNull String oid, boolean deleted) {
+        invalidationCount.incrementAndGet();
         Set<String> descendants = new HashSet<>(dependencyMap.get(oid));
         LOGGER.trace("Invalidating {} and all its descendants: {}", oid, descendants);
 
-        invalidateSingleShallow(oid);
-        descendants.forEach(this::invalidateSingle);
+        invalidateSingleShallow(oid, deleted);
+        descendants.forEach(descendant -> invalidateSingle(descendant, false));
     }
 
     /**
-     * Removes the specific resource from {@link #cache} and {@link #dependencyMap}). Not touching the descendants.
-     * Must be guarded by `this` (caller's responsibility).
+     * Removes the specific resource from {@link #cache} and {@link #dependencyMap}), and - for deleted resources -
+     * from {@link #parsedNativeSchemas}. Not touching the descendants. Must be guarded by `this` (caller's responsibility).
+     *
+     * The parsed native schema of a resource that is only modified is kept, because it is to be reused by the next version
+     * of the resource, which is always completed (and cached) after the invalidation of the previous one.
      */
-    private void invalidateSingleShallow(@NotNull String oid) {
+    private void invalidateSingleShallow(@NotNull String oid, boolean deleted) {
         cache.remove(oid);
+        if (deleted) {
+            parsedNativeSchemas.remove(oid);
+        }
         dependencyMap.removeAll(oid);
         dependencyMap.entries().removeIf(
                 entry -> oid.equals(entry.getValue()));
@@ -250,25 +383,61 @@ public class ResourceCache implements Cache {
     /** Invalidates the whole cache. Must be guarded by `this` (caller's responsibility). */
     private void invalidateAll() {
         LOGGER.trace("Invalidating the whole cache");
+        invalidationCount.incrementAndGet();
         cache.clear();
         dependencyMap.clear();
+        parsedNativeSchemas.clear();
     }
 
     @NotNull
     @Override
-    public synchronized Collection<SingleCacheStateInformationType> getStateInformation() {
-        return Collections.singleton(
+    public Collection<SingleCacheStateInformationType> getStateInformation() {
+        return List.of(
                 new SingleCacheStateInformationType()
                         .name(ResourceCache.class.getName())
-                        .size(cache.size())
+                        .size(cache.size()),
+                new SingleCacheStateInformationType()
+                        .name(ResourceCache.class.getName() + ".parsedNativeSchemas")
+                        .size(parsedNativeSchemas.size())
         );
     }
 
     @Override
     public void dumpContent() {
         if (LOGGER_CONTENT.isInfoEnabled()) {
-            cache.forEach((oid, resource) -> LOGGER_CONTENT.info("Cached resource: {}: {} (version: {})",
-                    oid, resource, resource.getVersion()));
+            cache.forEach((oid, cached) -> LOGGER_CONTENT.info("Cached resource: {}: {} (version: {})",
+                    oid, cached.resource, cached.resource.getVersion()));
+        }
+    }
+
+    /** A parsed native schema, with the XSD it was parsed from. The XSD must not be modified. */
+    private record ParsedNativeSchema(@NotNull Element xsdSchemaElement, @NotNull NativeResourceSchema schema) {
+    }
+
+    /** A resource in the cache, along with the information about the last successful version check. */
+    private static class CachedResource {
+
+        @NotNull private final PrismObject<ResourceType> resource;
+
+        /** When was the version last checked against the repository (successfully). Zero if never. */
+        private volatile long versionChecked;
+
+        /** Value of {@link #invalidationCount} at the start of the last successful version check. */
+        private volatile long invalidationCountAtVersionCheck;
+
+        CachedResource(@NotNull PrismObject<ResourceType> resource) {
+            this.resource = resource;
+        }
+
+        void recordVersionCheck(long invalidationCountBefore) {
+            invalidationCountAtVersionCheck = invalidationCountBefore;
+            versionChecked = System.currentTimeMillis();
+        }
+
+        boolean isVersionCheckValid(long interval, long currentInvalidationCount) {
+            return versionChecked > 0
+                    && invalidationCountAtVersionCheck == currentInvalidationCount
+                    && System.currentTimeMillis() - versionChecked < interval;
         }
     }
 }
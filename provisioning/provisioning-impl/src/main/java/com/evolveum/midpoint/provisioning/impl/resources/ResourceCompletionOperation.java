@@ -221,7 +221,8 @@ class ResourceCompletionOperation {
     private void parseSchema(ResourceType completed) {
         try {
             // Make sure the schema is parseable. We are going to cache the resource, so we want to cache it
-            // with the parsed schemas.
+            // with the parsed schemas. The native schema may be already known from the previous version of the resource.
+            beans.resourceCache.reuseParsedNativeSchema(completed);
             ResourceSchemaFactory.getNativeSchema(completed);
             ResourceSchema completeSchema = ResourceSchemaFactory.getCompleteSchema(completed);
             LOGGER.trace("Complete schema:\n{}", DebugUtil.debugDumpLazily(completeSchema, 1));
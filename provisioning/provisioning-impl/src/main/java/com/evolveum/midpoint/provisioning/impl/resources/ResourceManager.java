@@ -218,7 +218,7 @@ public class ResourceManager {
     }
 
     public void deleteResource(@NotNull String oid, OperationResult parentResult) throws ObjectNotFoundException {
-        resourceCache.invalidateSingle(oid);
+        resourceCache.invalidateSingle(oid, true);
         repositoryService.deleteObject(ResourceType.class, oid, parentResult);
     }
 
@@ -121,9 +121,18 @@ public abstract class AbstractLazilyInitializableShadowedEntity implements Lazil
     /** Looks up and creates (if needed) a shadow for the resource object. Deals with errors. */
     @NotNull RepoShadowWithState acquireRepoShadow(@NotNull ExistingResourceObjectShadow resourceObject, OperationResult result)
             throws SchemaException, ConfigurationException, EncryptionException {
+        return acquireRepoShadow(resourceObject, null, result);
+    }
+
+    /** As {@link #acquireRepoShadow(ExistingResourceObjectShadow, OperationResult)}, using the prefetched shadows, if any. */
+    @NotNull RepoShadowWithState acquireRepoShadow(
+            @NotNull ExistingResourceObjectShadow resourceObject,
+            @Nullable PrefetchedRepoShadows prefetchedShadows,
+            OperationResult result)
+            throws SchemaException, ConfigurationException, EncryptionException {
 
         try {
-            return ShadowAcquisition.acquireRepoShadow(effectiveCtx, resourceObject, false, result);
+            return ShadowAcquisition.acquireRepoShadow(effectiveCtx, resourceObject, false, prefetchedShadows, result);
         } catch (Exception e) {
             // No need to log stack trace now. It will be logged at the place where the exception is processed.
             LoggingUtils.logExceptionAsWarning(
@@ -28,7 +28,6 @@ import com.evolveum.midpoint.provisioning.impl.RepoShadow;
 import com.evolveum.midpoint.provisioning.impl.resourceobjects.ExistingResourceObjectShadow;
 import com.evolveum.midpoint.provisioning.impl.shadows.classification.ResourceObjectClassifier;
 import com.evolveum.midpoint.provisioning.impl.shadows.classification.ShadowTagGenerator;
-import com.evolveum.midpoint.provisioning.impl.shadows.manager.ShadowUpdater;
 import com.evolveum.midpoint.schema.processor.ResourceObjectDefinition;
 import com.evolveum.midpoint.schema.processor.ResourceObjectTypeIdentification;
 import com.evolveum.midpoint.schema.result.OperationResult;
@@ -55,16 +54,19 @@ class ClassificationHelper {
     @Autowired private PrismContext prismContext;
     @Autowired private ResourceObjectClassifier classifier;
     @Autowired private ShadowTagGenerator shadowTagGenerator;
-    @Autowired private ShadowUpdater shadowUpdater;
 
     /**
      * Classifies the current repoShadow, based on information from the resource object.
-     * As a result, the repository is updated.
+     *
+     * As a result, the in-memory shadow is updated. The repository is not updated here: the modifications are put into
+     * `pendingModifications`, and are to be written by the caller, along with other updates of the shadow.
+     * This spares one repository update per classified shadow (e.g. for each newly discovered one).
      */
     ResourceObjectClassification classify(
             @NotNull ProvisioningContext ctx,
             @NotNull RepoShadow repoShadow,
             @NotNull ExistingResourceObjectShadow resourceObject,
+            @NotNull RepoShadowModifications pendingModifications,
             @NotNull OperationResult result) throws CommunicationException, ObjectNotFoundException, SchemaException,
             SecurityViolationException, ConfigurationException, ExpressionEvaluationException {
 
@@ -72,13 +74,14 @@ class ClassificationHelper {
         // This is NOT a full shadowization. Just good enough for the classifier to work.
         ShadowType combinedObject = combine(resourceObject, repoShadow);
 
-        return classifyInternal(ctx, repoShadow, combinedObject, result);
+        return classifyInternal(ctx, repoShadow, combinedObject, pendingModifications, result);
     }
 
     private ResourceObjectClassification classifyInternal(
             ProvisioningContext ctx,
             RepoShadow repoShadow,
             ShadowType combinedObject,
+            RepoShadowModifications pendingModifications,
             OperationResult result)
             throws CommunicationException, ObjectNotFoundException, SchemaException, SecurityViolationException,
             ConfigurationException, ExpressionEvaluationException {
@@ -91,7 +94,7 @@ class ClassificationHelper {
 
         if (isDifferent(classification, combinedObject)) {
             LOGGER.trace("New/updated classification of {} found: {}", combinedObject, classification);
-            updateShadowClassificationAndTag(repoShadow, combinedObject, classification, ctx, result);
+            updateShadowClassificationAndTag(repoShadow, combinedObject, classification, ctx, pendingModifications, result);
         } else {
             LOGGER.trace("No change in classification of {}: {}", combinedObject, classification);
         }
@@ -124,6 +127,7 @@ class ClassificationHelper {
             @NotNull ShadowType combinedObject,
             @NotNull ResourceObjectClassification classification,
             @NotNull ProvisioningContext ctx,
+            @NotNull RepoShadowModifications pendingModifications,
             @NotNull OperationResult result)
             throws ObjectNotFoundException, SchemaException, ExpressionEvaluationException, CommunicationException,
             SecurityViolationException, ConfigurationException {
@@ -157,8 +161,8 @@ class ClassificationHelper {
             sendSimulationData(repoShadow, itemDeltas, ctx.getTask(), result);
             repoShadow.updateWith(itemDeltas);
         } else {
-            var modifications = RepoShadowModifications.of(itemDeltas);
-            shadowUpdater.executeRepoShadowModifications(ctx, repoShadow, modifications, result);
+            repoShadow.updateWith(itemDeltas);
+            pendingModifications.addAll(itemDeltas);
         }
     }
 
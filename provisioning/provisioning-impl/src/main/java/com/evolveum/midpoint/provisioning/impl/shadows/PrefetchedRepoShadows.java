@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.provisioning.impl.shadows;
+
+import java.util.*;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.prism.PrismProperty;
+import com.evolveum.midpoint.prism.path.ItemPath;
+import com.evolveum.midpoint.prism.polystring.PolyString;
+import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
+import com.evolveum.midpoint.schema.processor.ResourceObjectIdentification.WithPrimary;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.RawRepoShadow;
+import com.evolveum.midpoint.util.exception.SchemaException;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowType;
+import com.evolveum.prism.xml.ns._public.types_3.PolyStringType;
+
+/**
+ * Repository shadows for a number of resource objects (e.g. a window of objects found by a search),
+ * obtained by a single query on their primary identifiers. Used by {@link ShadowAcquisition} instead of looking up
+ * the shadow for each object individually.
+ *
+ * The shadows are matched to the objects by comparing normalized values of the primary identifier. If any of the shadows
+ * returned cannot be matched to an object (meaning that our comparison is not reliable for the particular attribute),
+ * the whole prefetch is discarded, and the shadows are looked up individually as before.
+ *
+ * Note that a shadow that is not found here may be created by another thread in the meanwhile. This situation is
+ * the same as with the individual lookup, and is treated in {@link ShadowAcquisition} when the shadow is being added.
+ */
+class PrefetchedRepoShadows {
+
+    private static final Trace LOGGER = TraceManager.getTrace(PrefetchedRepoShadows.class);
+
+    /** Shadows (live or dead) by normalized primary identifier value. Contains entries for all identifications covered. */
+    @NotNull private final Map<Object, List<PrismObject<ShadowType>>> shadowsByIdentifier;
+
+    private PrefetchedRepoShadows(@NotNull Map<Object, List<PrismObject<ShadowType>>> shadowsByIdentifier) {
+        this.shadowsByIdentifier = shadowsByIdentifier;
+    }
+
+    /** Returns `null` if there is nothing to prefetch, or if the result cannot be used. */
+    static @Nullable PrefetchedRepoShadows prefetch(
+            @NotNull ProvisioningContext ctx,
+            @NotNull Collection<WithPrimary> identifications,
+            @NotNull OperationResult result) throws SchemaException {
+
+        if (identifications.isEmpty()) {
+            return null;
+        }
+
+        Map<Object, List<PrismObject<ShadowType>>> shadowsByIdentifier = new HashMap<>();
+        for (WithPrimary identification : identifications) {
+            shadowsByIdentifier.put(toComparable(identification), new ArrayList<>());
+        }
+
+        var shadows = ShadowsLocalBeans.get().shadowFinder.searchShadowsByAnyPrimaryIdentifier(ctx, identifications, result);
+        LOGGER.trace("Prefetched {} shadows for {} primary identifiers", shadows.size(), identifications.size());
+
+        ItemPath identifierPath = identifications.iterator().next().getPrimaryIdentifier().getSearchPath();
+        for (PrismObject<ShadowType> shadow : shadows) {
+            List<PrismObject<ShadowType>> matching = findMatching(shadowsByIdentifier, shadow, identifierPath);
+            if (matching == null) {
+                LOGGER.debug("Couldn't match prefetched shadow {} to any of the primary identifiers, "
+                        + "the shadows will be looked up individually", shadow);
+                return null;
+            }
+            matching.add(shadow);
+        }
+        return new PrefetchedRepoShadows(shadowsByIdentifier);
+    }
+
+    private static @Nullable List<PrismObject<ShadowType>> findMatching(
+            @NotNull Map<Object, List<PrismObject<ShadowType>>> shadowsByIdentifier,
+            @NotNull PrismObject<ShadowType> shadow,
+            @NotNull ItemPath identifierPath) {
+        PrismProperty<?> property = shadow.findProperty(identifierPath);
+        if (property == null) {
+            return null;
+        }
+        for (Object realValue : property.getRealValues()) {
+            var matching = shadowsByIdentifier.get(toComparable(realValue));
+            if (matching != null) {
+                return matching;
+            }
+        }
+        return null;
+    }
+
+    private static Object toComparable(@NotNull WithPrimary identification) {
+        return toComparable(identification.getPrimaryIdentifier().getNormValue());
+    }
+
+    /** Values of attributes with non-trivial normalization are stored in the repository as polystrings. */
+    private static Object toComparable(Object realValue) {
+        if (realValue instanceof PolyString polyString) {
+            return polyString.getNorm();
+        } else if (realValue instanceof PolyStringType polyStringType) {
+            return polyStringType.getNorm();
+        } else {
+            return realValue;
+        }
+    }
+
+    /** Returns `true` if the shadows for given identification were prefetched, i.e. no repository lookup is needed. */
+    boolean covers(@NotNull WithPrimary identification) {
+        return shadowsByIdentifier.containsKey(toComparable(identification));
+    }
+
+    /**
+     * Returns the live shadow for given identification, if there is one. Assumes the identification is covered.
+     *
+     * The identification is no longer covered after this call, because the shadow may be updated by the caller;
+     * so if the same object is seen again (e.g. in the same window), it is looked up in the repository.
+     */
+    @Nullable RawRepoShadow takeLiveShadow(@NotNull WithPrimary identification) {
+        var shadows = shadowsByIdentifier.remove(toComparable(identification));
+        assert shadows != null;
+        return RawRepoShadow.selectLiveShadow(shadows, "by primary identifier " + identification + " (prefetched)");
+    }
+}
@@ -14,6 +14,7 @@ import com.evolveum.midpoint.provisioning.impl.RepoShadow;
 import com.evolveum.midpoint.schema.processor.ResourceObjectIdentification;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.evolveum.midpoint.prism.crypto.EncryptionException;
 import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
@@ -61,16 +62,21 @@ class ShadowAcquisition {
      */
     private final boolean embedded;
 
+    /** Shadows looked up in advance for a number of objects (including this one, hopefully). */
+    @Nullable private final PrefetchedRepoShadows prefetchedShadows;
+
     private final ShadowsLocalBeans b = ShadowsLocalBeans.get();
 
     private ShadowAcquisition(
             @NotNull ProvisioningContext ctx,
             @NotNull ExistingResourceObjectShadow resourceObject,
-            boolean embedded) throws SchemaException {
+            boolean embedded,
+            @Nullable PrefetchedRepoShadows prefetchedShadows) throws SchemaException {
         this.ctx = ctx;
         this.primaryIdentification = resourceObject.getPrimaryIdentification();
         this.resourceObject = resourceObject;
         this.embedded = embedded;
+        this.prefetchedShadows = prefetchedShadows;
     }
 
 
@@ -92,14 +98,26 @@ class ShadowAcquisition {
             @NotNull OperationResult result)
             throws SchemaException, ConfigurationException, EncryptionException {
 
-        return new ShadowAcquisition(ctx, resourceObject, embedded)
+        return acquireRepoShadow(ctx, resourceObject, embedded, null, result);
+    }
+
+    /** As {@link #acquireRepoShadow(ProvisioningContext, ExistingResourceObjectShadow, boolean, OperationResult)}. */
+    static @NotNull RepoShadowWithState acquireRepoShadow(
+            @NotNull ProvisioningContext ctx,
+            @NotNull ExistingResourceObjectShadow resourceObject,
+            boolean embedded,
+            @Nullable PrefetchedRepoShadows prefetchedShadows,
+            @NotNull OperationResult result)
+            throws SchemaException, ConfigurationException, EncryptionException {
+
+        return new ShadowAcquisition(ctx, resourceObject, embedded, prefetchedShadows)
                 .execute(result);
     }
 
     private @NotNull RepoShadowWithState execute(OperationResult result)
             throws SchemaException, ConfigurationException, EncryptionException {
 
-        var existingLiveRepoShadow = b.shadowFinder.lookupLiveRepoShadowByPrimaryId(ctx, primaryIdentification, embedded, result);
+        var existingLiveRepoShadow = lookupLiveRepoShadow(result);
         if (existingLiveRepoShadow != null) {
             LOGGER.trace("Found live shadow object in the repository {}", existingLiveRepoShadow.shortDumpLazily());
             return RepoShadowWithState.existing(existingLiveRepoShadow);
@@ -119,6 +137,16 @@ class ShadowAcquisition {
         }
     }
 
+    private @Nullable RepoShadow lookupLiveRepoShadow(OperationResult result)
+            throws SchemaException, ConfigurationException {
+        if (prefetchedShadows != null && prefetchedShadows.covers(primaryIdentification)) {
+            var rawRepoShadow = prefetchedShadows.takeLiveShadow(primaryIdentification);
+            return rawRepoShadow != null ? ctx.adoptRawRepoShadow(rawRepoShadow) : null;
+        } else {
+            return b.shadowFinder.lookupLiveRepoShadowByPrimaryId(ctx, primaryIdentification, embedded, result);
+        }
+    }
+
     private @NotNull RepoShadowWithState findConflictingShadow(ObjectAlreadyExistsException e, OperationResult result)
             throws SchemaException, ConfigurationException {
 
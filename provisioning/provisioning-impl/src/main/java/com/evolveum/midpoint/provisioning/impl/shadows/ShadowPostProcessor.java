@@ -12,6 +12,7 @@ import com.evolveum.midpoint.prism.delta.ObjectDelta;
 import com.evolveum.midpoint.provisioning.api.ResourceObjectClassification;
 import com.evolveum.midpoint.provisioning.impl.ProvisioningContext;
 import com.evolveum.midpoint.provisioning.impl.RepoShadow;
+import com.evolveum.midpoint.provisioning.impl.RepoShadowModifications;
 import com.evolveum.midpoint.provisioning.impl.resourceobjects.CompleteResourceObject;
 import com.evolveum.midpoint.provisioning.impl.resourceobjects.ExistingResourceObjectShadow;
 import com.evolveum.midpoint.provisioning.util.ProvisioningUtil;
@@ -23,6 +24,7 @@ import com.evolveum.midpoint.schema.util.AbstractShadow;
 import com.evolveum.midpoint.schema.util.ShadowReferenceAttributesCollection;
 import com.evolveum.midpoint.util.exception.*;
 
+import com.evolveum.midpoint.util.logging.LoggingUtils;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
 
@@ -56,6 +58,9 @@ class ShadowPostProcessor {
     /** The new classification (if applicable). */
     private ResourceObjectClassification newClassification;
 
+    /** Modifications from the classification, to be written along with the regular shadow update. */
+    @NotNull private final RepoShadowModifications classificationModifications = new RepoShadowModifications();
+
     private ExistingResourceObjectShadow combinedObject;
 
     @NotNull private final ShadowsLocalBeans b = ShadowsLocalBeans.get();
@@ -79,16 +84,23 @@ class ShadowPostProcessor {
         // Classifies the object if needed. Applies the current definition (in all cases).
         classifyIfNeededAndApplyTheDefinition(result);
 
-        // Acquires/updates/combines shadow(s) embedded in the reference values, in both object and object delta.
-        postProcessShadowsInReferenceValues(result);
-
-        // Computes current marks and policies, taking into account both repo shadow (current marks, statements)
-        // and the current object (data). We must NOT apply policies to the shadow, in order to correctly determine the delta.
-        var marksAndPolicies = ctx.computeEffectiveMarksAndPolicies(repoShadow, resourceObject, result);
-
-        // Updates the shadow in repository (and in memory), based on the information obtained from the resource.
-        repoShadow = b.shadowUpdater.updateShadowInRepositoryAndInMemory(
-                ctx, repoShadow, resourceObject, resourceObjectDelta, newClassification, marksAndPolicies, result);
+        try {
+            // Acquires/updates/combines shadow(s) embedded in the reference values, in both object and object delta.
+            postProcessShadowsInReferenceValues(result);
+
+            // Computes current marks and policies, taking into account both repo shadow (current marks, statements)
+            // and the current object (data). We must NOT apply policies to the shadow, in order to correctly determine the delta.
+            var marksAndPolicies = ctx.computeEffectiveMarksAndPolicies(repoShadow, resourceObject, result);
+
+            // Updates the shadow in repository (and in memory), based on the information obtained from the resource.
+            // The classification modifications (if any) are written here as well.
+            repoShadow = b.shadowUpdater.updateShadowInRepositoryAndInMemory(
+                    ctx, repoShadow, resourceObject, resourceObjectDelta, newClassification, classificationModifications,
+                    marksAndPolicies, result);
+        } catch (Throwable t) {
+            writeClassificationAfterFailure(t, result);
+            throw t;
+        }
 
         // Completes the shadow by adding attributes from the resource object.
         combinedObject = ShadowedObjectConstruction.construct(ctx, repoShadow.shadow(), resourceObject, result);
@@ -103,11 +115,8 @@ class ShadowPostProcessor {
         var oldClassification = ResourceObjectClassification.of(repoShadow.shadow());
 
         if (b.classificationHelper.shouldClassify(ctx, repoShadow.getBean())) {
-            // TODO is it OK that the classification helper updates the repository (and determines the tag)?
-            //  Shouldn't we do that only during shadow update?
-            //  Probably that's ok, because that's the place where we can redirect the delta to the simulation result.
-            //  As part of general shadow update it is hidden among other deltas.
-            newClassification = b.classificationHelper.classify(ctx, repoShadow.shadow(), resourceObject, result);
+            newClassification = b.classificationHelper.classify(
+                    ctx, repoShadow.shadow(), resourceObject, classificationModifications, result);
             if (newClassification.isKnown()) {
                 ResourceObjectTypeDefinition newTypeDefinition = newClassification.getDefinitionRequired();
                 LOGGER.debug("Classified {} as {}", repoShadow, newTypeDefinition);
@@ -162,6 +171,23 @@ class ShadowPostProcessor {
         }
     }
 
+    /**
+     * The classification was already applied to the in-memory shadow, but it was not written to the repository, as the
+     * processing failed before the shadow update. We write it now, so it is not lost: this is how the classification
+     * was stored before it was merged into the shadow update. Any failure here is recorded along with the original one.
+     */
+    private void writeClassificationAfterFailure(@NotNull Throwable failure, @NotNull OperationResult result) {
+        if (classificationModifications.isEmpty()) {
+            return;
+        }
+        try {
+            b.shadowUpdater.executeRepoShadowModifications(ctx, repoShadow.shadow(), classificationModifications, result);
+        } catch (Throwable t) {
+            LoggingUtils.logExceptionAsWarning(LOGGER, "Couldn't write the classification of {}", t, repoShadow);
+            failure.addSuppressed(t);
+        }
+    }
+
     private void postProcessShadowsInReferenceValues(OperationResult result)
             throws SchemaException, ExpressionEvaluationException, CommunicationException, SecurityViolationException,
             ConfigurationException, ObjectNotFoundException, EncryptionException {
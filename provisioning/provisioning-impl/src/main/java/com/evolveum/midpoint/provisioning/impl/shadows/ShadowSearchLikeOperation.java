@@ -33,10 +33,13 @@ import com.evolveum.midpoint.schema.*;
 import com.evolveum.midpoint.schema.internals.InternalCounters;
 import com.evolveum.midpoint.schema.internals.InternalMonitor;
 import com.evolveum.midpoint.schema.internals.InternalsConfig;
+import com.evolveum.midpoint.schema.processor.ResourceObjectIdentification;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.schema.util.ObjectQueryUtil;
 import com.evolveum.midpoint.task.api.Task;
+import com.evolveum.midpoint.util.QNameUtil;
 import com.evolveum.midpoint.util.exception.*;
+import com.evolveum.midpoint.util.logging.LoggingUtils;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.FetchErrorReportingMethodType;
@@ -48,9 +51,14 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowType;
 class ShadowSearchLikeOperation {
 
     private static final String OP_PROCESS_REPO_SHADOW = ShadowSearchLikeOperation.class.getName() + ".processRepoShadow";
+    private static final String OP_PROCESS_REMAINING_OBJECTS =
+            ShadowSearchLikeOperation.class.getName() + ".processRemainingObjects";
 
     private static final Trace LOGGER = TraceManager.getTrace(ShadowSearchLikeOperation.class);
 
+    /** How many objects found on the resource are processed together. See {@link ObjectsFoundWindow}. */
+    private static final int SHADOW_PREFETCH_WINDOW_SIZE = 50;
+
     @NotNull private final ProvisioningContext ctx;
     @Nullable private final ObjectQuery query;
 
@@ -155,7 +163,142 @@ class ShadowSearchLikeOperation {
         // We need to record the fetch down here. Now it is certain that we are going to fetch from resource.
         InternalMonitor.recordCount(InternalCounters.SHADOW_FETCH_OPERATION_COUNT);
 
-        ResourceObjectHandler shadowHandler = (ResourceObjectFound objectFound, OperationResult objParentResult) -> {
+        var window = new ObjectsFoundWindow(handler, ucfErrorReportingMethod);
+        ResourceObjectHandler shadowHandler = window::add;
+
+        boolean fetchAssociations = SelectorOptions.hasToIncludePath(ShadowType.F_ASSOCIATIONS, options, true);
+        boolean searchCompleted = false;
+        try {
+            var metadata = b.resourceObjectConverter.searchResourceObjects(
+                    ctx, shadowHandler, createOnResourceQuery(), fetchAssociations, ucfErrorReportingMethod, parentResult);
+            searchCompleted = true;
+            window.processRemaining(parentResult);
+            return metadata;
+        } catch (TunnelException e) {
+            unwrapAndThrowSearchingTunnelException(e);
+            throw new AssertionError();
+        } finally {
+            if (!searchCompleted) {
+                window.processRemainingAfterFailure(parentResult);
+            }
+        }
+    }
+
+    /**
+     * Objects found on the resource that wait for their processing (shadowing and passing to the upstream handler).
+     *
+     * To avoid looking up the repo shadow for each object individually (which is one query per object, and it's the
+     * dominant cost e.g. for a reconciliation of large resource), the objects are collected into windows, and their shadows
+     * are fetched by a single query. See {@link PrefetchedRepoShadows}.
+     *
+     * This is done only for the native repository, as the generic one does not cope well with large OR-queries on attributes.
+     * For the generic one, each object is processed immediately.
+     */
+    private class ObjectsFoundWindow {
+
+        @NotNull private final ResultHandler<ShadowType> handler;
+        @Nullable private final FetchErrorReportingMethodType ucfErrorReportingMethod;
+        private final int windowSize;
+        @NotNull private final List<ResourceObjectFound> objectsFound = new ArrayList<>();
+
+        /** Set when the upstream handler asks to stop. Objects not processed at that time are discarded. */
+        private boolean stopped;
+
+        ObjectsFoundWindow(
+                @NotNull ResultHandler<ShadowType> handler,
+                @Nullable FetchErrorReportingMethodType ucfErrorReportingMethod) {
+            this.handler = handler;
+            this.ucfErrorReportingMethod = ucfErrorReportingMethod;
+            this.windowSize = determineWindowSize();
+        }
+
+        private int determineWindowSize() {
+            if (ShadowsFacade.shadowPrefetchWindowSizeOverride != null) {
+                return Math.max(1, ShadowsFacade.shadowPrefetchWindowSizeOverride);
+            } else {
+                return b.repositoryService.isNative() ? SHADOW_PREFETCH_WINDOW_SIZE : 1;
+            }
+        }
+
+        boolean add(@NotNull ResourceObjectFound objectFound, @NotNull OperationResult objParentResult) {
+            objectsFound.add(objectFound);
+            if (objectsFound.size() < windowSize) {
+                return true;
+            } else {
+                return process(objParentResult);
+            }
+        }
+
+        void processRemaining(@NotNull OperationResult parentResult) {
+            if (!objectsFound.isEmpty() && !stopped) {
+                process(parentResult);
+            }
+        }
+
+        /**
+         * The search failed, but we want to process the objects that were found before the failure, as we did before.
+         *
+         * The original exception is being propagated, so we do not throw the one occurring here, as it would replace it.
+         * It is recorded in the operation result instead.
+         */
+        void processRemainingAfterFailure(@NotNull OperationResult parentResult) {
+            if (objectsFound.isEmpty() || stopped) {
+                return;
+            }
+            var result = parentResult.subresult(OP_PROCESS_REMAINING_OBJECTS)
+                    .addParam("objects", objectsFound.size())
+                    .build();
+            try {
+                processRemaining(result);
+            } catch (RuntimeException e) {
+                LoggingUtils.logUnexpectedException(
+                        LOGGER, "Couldn't process remaining objects after the search failed", e);
+                result.recordException(e);
+            } finally {
+                result.close();
+            }
+        }
+
+        private boolean process(@NotNull OperationResult objParentResult) {
+            var prefetchedShadows = prefetchShadows(objParentResult);
+            var objectsToProcess = List.copyOf(objectsFound);
+            objectsFound.clear();
+            for (ResourceObjectFound objectFound : objectsToProcess) {
+                if (!processObject(objectFound, prefetchedShadows, objParentResult)) {
+                    stopped = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Failures here are not fatal: the shadows are then looked up individually, where the errors are reported. */
+        private @Nullable PrefetchedRepoShadows prefetchShadows(@NotNull OperationResult result) {
+            if (objectsFound.size() < 2) {
+                return null;
+            }
+            try {
+                var objectClassName = ctx.getObjectClassNameRequired();
+                List<ResourceObjectIdentification.WithPrimary> identifications = new ArrayList<>();
+                for (ResourceObjectFound objectFound : objectsFound) {
+                    if (objectFound.getInitialIdentification() instanceof ResourceObjectIdentification.WithPrimary withPrimary
+                            && QNameUtil.match(objectClassName, withPrimary.getObjectClassName())) {
+                        identifications.add(withPrimary);
+                    }
+                }
+                return PrefetchedRepoShadows.prefetch(ctx, identifications, result);
+            } catch (SchemaException | RuntimeException e) {
+                LoggingUtils.logExceptionAsWarning(
+                        LOGGER, "Couldn't prefetch shadows for {} objects found, will look them up individually",
+                        e, objectsFound.size());
+                return null;
+            }
+        }
+
+        private boolean processObject(
+                @NotNull ResourceObjectFound objectFound,
+                @Nullable PrefetchedRepoShadows prefetchedShadows,
+                @NotNull OperationResult objParentResult) {
 
             // See ResultHandler#providingOwnOperationResult
             var objResult = objParentResult
@@ -164,7 +307,7 @@ class ShadowSearchLikeOperation {
                     .setMinor()
                     .build();
             try {
-                ShadowedObjectFound shadowedObjectFound = new ShadowedObjectFound(objectFound);
+                ShadowedObjectFound shadowedObjectFound = new ShadowedObjectFound(objectFound, prefetchedShadows);
                 shadowedObjectFound.initialize(ctx.getTask(), objResult);
                 ShadowType shadowedObject = shadowedObjectFound.getResultingObject(ucfErrorReportingMethod, objResult);
                 shadowedObject.setContentDescription(
@@ -179,15 +322,6 @@ class ShadowSearchLikeOperation {
                 objResult.deleteSubresultsIfPossible();
                 objParentResult.summarize();
             }
-        };
-
-        boolean fetchAssociations = SelectorOptions.hasToIncludePath(ShadowType.F_ASSOCIATIONS, options, true);
-        try {
-            return b.resourceObjectConverter.searchResourceObjects(
-                    ctx, shadowHandler, createOnResourceQuery(), fetchAssociations, ucfErrorReportingMethod, parentResult);
-        } catch (TunnelException e) {
-            unwrapAndThrowSearchingTunnelException(e);
-            throw new AssertionError();
         }
     }
 
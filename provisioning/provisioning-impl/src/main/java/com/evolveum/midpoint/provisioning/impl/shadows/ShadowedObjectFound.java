@@ -44,6 +44,9 @@ public class ShadowedObjectFound extends AbstractLazilyInitializableShadowedEnti
     /** The resource object that corresponds to this instance. */
     @NotNull private final ResourceObjectFound resourceObjectFound;
 
+    /** Repo shadows looked up in advance for this and other objects found. */
+    @Nullable private final PrefetchedRepoShadows prefetchedShadows;
+
 //    /**
 //     * The object after "shadowization". Fulfills the following:
 //     *
@@ -62,8 +65,14 @@ public class ShadowedObjectFound extends AbstractLazilyInitializableShadowedEnti
 //     */
 
     ShadowedObjectFound(@NotNull ResourceObjectFound resourceObjectFound) {
+        this(resourceObjectFound, null);
+    }
+
+    ShadowedObjectFound(
+            @NotNull ResourceObjectFound resourceObjectFound, @Nullable PrefetchedRepoShadows prefetchedShadows) {
         super(resourceObjectFound);
         this.resourceObjectFound = resourceObjectFound;
+        this.prefetchedShadows = prefetchedShadows;
     }
 
     @Override
@@ -75,7 +84,7 @@ public class ShadowedObjectFound extends AbstractLazilyInitializableShadowedEnti
     @Override
     protected RepoShadowWithState acquireOrLookupRepoShadow(OperationResult result)
             throws SchemaException, ConfigurationException, EncryptionException {
-        return acquireRepoShadow(resourceObjectFound.getResourceObject(), result);
+        return acquireRepoShadow(resourceObjectFound.getResourceObject(), prefetchedShadows, result);
     }
 
     @Override
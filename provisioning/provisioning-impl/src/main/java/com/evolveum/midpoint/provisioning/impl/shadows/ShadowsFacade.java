@@ -56,6 +56,13 @@ public class ShadowsFacade {
     @VisibleForTesting
     public static final String OP_HANDLE_RESOURCE_OBJECT_FOUND = ShadowsFacade.class.getName() + ".handleResourceObjectFound";
 
+    /**
+     * If set, overrides the size of the window of objects found by a search, whose repository shadows are fetched together.
+     * Value of 1 means no prefetching, i.e. the behavior for the generic repository. See `ShadowSearchLikeOperation`.
+     */
+    @VisibleForTesting
+    public static Integer shadowPrefetchWindowSizeOverride;
+
     @Autowired private DefinitionsHelper definitionsHelper;
     @Autowired private ShadowOperationPropagationHelper propagationHelper;
     @Autowired private ShadowCompareHelper compareHelper;
@@ -73,7 +73,7 @@ import com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowType;
  *
  * @see ShadowDeltaComputerRelative
  * @see ShadowUpdater#updateShadowInRepositoryAndInMemory(ProvisioningContext, RepoShadowWithState, ResourceObjectShadow,
- * ObjectDelta, ResourceObjectClassification, EffectiveMarksAndPolicies, OperationResult)
+ * ObjectDelta, ResourceObjectClassification, RepoShadowModifications, EffectiveMarksAndPolicies, OperationResult)
  * @see ShadowObjectComputer
  */
 class ShadowDeltaComputerAbsolute {
@@ -491,6 +491,15 @@ class ShadowDeltaComputerAbsolute {
             return;
         }
 
+        // Fast path for the most common case (e.g. in reconciliation): the values are the same, so there's no need to create
+        // the expected property and compute the delta. If they are equal, the diff would be empty as well.
+        // Note that this saves only the computation. The shadow is still written, as the retrieval timestamp in the caching
+        // metadata is updated on each fetch (see updateCachingMetadata); the cache freshness checks depend on that.
+        if (MiscUtil.unorderedCollectionEquals(oldRepoProp.getRealValues(), expectedRepoPropRealValues)) {
+            LOGGER.trace("Not updating property {} because it is up-to-date in repo (fast path)", attrDef.getItemName());
+            return;
+        }
+
         PrismProperty<N> expectedRepoAttr = expectedRepoPropDef.instantiateFromUniqueRealValues(expectedRepoPropRealValues);
         //noinspection unchecked
         PropertyDelta<N> repoAttrDelta = ((PrismProperty<N>) oldRepoProp).diff(expectedRepoAttr);
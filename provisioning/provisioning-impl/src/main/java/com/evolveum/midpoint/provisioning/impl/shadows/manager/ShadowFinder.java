@@ -13,6 +13,7 @@ import static com.evolveum.midpoint.util.DebugUtil.lazy;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import com.evolveum.midpoint.schema.util.ObjectSet;
 import com.evolveum.midpoint.schema.util.RawRepoShadow;
@@ -217,6 +218,43 @@ public class ShadowFinder {
         }
     }
 
+    /**
+     * Searches for shadows (live or dead) having any of the provided primary identifiers, using a single query.
+     * Used to look up shadows for a number of resource objects at once, e.g. when processing objects found by a search.
+     *
+     * All identifications must be for the same object class.
+     */
+    public @NotNull List<PrismObject<ShadowType>> searchShadowsByAnyPrimaryIdentifier(
+            @NotNull ProvisioningContext ctx,
+            @NotNull Collection<WithPrimary> identifications,
+            @NotNull OperationResult result)
+            throws SchemaException {
+
+        if (identifications.isEmpty()) {
+            return List.of();
+        }
+
+        var objectClassNames = identifications.stream()
+                .map(WithPrimary::getObjectClassName)
+                .collect(Collectors.toSet());
+        Preconditions.checkArgument(objectClassNames.size() == 1,
+                "Expected single object class, got %s for %s", objectClassNames, ctx);
+
+        S_FilterEntry q = prismContext.queryFor(ShadowType.class)
+                .block();
+        for (WithPrimary identification : identifications) {
+            q = q.filter(identification.getPrimaryIdentifier().normalizationAwareEqFilter()).or();
+        }
+        ObjectQuery query = q.none().endBlock()
+                .and().item(ShadowType.F_OBJECT_CLASS).eq(objectClassNames.iterator().next())
+                .and().item(ShadowType.F_RESOURCE_REF).ref(ctx.getResourceOid())
+                .build();
+        LOGGER.trace("Searching for shadows by {} primary identifiers using query:\n{}",
+                identifications.size(), query.debugDumpLazily(1));
+
+        return searchRepoShadows(query, zeroStalenessOptions(), result); // no caching!
+    }
+
     /**
      * Looks up a shadow by primary identifier value.
      *
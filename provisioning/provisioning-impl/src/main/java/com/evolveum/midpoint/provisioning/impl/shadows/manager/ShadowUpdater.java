@@ -447,6 +447,8 @@ public class ShadowUpdater {
      *
      * @param resourceObject Current state of the resource object. Not shadowized yet.
      * @param resourceObjectDelta Delta coming from the resource (if known).
+     * @param pendingModifications Modifications already applied to the in-memory shadow (e.g. by the classification),
+     * to be written to the repository along with the modifications computed here.
      * @return repository shadow as it should look like after the update
      * @see ShadowDeltaComputerAbsolute
      */
@@ -456,6 +458,7 @@ public class ShadowUpdater {
             @NotNull ResourceObjectShadow resourceObject,
             @Nullable ObjectDelta<ShadowType> resourceObjectDelta,
             @Nullable ResourceObjectClassification newClassification,
+            @NotNull RepoShadowModifications pendingModifications,
             @NotNull EffectiveMarksAndPolicies effectiveMarksAndPolicies,
             OperationResult result)
             throws SchemaException, ObjectNotFoundException, ConfigurationException, EncryptionException {
@@ -492,6 +495,7 @@ public class ShadowUpdater {
                 ShadowDeltaComputerAbsolute.computeShadowModifications(
                         ctx, repoShadow.shadow(), resourceObject, resourceObjectDelta,
                         effectiveMarksAndPolicies, true, result);
+        shadowModifications.addAll(pendingModifications);
 
         executeRepoShadowModifications(ctx, repoShadow.shadow(), shadowModifications, result);
 
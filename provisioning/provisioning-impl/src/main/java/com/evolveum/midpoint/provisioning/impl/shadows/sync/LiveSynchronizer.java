@@ -49,6 +49,12 @@ import com.evolveum.midpoint.xml.ns._public.resource.capabilities_3.LiveSyncCapa
  * 1. Converts ROC changes into pre-processed shadowed changes, embeds them to {@link LiveSyncEvent} instances and emits them out.
  * 2. Manages the token value in the task, based on the acknowledgements.
  * 3. Keeps the control until all events are acknowledged.
+ *
+ * In the "pipelined batches" mode (see {@link LiveSyncOptions#isPipelinedBatches()}), the changes are fetched in a sequence
+ * of batches, each one starting at the token of the last change fetched in the previous one. A batch is fetched while
+ * the changes from previous batches are still being processed (by worker threads); the token is updated between the batches
+ * to the oldest processed change, just like it is done at the end. The number of batches in a single run is limited
+ * by {@link LiveSyncOptions#getMaxPipelinedBatches()}.
  */
 @Component
 public class LiveSynchronizer {
@@ -85,6 +91,7 @@ public class LiveSynchronizer {
         ResourceObjectLiveSyncChangeListener listener = (resourceObjectChange, lResult) -> {
 
             int sequentialNumber = ctx.oldestTokenWatcher.changeArrived(resourceObjectChange.getToken());
+            ctx.lastFetchedToken = resourceObjectChange.getToken();
 
             ShadowedLiveSyncChange change = new ShadowedLiveSyncChange(resourceObjectChange);
             change.initialize(task, lResult);
@@ -102,20 +109,36 @@ public class LiveSynchronizer {
 
             acknowledgeGate.registerIssuedEvent(event);
             try {
-                return handler.handle(event, lResult);
+                boolean continueProcessing = handler.handle(event, lResult);
+                if (!continueProcessing) {
+                    ctx.stopRequested = true;
+                }
+                return continueProcessing;
             } catch (Throwable t) {
                 // We assume the event was not acknowledged yet. Note that serious handler should never throw an exception!
                 LoggingUtils.logUnexpectedException(LOGGER, "Got unexpected exception while handling a live sync event", t);
                 acknowledgeGate.acknowledgeIssuedEvent(event);
+                ctx.stopRequested = true;
                 return false;
             }
         };
 
         UcfFetchChangesResult fetchChangesResult;
         try {
-            fetchChangesResult =
-                    resourceObjectConverter.fetchChanges(
-                            ctx.context, ctx.getInitialToken(), ctx.getBatchSize(), listener, gResult);
+            LiveSyncToken batchStartToken = ctx.getInitialToken();
+            for (;;) {
+                ctx.lastFetchedToken = null;
+                fetchChangesResult =
+                        resourceObjectConverter.fetchChanges(
+                                ctx.context, batchStartToken, ctx.getBatchSize(), listener, gResult);
+                ctx.batchesFetched++;
+                if (!ctx.shouldFetchNextBatch(fetchChangesResult)) {
+                    break;
+                }
+                LOGGER.debug("Batch of changes fetched; fetching the next one starting at {}", ctx.lastFetchedToken);
+                updateTokenValueBetweenBatches(ctx, gResult);
+                batchStartToken = ctx.lastFetchedToken;
+            }
         } finally {
             handler.allEventsSubmitted(gResult);
         }
@@ -187,6 +210,25 @@ public class LiveSynchronizer {
         }
     }
 
+    /**
+     * Stores the token corresponding to the changes processed so far, so the processing can continue from there,
+     * should the task be stopped before the end. Pipelined batches are used only with precise token values,
+     * so this is safe (just like in {@link #updateTokenValue(LiveSyncCtx, OperationResult)}).
+     */
+    private void updateTokenValueBetweenBatches(LiveSyncCtx ctx, OperationResult result)
+            throws SchemaException, ObjectNotFoundException, ObjectAlreadyExistsException {
+        if (ctx.isPreview() && !ctx.isUpdateLiveSyncTokenInPreviewMode()
+                || ctx.isDryRun() && !ctx.isUpdateLiveSyncTokenInDryRun()) {
+            return;
+        }
+        LiveSyncToken oldestTokenProcessed = ctx.oldestTokenWatcher.getOldestTokenProcessed();
+        if (oldestTokenProcessed != null) {
+            LOGGER.trace("Setting token value between batches to {}", SchemaDebugUtil.prettyPrintLazily(oldestTokenProcessed));
+            ctx.tokenStorage.setToken(oldestTokenProcessed, result);
+            ctx.syncResult.setTokenUpdatedTo(oldestTokenProcessed);
+        }
+    }
+
     /**
      * No sync token in task. We are going to simply fetch the current token value from the resource and skip any processing.
      * (This is introduced in 4.0.1; it is different from the behaviour up to and including 4.0.) The rational is that
@@ -222,6 +264,15 @@ public class LiveSynchronizer {
         @NotNull private final OldestTokenWatcher oldestTokenWatcher;
         private LiveSyncToken finalToken; // TODO what exactly is this for? Be sure to set it only when all changes were processed
 
+        /** Token of the last change fetched in the current batch. Accessed only from the thread that fetches the changes. */
+        private LiveSyncToken lastFetchedToken;
+
+        /** True if the handler asked to stop (or failed). Accessed only from the thread that fetches the changes. */
+        private boolean stopRequested;
+
+        /** Number of batches fetched in this run. Accessed only from the thread that fetches the changes. */
+        private int batchesFetched;
+
         private LiveSyncCtx(
                 @NotNull ResourceOperationCoordinates coordinates,
                 @NotNull Task task,
@@ -261,6 +312,35 @@ public class LiveSynchronizer {
             return options.getBatchSize();
         }
 
+        /**
+         * The next batch is fetched only if the current one was not complete (so there are presumably more changes),
+         * and the fetching can continue from the last change, i.e. the token values are precise. The batch must not be empty,
+         * to avoid looping with the same token. The number of batches per run is limited, so the run ends in a reasonable time
+         * even if the resource produces changes faster than we process them.
+         */
+        boolean shouldFetchNextBatch(UcfFetchChangesResult fetchChangesResult) {
+            Integer batchSize = getBatchSize();
+            LiveSyncCapabilityType capability = context.getCapability(LiveSyncCapabilityType.class);
+            return options.isPipelinedBatches()
+                    && batchSize != null && batchSize > 0
+                    && capability != null && isTrue(capability.isPreciseTokenValue())
+                    && !fetchChangesResult.isAllChangesFetched()
+                    && lastFetchedToken != null
+                    && !stopRequested
+                    && !isMaxPipelinedBatchesReached()
+                    && canRun();
+        }
+
+        private boolean isMaxPipelinedBatchesReached() {
+            Integer max = options.getMaxPipelinedBatches();
+            if (max != null && batchesFetched >= max) {
+                LOGGER.debug("Maximal number of pipelined batches ({}) reached, the rest is left for the next run", max);
+                return true;
+            } else {
+                return false;
+            }
+        }
+
         boolean isUpdateLiveSyncTokenInDryRun() {
             return options.isUpdateLiveSyncTokenInDryRun();
         }
@@ -391,6 +391,38 @@ public class TestDummyCaching extends TestDummy {
         updateAndCheckMultivaluedAttribute(will, true, "removing all", List.of(), task, result);
     }
 
+    /**
+     * Fetching an unchanged account must not modify any cached data; the only change is the retrieval timestamp
+     * in the caching metadata. (So the shadow is written even in this case.)
+     */
+    @Test
+    public void test906GetUnchangedAccount() throws Exception {
+        given();
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        provisioningService.getObject(ShadowType.class, ACCOUNT_WILL_OID, null, task, result);
+        RawRepoShadow shadowBefore = getShadowRepoRetrieveAllAttributes(ACCOUNT_WILL_OID, result);
+
+        XMLGregorianCalendar startTs = clock.currentTimeXMLGregorianCalendar();
+
+        when();
+        provisioningService.getObject(ShadowType.class, ACCOUNT_WILL_OID, null, task, result);
+
+        then();
+        XMLGregorianCalendar endTs = clock.currentTimeXMLGregorianCalendar();
+        assertSuccess(result);
+
+        RawRepoShadow shadowAfter = getShadowRepoRetrieveAllAttributes(ACCOUNT_WILL_OID, result);
+        var delta = shadowBefore.getPrismObject().diff(shadowAfter.getPrismObject());
+        displayDumpable("repo shadow delta", delta);
+        assertThat(delta.getModifications())
+                .as("modifications of the repo shadow")
+                .isNotEmpty()
+                .allMatch(modification -> ShadowType.F_CACHING_METADATA.isSubPathOrEquivalent(modification.getPath()));
+        assertCachingMetadata(shadowAfter.getBean(), startTs, endTs);
+    }
+
     private void updateAndCheckMultivaluedAttribute(
             DummyAccount account, boolean useSearch, String messagePrefix,
             Collection<Object> values, Task task, OperationResult result) throws Exception {
@@ -8,20 +8,30 @@ package com.evolveum.midpoint.provisioning.impl.dummy;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import static com.evolveum.midpoint.schema.constants.SchemaConstants.ICFS_NAME_PATH;
 import static com.evolveum.midpoint.schema.constants.SchemaConstants.INTENT_DEFAULT;
+import static com.evolveum.midpoint.schema.constants.SchemaConstants.RI_ACCOUNT_OBJECT_CLASS;
 import static com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowKindType.ACCOUNT;
 
 import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.testng.annotations.Test;
 
+import com.evolveum.midpoint.provisioning.impl.shadows.ShadowsFacade;
 import com.evolveum.midpoint.schema.ResourceShadowCoordinates;
+import com.evolveum.midpoint.schema.ResultHandler;
 import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.Resource;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.test.DummyTestResource;
+import com.evolveum.midpoint.test.asserter.RepoOpAsserter;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowType;
 
 /**
  * Any other dummy-based tests that require specific resource configuration, and are not easily integrable into
@@ -47,12 +57,27 @@ public class TestDummyMisc extends AbstractDummyTest {
             }
     );
 
+    /** Case-insensitive resource with {@link #MANY_ACCOUNTS} accounts, for testing the prefetching of shadows. */
+    private static final DummyTestResource RESOURCE_DUMMY_MANY_ACCOUNTS = new DummyTestResource(
+            TEST_DIR, "resource-dummy-many-accounts.xml", "3b8f2c6e-4d1a-4e7b-9c5f-8a0d2e6b1f47", "many-accounts");
+
+    /** More than two windows of objects found, see `ShadowSearchLikeOperation`. */
+    private static final int MANY_ACCOUNTS = 120;
+
     @Override
     public void initSystem(Task initTask, OperationResult initResult) throws Exception {
         super.initSystem(initTask, initResult);
 
         initDummyResource(RESOURCE_DUMMY_ATTRIBUTES_TO_GET, initResult);
         testResourceAssertSuccess(RESOURCE_DUMMY_ATTRIBUTES_TO_GET, initTask, initResult);
+
+        initDummyResource(RESOURCE_DUMMY_MANY_ACCOUNTS, initResult);
+        testResourceAssertSuccess(RESOURCE_DUMMY_MANY_ACCOUNTS, initTask, initResult);
+        for (int i = 0; i < MANY_ACCOUNTS; i++) {
+            // Mixed case, so that the original and normalized values of the identifiers differ
+            RESOURCE_DUMMY_MANY_ACCOUNTS.controller.addAccount(
+                    String.format(i % 2 == 0 ? "Account-%03d" : "ACCOUNT-%03d", i));
+        }
     }
 
     /** Testing "attributes to get" with attributes not returned by default (MID-9774). */
@@ -85,4 +110,145 @@ public class TestDummyMisc extends AbstractDummyTest {
                 .as("names of attributes to return")
                 .containsExactlyInAnyOrder("uid", "name");
     }
+
+    /**
+     * Searching for accounts with case-insensitive identifiers. The shadows created by the first search must be found
+     * by the second one, using the prefetching by windows of objects found (for the native repository).
+     */
+    @Test
+    public void test110SearchManyAccountsWithPrefetching() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("shadows are created by the first search");
+        var firstOids = searchManyAccounts(MANY_ACCOUNTS, task, result);
+        assertThat(firstOids).as("OIDs of shadows found").hasSize(MANY_ACCOUNTS);
+        assertManyAccountsShadows(result);
+
+        when("searching again");
+        repositoryService.getPerformanceMonitor().startThreadLocalPerformanceInformationCollection();
+        var secondOids = searchManyAccounts(MANY_ACCOUNTS, task, result);
+
+        then("the same shadows are found, and they are looked up by windows");
+        assertThat(secondOids).as("OIDs of shadows found").isEqualTo(firstOids);
+        assertManyAccountsShadows(result);
+        var asserter = createRepoOpAsserter()
+                .display()
+                .assertOp(repoOp("addObject"), 0);
+        if (isNativeRepository()) {
+            asserter.assertOp(repoOp("searchObjects"), 3, 10); // 3 windows of (at most) 50 objects
+        }
+    }
+
+    /** The handler stops the search in the middle of the first window. Objects after that must not be passed to it. */
+    @Test
+    public void test120SearchManyAccountsStoppedByHandler() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        when("search is stopped by the handler after 7 objects");
+        repositoryService.getPerformanceMonitor().startThreadLocalPerformanceInformationCollection();
+        var counter = new AtomicInteger();
+        ResultHandler<ShadowType> handler = (object, lResult) -> counter.incrementAndGet() < 7;
+        provisioningService.searchObjectsIterative(
+                ShadowType.class, getAllAccountsQuery(RESOURCE_DUMMY_MANY_ACCOUNTS), null, handler, task, result);
+
+        then("the handler was called exactly 7 times");
+        assertThat(counter.get()).as("number of handler calls").isEqualTo(7);
+        var asserter = createRepoOpAsserter()
+                .display()
+                .assertOp(repoOp("addObject"), 0);
+        if (isNativeRepository()) {
+            asserter.assertOp(repoOp("searchObjects"), 1); // only the first window was prefetched
+        }
+    }
+
+    /** As {@link #test110SearchManyAccountsWithPrefetching()} but with no prefetching, as for the generic repository. */
+    @Test
+    public void test130SearchManyAccountsWithoutPrefetching() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        var oidsBefore = searchManyAccounts(MANY_ACCOUNTS, task, result);
+
+        ShadowsFacade.shadowPrefetchWindowSizeOverride = 1;
+        try {
+            when("searching with the window of 1 object");
+            repositoryService.getPerformanceMonitor().startThreadLocalPerformanceInformationCollection();
+            var oids = searchManyAccounts(MANY_ACCOUNTS, task, result);
+
+            then("the same shadows are found, each one looked up individually");
+            assertThat(oids).as("OIDs of shadows found").isEqualTo(oidsBefore);
+            assertManyAccountsShadows(result);
+            createRepoOpAsserter()
+                    .display()
+                    .assertOp(repoOp("addObject"), 0)
+                    .assertOp(repoOp("searchObjects"), MANY_ACCOUNTS, MANY_ACCOUNTS + 10);
+        } finally {
+            ShadowsFacade.shadowPrefetchWindowSizeOverride = null;
+        }
+    }
+
+    /**
+     * A newly discovered account is classified. The classification must be written to the repository along with
+     * the regular shadow update, i.e. one `modifyObject` call after the `addObject` one.
+     */
+    @Test
+    public void test140NewlyClassifiedShadowIsModifiedOnce() throws Exception {
+        var task = getTestTask();
+        var result = task.getResult();
+
+        given("a new account on the resource");
+        var name = "new-account";
+        RESOURCE_DUMMY_MANY_ACCOUNTS.controller.addAccount(name);
+
+        when("the account is found for the first time");
+        repositoryService.getPerformanceMonitor().startThreadLocalPerformanceInformationCollection();
+        var objects = provisioningService.searchObjects(
+                ShadowType.class,
+                Resource.of(RESOURCE_DUMMY_MANY_ACCOUNTS.getObjectable())
+                        .queryFor(RI_ACCOUNT_OBJECT_CLASS)
+                        .and().item(ICFS_NAME_PATH).eq(name)
+                        .build(),
+                null, task, result);
+
+        then("the shadow is created and classified, using one repository modification");
+        assertSuccess(result);
+        assertThat(objects).as("accounts found").hasSize(1);
+        createRepoOpAsserter()
+                .display()
+                .assertOp(repoOp("addObject"), 1)
+                .assertOp(repoOp("modifyObject"), 1);
+
+        assertRepoShadow(objects.get(0).getOid())
+                .assertKind(ACCOUNT)
+                .assertIntent(INTENT_DEFAULT);
+    }
+
+    private Set<String> searchManyAccounts(int expectedCount, Task task, OperationResult result) throws Exception {
+        Set<String> oids = new HashSet<>();
+        var counter = new AtomicInteger();
+        ResultHandler<ShadowType> handler = (object, lResult) -> {
+            counter.incrementAndGet();
+            oids.add(object.getOid());
+            return true;
+        };
+        provisioningService.searchObjectsIterative(
+                ShadowType.class, getAllAccountsQuery(RESOURCE_DUMMY_MANY_ACCOUNTS), null, handler, task, result);
+        assertSuccess(result);
+        assertThat(counter.get()).as("number of handler calls").isEqualTo(expectedCount);
+        return oids;
+    }
+
+    private void assertManyAccountsShadows(OperationResult result) throws Exception {
+        assertThat(repositoryService.countObjects(
+                ShadowType.class, getAllAccountsQuery(RESOURCE_DUMMY_MANY_ACCOUNTS), null, result))
+                .as("number of shadows in repository")
+                .isEqualTo(MANY_ACCOUNTS);
+    }
+
+    private RepoOpAsserter createRepoOpAsserter() {
+        return new RepoOpAsserter(
+                repositoryService.getPerformanceMonitor().getThreadLocalPerformanceInformation(), getTestNameShort());
+    }
 }
@@ -6,9 +6,13 @@
  */
 package com.evolveum.midpoint.provisioning.impl.dummy;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.AssertJUnit.assertEquals;
 
+import static com.evolveum.midpoint.schema.GetOperationOptions.createNoFetchCollection;
 import static com.evolveum.midpoint.schema.constants.SchemaConstants.RI_GROUP_OBJECT_CLASS;
+import static com.evolveum.midpoint.schema.processor.ResourceObjectTypeIdentification.ACCOUNT_DEFAULT;
+import static com.evolveum.midpoint.test.DummyResourceContoller.DUMMY_ENTITLEMENT_GROUP_QNAME;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -28,6 +32,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import com.evolveum.icf.dummy.resource.DummyAccount;
 import com.evolveum.icf.dummy.resource.DummyGroup;
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.delta.ItemDelta;
@@ -40,6 +45,9 @@ import com.evolveum.midpoint.schema.SearchResultList;
 import com.evolveum.midpoint.schema.cache.CacheConfigurationManager;
 import com.evolveum.midpoint.schema.constants.MidPointConstants;
 import com.evolveum.midpoint.schema.constants.SchemaConstants;
+import com.evolveum.midpoint.schema.internals.InternalCounters;
+import com.evolveum.midpoint.schema.processor.AbstractShadow;
+import com.evolveum.midpoint.schema.processor.Resource;
 import com.evolveum.midpoint.schema.processor.ShadowSimpleAttributeDefinition;
 import com.evolveum.midpoint.schema.processor.ResourceSchemaFactory;
 import com.evolveum.midpoint.schema.result.OperationResult;
@@ -75,6 +83,9 @@ public class TestDummyParallelism extends AbstractBasicDummyTest {
     public static final File RESOURCE_DUMMY_FILE = new File(TEST_DIR, "resource-dummy.xml");
 
     protected static final String GROUP_SCUM_NAME = "scum";
+    protected static final String GROUP_CREW_NAME = "crew";
+    private static final String CREW_ACCOUNT_NAME_PREFIX = "crew-";
+    private static final int CREW_ACCOUNTS = 10;
 
     private static final long WAIT_TIMEOUT = 60000L;
 
@@ -690,6 +701,93 @@ public class TestDummyParallelism extends AbstractBasicDummyTest {
         assertSteadyResource();
     }
 
+    /**
+     * Many accounts are put into the same group in parallel, with coalescing of entitlement modifications turned on.
+     * The modifications of the group should be coalesced, i.e. there should be fewer connector modifications than
+     * the accounts, and they must not overlap. All accounts must end up in the group.
+     */
+    @Test
+    public void test240ParallelEntitleCoalesced() throws Exception {
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        given("coalescing is turned on, there are a group and accounts to be put into it");
+        provisioningService.modifyObject(
+                ResourceType.class, RESOURCE_DUMMY_OID,
+                deltaFor(ResourceType.class)
+                        .item(ResourceType.F_CONSISTENCY, ResourceConsistencyType.F_COALESCE_ENTITLEMENT_MODIFICATIONS)
+                        .replace(true)
+                        .asItemDeltas(),
+                null, null, task, result);
+        resource = provisioningService.getObject(ResourceType.class, RESOURCE_DUMMY_OID, null, task, result);
+
+        dummyResource.addGroup(new DummyGroup(GROUP_CREW_NAME));
+        String groupCrewOid = provisioningService
+                .searchObjects(ShadowType.class, createGroupNameQuery(GROUP_CREW_NAME), null, task, result)
+                .get(0).getOid();
+
+        List<String> accountNames = new ArrayList<>();
+        for (int i = 0; i < CREW_ACCOUNTS; i++) {
+            String name = CREW_ACCOUNT_NAME_PREFIX + i;
+            dummyResource.addAccount(new DummyAccount(name));
+            accountNames.add(name);
+        }
+        List<ObjectDelta<ShadowType>> entitleDeltas = new ArrayList<>();
+        for (var account : provisioningService.searchObjects(
+                ShadowType.class, ObjectQueryUtil.createResourceAndKind(RESOURCE_DUMMY_OID, ShadowKindType.ACCOUNT),
+                null, task, result)) {
+            if (account.getName().getOrig().startsWith(CREW_ACCOUNT_NAME_PREFIX)) {
+                entitleDeltas.add(createEntitleDelta(account.getOid(), groupCrewOid));
+            }
+        }
+        assertThat(entitleDeltas).as("deltas for crew account shadows").hasSize(CREW_ACCOUNTS);
+
+        dummyResource.setOperationDelayOffset(300);
+        dummyResource.setOperationDelayRange(0);
+        rememberCounter(InternalCounters.CONNECTOR_MODIFICATION_COUNT);
+
+        when("accounts are put into the group in parallel");
+        String testName = getTestNameShort();
+        ParallelTestThread[] threads = multithread(
+                (i) -> {
+                    Task localTask = createTask(testName + "-thread-" + i);
+                    OperationResult localResult = localTask.getResult();
+                    var delta = entitleDeltas.get(i);
+                    provisioningService.modifyObject(
+                            ShadowType.class, delta.getOid(), delta.getModifications(), null, null, localTask, localResult);
+                    localResult.computeStatus();
+                    assertSuccess(localResult);
+                }, CREW_ACCOUNTS, null);
+
+        then("all accounts are in the group, and the group modifications were coalesced");
+        waitForThreads(threads, WAIT_TIMEOUT);
+        dummyResource.setOperationDelayOffset(0);
+
+        DummyGroup groupCrew = dummyResource.getGroupByName(GROUP_CREW_NAME);
+        assertThat(groupCrew.getMembers()).as("group members").containsExactlyInAnyOrderElementsOf(accountNames);
+        assertThat(getCounterIncrement(InternalCounters.CONNECTOR_MODIFICATION_COUNT))
+                .as("connector modifications")
+                .isGreaterThan(0)
+                .isLessThan(CREW_ACCOUNTS);
+        assertThat(groupCrew.getMaxModificationsInDelay()).as("max concurrent modifications of the group").isEqualTo(1);
+
+        assertSteadyResource();
+    }
+
+    private ObjectDelta<ShadowType> createEntitleDelta(String subjectOid, String objectOid) throws CommonException {
+        var object = AbstractShadow.of(
+                provisioningService.getObject(
+                        ShadowType.class, objectOid, createNoFetchCollection(), getTestTask(), getTestOperationResult()));
+        var accountDef = Resource.of(resource)
+                .getCompleteSchemaRequired()
+                .getObjectTypeDefinitionRequired(ACCOUNT_DEFAULT);
+        var assocDef = accountDef.findAssociationDefinitionRequired(DUMMY_ENTITLEMENT_GROUP_QNAME);
+        return Resource.of(resource).deltaFor(accountDef.getObjectClassName())
+                .item(ShadowType.F_ASSOCIATIONS, DUMMY_ENTITLEMENT_GROUP_QNAME)
+                .add(assocDef.createValueFromFullDefaultObject(object))
+                .asObjectDelta(subjectOid);
+    }
+
     private ObjectQuery createGroupNameQuery(String groupName) throws SchemaException, ConfigurationException {
 
         ObjectQuery query = ObjectQueryUtil.createResourceAndObjectClassQuery(
@@ -822,6 +920,9 @@ public class TestDummyParallelism extends AbstractBasicDummyTest {
 
         List<ConnectorOperationalStatus> stats = provisioningService.getConnectorOperationalStatus(RESOURCE_DUMMY_OID, task, result);
         display("Dummy connector stats after", stats);
+        assertEquals("unexpected number of stats", 1, stats.size());
+        assertThat(stats.get(0).getPoolStatusOperations()).as("connector operations").isPositive();
+        assertThat(stats.get(0).getPoolStatusPeakActive()).as("peak active connector operations").isPositive();
 
         displayValue("Dummy resource connections", dummyResource.getConnectionCount());
 
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.provisioning.impl.resources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.provisioning.impl.AbstractProvisioningIntegrationTest;
+import com.evolveum.midpoint.repo.api.RepositoryService;
+import com.evolveum.midpoint.schema.cache.CacheConfigurationManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
+
+/**
+ * Tests the {@link ResourceCache} itself, mainly the skipping of version checks.
+ */
+public class TestResourceCache extends AbstractProvisioningIntegrationTest {
+
+    private static final int TIME_TO_LIVE = 3600;
+
+    @Autowired private ResourceCache resourceCache;
+    @Autowired private CacheConfigurationManager cacheConfigurationManager;
+
+    /** We want to change the resource without emitting invalidation events. */
+    @Autowired
+    @Qualifier("repositoryService")
+    private RepositoryService plainRepositoryService;
+
+    /**
+     * With time-to-live set, a recently checked resource is served without checking its version. Invalidations of objects
+     * other than resources must keep it that way, while an invalidation of any resource must force the version check.
+     *
+     * The resource is modified in the repository without invalidating the caches, so the skipped version check is
+     * visible as a (stale) cache hit.
+     */
+    @Test
+    public void test100VersionCheckSkippingAndInvalidations() throws Exception {
+        var result = createOperationResult();
+
+        given("resource cache with time-to-live, and a cached resource with version already checked");
+        cacheConfigurationManager.applyCachingConfiguration(
+                new SystemConfigurationType()
+                        .internals(new InternalsConfigurationType()
+                                .caching(new CachingConfigurationType()
+                                        .profile(new CachingProfileType()
+                                                .global(true)
+                                                .resourceCache(new CacheSettingsType()
+                                                        .timeToLive(TIME_TO_LIVE))))));
+        try {
+            String oid = plainRepositoryService.addObject(
+                    new ResourceType().name(getTestNameShort()).asPrismObject(), null, result);
+            resourceCache.put(
+                    plainRepositoryService.getObject(ResourceType.class, oid, null, result).asObjectable(),
+                    List.of());
+            PrismObject<ResourceType> checked = resourceCache.getIfLatest(oid, true, result);
+            assertThat(checked).as("resource after the first version check").isNotNull();
+            String cachedVersion = checked.getVersion();
+
+            when("resource is changed in the repository (without invalidation), and a user is invalidated");
+            plainRepositoryService.modifyObject(
+                    ResourceType.class, oid,
+                    deltaFor(ResourceType.class)
+                            .item(ResourceType.F_DESCRIPTION).replace("changed")
+                            .asItemDeltas(),
+                    result);
+            resourceCache.invalidate(UserType.class, oid, null);
+            resourceCache.invalidate(UserType.class, null, null);
+
+            then("the cached version is still served, without checking the version");
+            PrismObject<ResourceType> afterOtherInvalidation = resourceCache.getIfLatest(oid, true, result);
+            assertThat(afterOtherInvalidation).as("resource after invalidation of other type").isNotNull();
+            assertThat(afterOtherInvalidation.getVersion()).as("version").isEqualTo(cachedVersion);
+
+            when("another resource is invalidated");
+            resourceCache.invalidate(ResourceType.class, "00000000-0000-0000-0000-00000000ffff", null);
+
+            then("the version is checked again, and the stale resource is not served");
+            assertThat(resourceCache.getIfLatest(oid, true, result))
+                    .as("resource after invalidation of another resource")
+                    .isNull();
+            assertThat(resourceCache.getVersion(oid)).as("cached version").isNull();
+        } finally {
+            cacheConfigurationManager.applyCachingConfiguration(null);
+        }
+    }
+}
@@ -81,6 +81,9 @@ public class Amqp091AsyncUpdateSource implements ActiveAsyncUpdateSource {
 
         private final AtomicInteger messagesBeingProcessed = new AtomicInteger(0);
 
+        /** Present if acknowledging in batches; null if each message is acknowledged individually. */
+        private final BatchedAcknowledger batchedAcknowledger;
+
         @Override
         public boolean isAlive() {
             return state != State.CLOSED;
@@ -91,12 +94,19 @@ public class Amqp091AsyncUpdateSource implements ActiveAsyncUpdateSource {
                 state = State.PREPARING;
                 activeConnection = connectionFactory.newConnection();
                 activeChannel = activeConnection.createChannel();
-                activeChannel.basicQos(defaultIfNull(sourceConfiguration.getPrefetch(), DEFAULT_PREFETCH));
+                int prefetch = defaultIfNull(sourceConfiguration.getPrefetch(), DEFAULT_PREFETCH);
+                activeChannel.basicQos(prefetch);
+                batchedAcknowledger = Boolean.TRUE.equals(sourceConfiguration.isAcknowledgeInBatches()) ?
+                        new BatchedAcknowledger(prefetch / 2, this::acknowledgeInChannel) : null;
                 LOGGER.info("Opened AMQP connection = {}, channel = {}", activeConnection, activeChannel);  // todo debug
                 DeliverCallback deliverCallback = (consumerTag, message) -> {
                     try {
                         // This runs in a thread different from the task thread!
                         messagesBeingProcessed.incrementAndGet();
+                        if (batchedAcknowledger != null) {
+                            // Even ignored messages must be registered, so they are not acknowledged by a cumulative ack.
+                            batchedAcknowledger.delivered(message.getEnvelope().getDeliveryTag());
+                        }
                         if (state != State.OPEN) {
                             LOGGER.info("Ignoring message on {} because the state is {}", consumerTag, state);
                             return;
@@ -107,7 +117,9 @@ public class Amqp091AsyncUpdateSource implements ActiveAsyncUpdateSource {
                         listener.onMessage(createAsyncUpdateMessage(message), (processed, result) -> {
                             if (processed) {
                                 try {
-                                    if (activeChannel != null) {
+                                    if (batchedAcknowledger != null) {
+                                        batchedAcknowledger.acknowledged(message.getEnvelope().getDeliveryTag());
+                                    } else if (activeChannel != null) {
                                         activeChannel.basicAck(message.getEnvelope().getDeliveryTag(), false);
                                     } else {
                                         // TODO
@@ -231,6 +243,9 @@ public class Amqp091AsyncUpdateSource implements ActiveAsyncUpdateSource {
                         // TODO what if it's null?
                         activeChannel.basicReject(message.getEnvelope().getDeliveryTag(), false);
                     }
+                    if (batchedAcknowledger != null) {
+                        batchedAcknowledger.rejected(message.getEnvelope().getDeliveryTag());
+                    }
                     break;
                 case STOP_PROCESSING:
                     stopInternal(true);
@@ -240,11 +255,34 @@ public class Amqp091AsyncUpdateSource implements ActiveAsyncUpdateSource {
             }
         }
 
+        private void acknowledgeInChannel(long deliveryTag, boolean multiple) throws IOException {
+            Channel channel = activeChannel;
+            if (channel != null) {
+                channel.basicAck(deliveryTag, multiple);
+            } else {
+                LOGGER.warn("Couldn't acknowledge message(s) with delivery tag {} (multiple: {}) because the channel is gone",
+                        deliveryTag, multiple);
+            }
+        }
+
+        /** Sends the acknowledgements held by {@link #batchedAcknowledger}; they would be lost when the channel is closed. */
+        private void flushAcknowledgements() {
+            if (batchedAcknowledger == null || activeChannel == null) {
+                return;
+            }
+            try {
+                batchedAcknowledger.flush();
+            } catch (Throwable t) {
+                LoggingUtils.logUnexpectedException(LOGGER, "Couldn't send pending acknowledgements on {}", t, activeChannel);
+            }
+        }
+
         private void silentlyCloseActiveConnection() {
             try {
                 if (state != State.CLOSED) {
                     state = State.CLOSING;
                 }
+                flushAcknowledgements();
                 if (activeConnection != null) {
                     LOGGER.info("Closing {}", activeConnection);        // todo debug
                     activeConnection.close();
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.provisioning.ucf.impl.builtin.async.update.sources;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * Acknowledges messages in batches, using cumulative ("multiple") acknowledgements of AMQP 0.9.1.
+ *
+ * Messages are delivered in the order of their delivery tags, but they can be processed (and acknowledged by the processing)
+ * in any order, e.g. when there are multiple worker threads. A cumulative acknowledgement for tag N settles all unsettled
+ * messages up to N; so it can be sent only when all messages up to N were either acknowledged or rejected by the processing.
+ * Hence, we keep track of the delivered messages, and send the cumulative acknowledgement when there are enough acknowledged
+ * messages in the "settled" prefix, or when there are no messages in progress at all.
+ *
+ * Before the channel is closed, {@link #flush()} must be called to send the acknowledgements that are still pending.
+ * Messages that are still in progress at that time (e.g. the one that caused the processing to stop) are left
+ * unacknowledged, so the broker will deliver them again.
+ *
+ * Thread safe.
+ */
+class BatchedAcknowledger {
+
+    private static final Trace LOGGER = TraceManager.getTrace(BatchedAcknowledger.class);
+
+    @FunctionalInterface
+    interface AcknowledgeAction {
+        /**
+         * Acknowledges the message with given delivery tag; if `multiple` is true, then also all the unacknowledged
+         * messages with lower tags.
+         */
+        void acknowledge(long deliveryTag, boolean multiple) throws IOException;
+    }
+
+    private enum State {
+        IN_PROGRESS, ACKNOWLEDGED, REJECTED
+    }
+
+    private final int batchSize;
+    private final AcknowledgeAction action;
+
+    /** Delivered messages that are not yet part of the settled prefix. Guarded by this. */
+    private final NavigableMap<Long, State> messages = new TreeMap<>();
+
+    /** Highest acknowledged tag in the settled prefix that was not sent to the broker yet; -1 if none. Guarded by this. */
+    private long pendingTag = -1;
+
+    /** Number of acknowledged messages covered by {@link #pendingTag}. Guarded by this. */
+    private int pendingCount;
+
+    BatchedAcknowledger(int batchSize, AcknowledgeAction action) {
+        this.batchSize = Math.max(1, batchSize);
+        this.action = action;
+    }
+
+    /** Must be called (in the order of delivery) before the message is passed to processing. */
+    synchronized void delivered(long deliveryTag) {
+        messages.put(deliveryTag, State.IN_PROGRESS);
+    }
+
+    synchronized void acknowledged(long deliveryTag) throws IOException {
+        settle(deliveryTag, State.ACKNOWLEDGED);
+    }
+
+    /** To be called after the message was rejected (individually) at the broker. */
+    synchronized void rejected(long deliveryTag) throws IOException {
+        settle(deliveryTag, State.REJECTED);
+    }
+
+    private void settle(long deliveryTag, State state) throws IOException {
+        if (messages.replace(deliveryTag, state) == null) {
+            LOGGER.warn("Settling unknown message with delivery tag {} ({})", deliveryTag, state);
+            return;
+        }
+        Map.Entry<Long, State> first;
+        while ((first = messages.firstEntry()) != null && first.getValue() != State.IN_PROGRESS) {
+            messages.pollFirstEntry();
+            if (first.getValue() == State.ACKNOWLEDGED) {
+                pendingTag = first.getKey();
+                pendingCount++;
+            }
+        }
+        if (pendingCount >= batchSize || messages.isEmpty()) {
+            sendPending();
+        }
+    }
+
+    /**
+     * Sends all acknowledgements that were not sent yet: the cumulative one for the settled prefix, and individual ones
+     * for the acknowledged messages that follow a message still in progress. To be called before the channel is closed.
+     */
+    synchronized void flush() throws IOException {
+        sendPending();
+        var iterator = messages.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (entry.getValue() == State.ACKNOWLEDGED) {
+                LOGGER.trace("Acknowledging message with delivery tag {} individually", entry.getKey());
+                action.acknowledge(entry.getKey(), false);
+                iterator.remove();
+            }
+        }
+        if (!messages.isEmpty()) {
+            LOGGER.debug("Leaving {} message(s) unacknowledged (in progress or rejected): {}", messages.size(), messages);
+        }
+    }
+
+    private void sendPending() throws IOException {
+        if (pendingCount > 0) {
+            LOGGER.trace("Acknowledging {} message(s) up to delivery tag {}", pendingCount, pendingTag);
+            long tag = pendingTag;
+            pendingTag = -1;
+            pendingCount = 0;
+            action.acknowledge(tag, true);
+        }
+    }
+}
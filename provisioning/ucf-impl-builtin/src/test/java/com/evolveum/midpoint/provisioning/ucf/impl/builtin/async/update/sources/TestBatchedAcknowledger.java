@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.provisioning.ucf.impl.builtin.async.update.sources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.tools.testng.AbstractUnitTest;
+
+/**
+ * Tests {@link BatchedAcknowledger} against a recording acknowledge action (no broker is needed).
+ */
+public class TestBatchedAcknowledger extends AbstractUnitTest {
+
+    /** Acknowledgements sent to the "broker", e.g. "5+" (cumulative up to 5) or "7" (individual). */
+    private final List<String> sent = new ArrayList<>();
+
+    private BatchedAcknowledger createAcknowledger(int batchSize) {
+        sent.clear();
+        return new BatchedAcknowledger(batchSize, (tag, multiple) -> sent.add(tag + (multiple ? "+" : "")));
+    }
+
+    /** Acknowledgements coming out of order are sent only when the prefix is settled and the batch is full. */
+    @Test
+    public void test100OutOfOrderSettles() throws Exception {
+        given();
+        var acknowledger = createAcknowledger(3);
+        for (long tag = 1; tag <= 4; tag++) {
+            acknowledger.delivered(tag);
+        }
+
+        when("messages 2, 3 are acknowledged while 1 is still in progress");
+        acknowledger.acknowledged(3);
+        acknowledger.acknowledged(2);
+
+        then("nothing is sent");
+        assertThat(sent).as("sent acknowledgements").isEmpty();
+
+        when("message 1 is acknowledged");
+        acknowledger.acknowledged(1);
+
+        then("the whole prefix is acknowledged at once");
+        assertThat(sent).as("sent acknowledgements").containsExactly("3+");
+
+        when("the last message is acknowledged");
+        acknowledger.acknowledged(4);
+
+        then("it is sent, as nothing else is in progress");
+        assertThat(sent).as("sent acknowledgements").containsExactly("3+", "4+");
+    }
+
+    /** Rejected messages are part of the settled prefix, but must not be the tag of a cumulative acknowledgement. */
+    @Test
+    public void test110RejectGaps() throws Exception {
+        given();
+        var acknowledger = createAcknowledger(10);
+        for (long tag = 1; tag <= 4; tag++) {
+            acknowledger.delivered(tag);
+        }
+
+        when("messages are settled, with the last one rejected");
+        acknowledger.acknowledged(1);
+        acknowledger.rejected(2);
+        acknowledger.acknowledged(3);
+        acknowledger.rejected(4);
+
+        then("the cumulative acknowledgement ends at the last acknowledged message");
+        assertThat(sent).as("sent acknowledgements").containsExactly("3+");
+
+        when("only rejected messages are settled");
+        acknowledger.delivered(5);
+        acknowledger.rejected(5);
+
+        then("nothing is sent");
+        assertThat(sent).as("sent acknowledgements").containsExactly("3+");
+    }
+
+    /** The cumulative acknowledgement is sent as soon as the batch is full, even if other messages are in progress. */
+    @Test
+    public void test120BatchThreshold() throws Exception {
+        given();
+        var acknowledger = createAcknowledger(2);
+        for (long tag = 1; tag <= 5; tag++) {
+            acknowledger.delivered(tag);
+        }
+
+        when("the first message is acknowledged");
+        acknowledger.acknowledged(1);
+
+        then("nothing is sent, as the batch is not full");
+        assertThat(sent).as("sent acknowledgements").isEmpty();
+
+        when("the second message is acknowledged");
+        acknowledger.acknowledged(2);
+
+        then("the batch is sent");
+        assertThat(sent).as("sent acknowledgements").containsExactly("2+");
+
+        when("two more messages are acknowledged");
+        acknowledger.acknowledged(3);
+        acknowledger.acknowledged(4);
+
+        then("the next batch is sent");
+        assertThat(sent).as("sent acknowledgements").containsExactly("2+", "4+");
+    }
+
+    /**
+     * Flushing sends the pending cumulative acknowledgement, and acknowledges messages after the one left in progress
+     * (e.g. because of "stop processing" error handling) individually. The one in progress is left unacknowledged.
+     */
+    @Test
+    public void test130Flush() throws Exception {
+        given();
+        var acknowledger = createAcknowledger(10);
+        for (long tag = 1; tag <= 6; tag++) {
+            acknowledger.delivered(tag);
+        }
+        acknowledger.acknowledged(1);
+        acknowledger.acknowledged(2);
+        // 3 is left in progress
+        acknowledger.acknowledged(4);
+        acknowledger.rejected(5);
+        acknowledger.acknowledged(6);
+        assertThat(sent).as("sent acknowledgements before flush").isEmpty();
+
+        when();
+        acknowledger.flush();
+
+        then();
+        assertThat(sent).as("sent acknowledgements").containsExactly("2+", "4", "6");
+
+        when("flushing again");
+        acknowledger.flush();
+
+        then("nothing more is sent");
+        assertThat(sent).as("sent acknowledgements").containsExactly("2+", "4", "6");
+    }
+}
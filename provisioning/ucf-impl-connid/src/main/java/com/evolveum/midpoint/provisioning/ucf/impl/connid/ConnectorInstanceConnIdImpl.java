@@ -130,6 +130,9 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
     /** ConnId connector operations entry point. */
     private ConnectorFacade connIdConnectorFacade;
 
+    /** How are the pooled connectors used. Survives reconfiguration, so operations in progress are counted correctly. */
+    @NotNull private final ConnectorPoolUsage poolUsage = new ConnectorPoolUsage();
+
     /** Useful Spring beans. */
     @NotNull private final ConnIdBeans b = ConnIdBeans.get();
 
@@ -231,6 +234,7 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
             logTransformedConfiguration();
 
             connIdConnectorConfig.setInstanceName(getInstanceName());
+            poolUsage.setMaxSize(getPoolMaxSize(connIdConnectorConfig));
 
             ConnectorFacade oldConnIdConnectorFacade = connIdConnectorFacade;
 
@@ -347,9 +351,16 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
             }
         }
 
+        poolUsage.fillIn(status);
+
         return status;
     }
 
+    private static Integer getPoolMaxSize(@NotNull APIConfiguration config) {
+        ObjectPoolConfiguration poolConfiguration = config.getConnectorPoolConfiguration();
+        return config.isConnectorPoolingSupported() && poolConfiguration != null ? poolConfiguration.getMaxObjects() : null;
+    }
+
     @NotNull ConnectorFacade getConnIdConnectorFacadeRequired() {
         return stateNonNull(connIdConnectorFacade,
                 "Attempt to use unconfigured connector: %s %s", instanceName, description);
@@ -1568,13 +1579,6 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
                 try {
                     finalToken = getConnIdConnectorFacadeRequired()
                             .sync(requestConnIdObjectClass, initialToken, syncHandler, options);
-                    // Note that finalToken value is not quite reliable. The SyncApiOp documentation is not clear on its semantics;
-                    // it is only from SyncTokenResultsHandler (SPI) documentation and SyncImpl class that we know this value is
-                    // non-null when all changes were fetched. And some of the connectors return null even then.
-                    LOGGER.trace("connector sync method returned: {}", finalToken);
-                    connIdResult.computeStatus();
-                    connIdResult.cleanup();
-                    connIdResult.addReturn(OperationResult.RETURN_COUNT, deltasProcessed.get());
                     recordIcfOperationEnd(ctx, operation, null);
                 } catch (Throwable ex) {
                     recordIcfOperationEnd(ctx, operation, ex);
@@ -1597,6 +1601,14 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
                         throw new SystemException("Got unexpected exception: " + ex.getClass().getName() + ": " + ex.getMessage(), ex);
                     }
                 }
+                // Note that finalToken value is not quite reliable. The SyncApiOp documentation is not clear on its semantics;
+                // it is only from SyncTokenResultsHandler (SPI) documentation and SyncImpl class that we know this value is
+                // non-null when all changes were fetched. And some of the connectors return null even then.
+                LOGGER.trace("connector sync method returned: {}", finalToken);
+                connIdResult.computeStatus();
+                connIdResult.cleanup();
+                connIdResult.addReturn(OperationResult.RETURN_COUNT, deltasProcessed.get());
+
                 if (!canRun(ctx)) {
                     result.recordStatus(OperationResultStatus.SUCCESS, "Interrupted by task suspension");
                 }
@@ -1785,11 +1797,14 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
         icfResult.addArbitraryObjectAsParam("objectClass", icfObjectClass);
         icfResult.addContext("connector", getConnIdConnectorFacadeRequired().getClass());
 
-        int retval;
+        int fetchedCount;
+        SearchResult searchResult;
 
         InternalMonitor.recordConnectorOperation("search");
         ConnIdOperation operation = recordIcfOperationStart(ctx, ProvisioningOperation.ICF_SEARCH, objectDefinition);
 
+        // Each path through this block must record the operation end exactly once; so the checks of the returned
+        // search result (that may throw an exception themselves) are done only after the block.
         try {
 
             Filter filter = convertFilterToIcf(query, objectDefinition);
@@ -1808,16 +1823,9 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
                 }
             };
             LOGGER.trace("Invoking ConnId search operation (to count objects): {}", operation);
-            SearchResult searchResult = getConnIdConnectorFacadeRequired().search(icfObjectClass, filter, connIdHandler, options);
+            searchResult = getConnIdConnectorFacadeRequired().search(icfObjectClass, filter, connIdHandler, options);
             recordIcfOperationEnd(ctx, operation, null);
-
-            if (searchResult == null || searchResult.getRemainingPagedResults() == -1) {
-                throw new UnsupportedOperationException("Connector does not seem to support paged searches or does not provide object count information");
-            } else {
-                retval = fetched.getValue() + searchResult.getRemainingPagedResults();
-            }
-
-            icfResult.recordSuccess();
+            fetchedCount = fetched.getValue();
         } catch (IntermediateSchemaException inEx) {
             recordIcfOperationEnd(ctx, operation, inEx);
             var ex = inEx.getSchemaException();
@@ -1850,11 +1858,20 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
             }
         }
 
+        if (searchResult == null || searchResult.getRemainingPagedResults() == -1) {
+            var uoe = new UnsupportedOperationException(
+                    "Connector does not seem to support paged searches or does not provide object count information");
+            icfResult.recordFatalError(uoe);
+            result.recordFatalError(uoe);
+            throw uoe;
+        }
+        icfResult.recordSuccess();
+
         if (result.isUnknown()) {
             result.recordSuccess();
         }
 
-        return retval;
+        return fetchedCount + searchResult.getRemainingPagedResults();
     }
 
     @NotNull ObjectClass objectClassToConnId(ResourceObjectDefinition objectDefinition) {
@@ -2060,6 +2077,7 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
     @Contract("!null, _, _, _ -> !null; null, _, _, _ -> null")
     private @Nullable ConnIdOperation recordIcfOperationStart(
             UcfExecutionContext reporter, ProvisioningOperation operation, ResourceObjectDefinition objectDefinition, Uid uid) {
+        poolUsage.operationStarted(description);
         if (reporter != null) {
             return reporter.recordIcfOperationStart(operation, objectDefinition, uid != null ? uid.getUidValue() : null);
         } else {
@@ -2089,7 +2107,13 @@ public class ConnectorInstanceConnIdImpl implements ConnectorInstance, Connector
         }
     }
 
+    @VisibleForTesting
+    @NotNull ConnectorPoolUsage getPoolUsage() {
+        return poolUsage;
+    }
+
     void recordIcfOperationEnd(UcfExecutionContext reporter, ConnIdOperation operation, Throwable ex) {
+        poolUsage.operationEnded();
         if (reporter != null) {
             reporter.recordIcfOperationEnd(operation, ex);
         } else {
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.provisioning.ucf.impl.connid;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.evolveum.midpoint.schema.statistics.ConnectorOperationalStatus;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * Usage of the ConnId connector pool by a single connector instance, as observed from our side.
+ *
+ * ConnId provides only the current number of active and idle pooled connectors; it does not tell us whether
+ * the operations had to wait for a connector to become available. So we count the ConnId operations in progress
+ * ourselves: an operation started while the number of operations in progress was already at the maximal size
+ * of the pool had to wait for a pooled connector (or to fail on the wait timeout).
+ *
+ * Suspended operations (e.g. a search whose handler is processing an object) are still counted as in progress,
+ * because they hold the pooled connector.
+ */
+class ConnectorPoolUsage {
+
+    private static final Trace LOGGER = TraceManager.getTrace(ConnectorPoolUsage.class);
+
+    /** Maximal number of pooled connectors; `null` if the connector is not pooled. Updated on (re)configuration. */
+    private volatile Integer maxSize;
+
+    private final AtomicInteger inProgress = new AtomicInteger();
+    private final AtomicInteger peakInProgress = new AtomicInteger();
+    private final AtomicLong operations = new AtomicLong();
+    private final AtomicLong operationsWhenExhausted = new AtomicLong();
+
+    void setMaxSize(Integer maxSize) {
+        this.maxSize = maxSize != null && maxSize > 0 ? maxSize : null;
+    }
+
+    void operationStarted(String instanceDescription) {
+        Integer maxSize = this.maxSize;
+        int before = inProgress.getAndIncrement();
+        peakInProgress.accumulateAndGet(before + 1, Math::max);
+        operations.incrementAndGet();
+        if (maxSize != null && before >= maxSize) {
+            if (operationsWhenExhausted.getAndIncrement() == 0) {
+                LOGGER.info("Connector pool of {} is exhausted ({} operations in progress, max size is {}); "
+                        + "operations will wait for a pooled connector", instanceDescription, before, maxSize);
+            }
+        }
+    }
+
+    /**
+     * Must be called exactly once for each {@link #operationStarted(String)}. An unbalanced call would skew the numbers
+     * for the rest of the life of the connector instance, so we do not let the counter go below zero.
+     */
+    void operationEnded() {
+        if (inProgress.getAndUpdate(value -> Math.max(0, value - 1)) <= 0) {
+            LOGGER.warn("Connector operation end recorded without a matching start; ignoring it");
+        }
+    }
+
+    int getOperationsInProgress() {
+        return inProgress.get();
+    }
+
+    void fillIn(ConnectorOperationalStatus status) {
+        status.setPoolStatusPeakActive(peakInProgress.get());
+        status.setPoolStatusOperations(operations.get());
+        status.setPoolStatusOperationsWhenExhausted(operationsWhenExhausted.get());
+    }
+}
@@ -54,6 +54,7 @@ import com.evolveum.midpoint.test.util.TestUtil;
 import com.evolveum.midpoint.util.DOMUtil;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ConnectorConfigurationType;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ConnectorType;
+import com.evolveum.midpoint.xml.ns._public.resource.capabilities_3.PagedSearchCapabilityType;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ResourceType;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ShadowType;
 import com.evolveum.prism.xml.ns._public.types_3.PolyStringType;
@@ -67,6 +68,7 @@ import com.evolveum.prism.xml.ns._public.types_3.PolyStringType;
 public class TestUcfDummy extends AbstractUcfDummyTest {
 
     private static final File HR_RESOURCE_DUMMY_FILE = new File(UcfTestUtil.TEST_DIR, "hr-resource-dummy.xml");
+    private static final File RESOURCE_DUMMY_NO_PAGING_FILE = new File(UcfTestUtil.TEST_DIR, "resource-dummy-no-paging.xml");
 
     /** Dummy resource with the support of hierarchical (LDAP-like) object names. Used for 2xx tests. */
     private DummyResource hierarchicalResource;
@@ -368,6 +370,82 @@ public class TestUcfDummy extends AbstractUcfDummyTest {
         checkUcfObject(resourceObject, accountClassDefinition);
     }
 
+    /**
+     * Failing ConnId operations must leave no trace in the number of operations in progress, as that number is used
+     * to detect the exhaustion of the connector pool. Covers both the failures reported by the connector (network error)
+     * and the failures detected by us after the connector operation finished (count on a resource without paging).
+     */
+    @Test
+    public void test070PoolUsageAfterFailedOperations() throws Exception {
+        given("a connector instance for the same resource, with paging switched off");
+        var ctx = createExecutionContext();
+        var result = createOperationResult();
+        var accountClassDefinition = resourceSchema.findObjectClassDefinitionRequired(RI_ACCOUNT_OBJECT_CLASS);
+
+        ResourceType noPagingResource = PrismTestUtil.<ResourceType>parseObject(RESOURCE_DUMMY_NO_PAGING_FILE).asObjectable();
+        var noPagingInstance = (ConnectorInstanceConnIdImpl) connectorFactory.createConnectorInstance(
+                connectorBean, "dummy-no-paging", "dummy test connector instance without paging");
+        noPagingInstance.configure(
+                new ConnectorConfiguration(
+                        noPagingResource.getConnectorConfiguration().asPrismContainerValue(),
+                        List.of()),
+                new ConnectorConfigurationOptions(),
+                result);
+
+        try {
+            when("objects are counted on the resource without paging");
+            try {
+                noPagingInstance.count(accountClassDefinition, null, new PagedSearchCapabilityType(), ctx, result);
+                fail("unexpected success");
+            } catch (UnsupportedOperationException e) {
+                displayExpectedException(e);
+            }
+
+            then("no operation is in progress");
+            assertThat(noPagingInstance.getPoolUsage().getOperationsInProgress())
+                    .as("operations in progress (no paging)")
+                    .isZero();
+        } finally {
+            noPagingInstance.dispose();
+        }
+
+        when("objects are counted and searched for while the resource is down");
+        var connIdInstance = (ConnectorInstanceConnIdImpl) cc;
+        dummyResource.setGetBreakMode(BreakMode.NETWORK);
+        try {
+            try {
+                cc.count(accountClassDefinition, null, new PagedSearchCapabilityType(), ctx, result);
+                fail("unexpected success");
+            } catch (CommunicationException e) {
+                displayExpectedException(e);
+            }
+            try {
+                cc.search(
+                        accountClassDefinition, null, (ucfObject, lResult) -> true,
+                        null, null, null, null,
+                        ctx, result);
+                fail("unexpected success");
+            } catch (CommunicationException e) {
+                displayExpectedException(e);
+            }
+        } finally {
+            dummyResource.setGetBreakMode(BreakMode.NONE);
+        }
+
+        then("no operation is in progress");
+        assertThat(connIdInstance.getPoolUsage().getOperationsInProgress())
+                .as("operations in progress")
+                .isZero();
+
+        and("counting works again after the resource is back");
+        assertThat(cc.count(accountClassDefinition, null, new PagedSearchCapabilityType(), ctx, createOperationResult()))
+                .as("number of accounts")
+                .isEqualTo(1);
+        assertThat(connIdInstance.getPoolUsage().getOperationsInProgress())
+                .as("operations in progress")
+                .isZero();
+    }
+
     /** No operation, no sync changes. */
     @Test
     public void test100FetchEmptyChanges() throws Exception {
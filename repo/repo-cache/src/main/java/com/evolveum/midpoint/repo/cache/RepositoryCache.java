@@ -29,6 +29,7 @@ import com.evolveum.midpoint.prism.delta.ItemDelta;
 import com.evolveum.midpoint.prism.query.ObjectQuery;
 import com.evolveum.midpoint.repo.api.*;
 import com.evolveum.midpoint.repo.api.perf.PerformanceMonitor;
+import com.evolveum.midpoint.repo.cache.global.GlobalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalObjectCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalQueryCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalVersionCache;
@@ -77,6 +78,7 @@ public class RepositoryCache implements RepositoryService, Cache {
     @Autowired private GlobalQueryCache globalQueryCache;
     @Autowired private GlobalObjectCache globalObjectCache;
     @Autowired private GlobalVersionCache globalVersionCache;
+    @Autowired private GlobalNotFoundCache globalNotFoundCache;
     @Autowired private LocalRepoCacheCollection localRepoCacheCollection;
 
     // handlers
@@ -428,6 +430,7 @@ public class RepositoryCache implements RepositoryService, Cache {
         globalObjectCache.initialize();
         globalVersionCache.initialize();
         globalQueryCache.initialize();
+        globalNotFoundCache.initialize();
         cacheRegistry.registerCache(this);
     }
 
@@ -452,6 +455,7 @@ public class RepositoryCache implements RepositoryService, Cache {
         rv.addAll(globalObjectCache.getStateInformation());
         rv.addAll(globalVersionCache.getStateInformation());
         rv.addAll(globalQueryCache.getStateInformation());
+        rv.addAll(globalNotFoundCache.getStateInformation());
         return rv;
     }
 
@@ -461,6 +465,7 @@ public class RepositoryCache implements RepositoryService, Cache {
         globalObjectCache.dumpContent();
         globalVersionCache.dumpContent();
         globalQueryCache.dumpContent();
+        globalNotFoundCache.dumpContent();
     }
     //endregion
 
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.repo.cache.global;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+
+/**
+ * Information that an object with given OID was not found as an instance of {@link #objectType}.
+ */
+public class GlobalCacheNotFoundValue extends AbstractGlobalCacheValue {
+
+    @NotNull private final Class<? extends ObjectType> objectType;
+
+    GlobalCacheNotFoundValue(@NotNull Class<? extends ObjectType> objectType) {
+        this.objectType = objectType;
+    }
+
+    @NotNull
+    public Class<? extends ObjectType> getObjectType() {
+        return objectType;
+    }
+
+    /** Is this value applicable to a request for given type? (It is, if the type is the same or a subtype.) */
+    boolean appliesTo(@NotNull Class<? extends ObjectType> requestedType) {
+        return objectType.isAssignableFrom(requestedType);
+    }
+
+    @Override
+    public String toString() {
+        return "GlobalCacheNotFoundValue{" +
+                "objectType=" + objectType +
+                '}';
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.repo.cache.global;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PreDestroy;
+import org.cache2k.Cache2kBuilder;
+import org.cache2k.expiry.ExpiryPolicy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.evolveum.midpoint.schema.cache.CacheType;
+import com.evolveum.midpoint.util.caching.CacheConfiguration;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.SingleCacheStateInformationType;
+
+/**
+ * Node-level cache for "object not found" results of `getObject` operations (a negative cache).
+ *
+ * It is disabled by default. Entries are removed when an object with the given OID is added (or otherwise changed),
+ * either locally or - if clusterwide invalidation is configured - on another node.
+ *
+ * An object can be added while we are reading it from the repository. The "not found" result of such a read
+ * must not be stored, as the invalidation has already passed. Hence, the reads are registered as {@link PendingRead}
+ * instances before they start, and the invalidations mark the affected ones. This applies also to the local not-found
+ * cache; so the pending reads are tracked even if this (global) cache is not available.
+ */
+@Component
+public class GlobalNotFoundCache extends AbstractGlobalCache {
+
+    private static final Trace LOGGER = TraceManager.getTrace(GlobalNotFoundCache.class);
+    private static final Trace LOGGER_CONTENT = TraceManager.getTrace(GlobalNotFoundCache.class.getName() + ".content");
+
+    private static final String CACHE_NAME = "notFoundCache";
+
+    private static final long DEFAULT_CAPACITY = 10000;
+
+    private org.cache2k.Cache<String, GlobalCacheNotFoundValue> cache;
+
+    /** Reads that are in progress and may result in storing a "not found" entry; see {@link #startRead(Class, String)}. */
+    private final Set<PendingRead> pendingReads = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Unlike other global caches, this one is created even if it is not configured (yet): the configuration usually comes
+     * from the system configuration that is applied after the initialization. Whether anything is stored is decided
+     * at the time of {@link #put(Class, String)}.
+     */
+    public void initialize() {
+        if (cache != null) {
+            LOGGER.warn("Global not-found cache was already initialized -- ignoring this request.");
+            return;
+        }
+        CacheConfiguration configuration = getConfiguration();
+        long capacity = configuration != null && configuration.getMaxSize() != null ?
+                configuration.getMaxSize() : DEFAULT_CAPACITY;
+        if (capacity == 0) {
+            LOGGER.warn("Capacity for " + getCacheType() + " is set to 0; this cache will be disabled (until system restart)");
+            cache = null;
+        } else {
+            cache = new Cache2kBuilder<String, GlobalCacheNotFoundValue>() {}
+                    .name(CACHE_NAME)
+                    .entryCapacity(capacity)
+                    .expiryPolicy(getExpirePolicy())
+                    .build();
+            LOGGER.info("Created global repository not-found cache with a capacity of {} entries", capacity);
+        }
+    }
+
+    private ExpiryPolicy<String, GlobalCacheNotFoundValue> getExpirePolicy() {
+        return (key, value, loadTime, oldEntry) -> getExpiryTime(value.getObjectType());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
+    }
+
+    public boolean isAvailable() {
+        return cache != null;
+    }
+
+    /** Returns `true` if the object with given OID is known not to exist as an instance of given type. */
+    public boolean isKnownNotFound(@NotNull Class<? extends ObjectType> type, @NotNull String oid) {
+        if (cache != null) {
+            GlobalCacheNotFoundValue value = cache.peek(oid);
+            return value != null && value.appliesTo(type);
+        } else {
+            return false;
+        }
+    }
+
+    /** We need to check whether the cache is enabled for the specific object type. */
+    public void put(@NotNull Class<? extends ObjectType> type, @NotNull String oid) {
+        if (cache != null) {
+            CacheConfiguration configuration = getConfiguration();
+            if (configuration != null && configuration.supportsObjectType(type)) {
+                cache.put(oid, new GlobalCacheNotFoundValue(type));
+            }
+        }
+    }
+
+    /**
+     * Registers a repository read of given object. Must be called before the read starts, and must be followed by
+     * {@link #finishRead(PendingRead)}.
+     */
+    public @NotNull PendingRead startRead(@NotNull Class<? extends ObjectType> type, @NotNull String oid) {
+        var read = new PendingRead(type, oid);
+        pendingReads.add(read);
+        return read;
+    }
+
+    public void finishRead(@Nullable PendingRead read) {
+        if (read != null) {
+            pendingReads.remove(read);
+        }
+    }
+
+    /** Marks pending reads affected by the invalidation of given object (any object, if the type is null). */
+    private void markPendingReadsInvalidated(@Nullable Class<?> type, @Nullable String oid) {
+        for (PendingRead read : pendingReads) {
+            if (type == null
+                    || oid != null && oid.equals(read.oid)
+                    || oid == null && isRelated(type, read.type)) {
+                read.markInvalidated();
+            }
+        }
+    }
+
+    public void remove(@NotNull Class<?> type, String oid) {
+        markPendingReadsInvalidated(type, oid);
+        if (cache != null) {
+            if (oid != null) {
+                cache.remove(oid);
+            } else {
+                // Adding an object with unknown OID can make any "not found" entry of related type obsolete.
+                cache.invokeAll(cache.keys(), e -> {
+                    if (e.getValue() != null && isRelated(type, e.getValue().getObjectType())) {
+                        e.remove();
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static boolean isRelated(@NotNull Class<?> changedType, @NotNull Class<?> cachedType) {
+        return changedType.isAssignableFrom(cachedType) || cachedType.isAssignableFrom(changedType);
+    }
+
+    @Override
+    protected CacheType getCacheType() {
+        return CacheType.GLOBAL_REPO_NOT_FOUND_CACHE;
+    }
+
+    @Override
+    public void clear() {
+        markPendingReadsInvalidated(null, null);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    public Collection<SingleCacheStateInformationType> getStateInformation() {
+        Map<Class<?>, Integer> counts = new HashMap<>();
+        AtomicInteger size = new AtomicInteger(0);
+        if (cache != null) {
+            cache.invokeAll(cache.keys(), e -> {
+                Class<?> objectType = e.getValue().getObjectType();
+                counts.compute(objectType, (type, count) -> count != null ? count + 1 : 1);
+                size.incrementAndGet();
+                return null;
+            });
+            SingleCacheStateInformationType info = new SingleCacheStateInformationType(prismContext)
+                    .name(GlobalNotFoundCache.class.getName())
+                    .size(size.get());
+            counts.forEach((type, count) ->
+                    info.beginComponent()
+                            .name(type.getSimpleName())
+                            .size(count));
+            return Collections.singleton(info);
+        } else {
+            return Collections.emptySet();
+        }
+    }
+
+    public void dumpContent() {
+        if (cache != null && LOGGER_CONTENT.isInfoEnabled()) {
+            cache.invokeAll(cache.keys(), e -> {
+                LOGGER_CONTENT.info("Cached not-found: {}: {} (cached {} ms ago)", e.getKey(), e.getValue(), e.getValue().getAge());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * A repository read of an object, registered before the read starts. If the object was invalidated in the meantime,
+     * the "not found" result of the read must not be stored in the (local or global) not-found cache.
+     */
+    public static class PendingRead {
+
+        @NotNull private final Class<? extends ObjectType> type;
+        @NotNull private final String oid;
+
+        /** Guarded by this. */
+        private boolean invalidated;
+
+        private PendingRead(@NotNull Class<? extends ObjectType> type, @NotNull String oid) {
+            this.type = type;
+            this.oid = oid;
+        }
+
+        private synchronized void markInvalidated() {
+            invalidated = true;
+        }
+
+        /**
+         * Executes the (cache-storing) action, unless the object was invalidated since the read was started.
+         * This is atomic with respect to {@link #markInvalidated()}: an invalidation marks the read before removing the
+         * cache entries, so either the action is skipped, or its result is removed by the invalidation.
+         *
+         * @return true if the action was executed
+         */
+        public synchronized boolean executeIfNotInvalidated(@NotNull Runnable action) {
+            if (invalidated) {
+                LOGGER.trace("Not storing 'not found' information for {}, as it was invalidated during the read", oid);
+                return false;
+            } else {
+                action.run();
+                return true;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "PendingRead{" + type.getSimpleName() + ":" + oid + (invalidated ? ", invalidated" : "") + "}";
+        }
+    }
+}
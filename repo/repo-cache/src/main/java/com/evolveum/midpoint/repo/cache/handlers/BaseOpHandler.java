@@ -12,6 +12,7 @@ import org.springframework.stereotype.Component;
 
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.repo.api.RepositoryService;
+import com.evolveum.midpoint.repo.cache.global.GlobalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalObjectCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalQueryCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalVersionCache;
@@ -28,6 +29,7 @@ abstract public class BaseOpHandler {
     @Autowired GlobalQueryCache globalQueryCache;
     @Autowired GlobalObjectCache globalObjectCache;
     @Autowired GlobalVersionCache globalVersionCache;
+    @Autowired GlobalNotFoundCache globalNotFoundCache;
     @Autowired Invalidator invalidator;
     @Autowired CacheSetAccessInfoFactory cacheSetAccessInfoFactory;
     @Autowired CacheUpdater cacheUpdater;
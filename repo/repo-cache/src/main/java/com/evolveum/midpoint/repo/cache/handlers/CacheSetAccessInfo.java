@@ -9,16 +9,18 @@ package com.evolveum.midpoint.repo.cache.handlers;
 
 import org.jetbrains.annotations.NotNull;
 
+import com.evolveum.midpoint.repo.cache.global.GlobalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalObjectCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalQueryCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalVersionCache;
+import com.evolveum.midpoint.repo.cache.local.LocalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.local.LocalObjectCache;
 import com.evolveum.midpoint.repo.cache.local.LocalQueryCache;
 import com.evolveum.midpoint.repo.cache.local.LocalVersionCache;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
 
 /**
- * {@link CacheAccessInfo} for all six caches.
+ * {@link CacheAccessInfo} for all six caches, plus two optional not-found (negative) caches.
  *
  * `T` is object type to which this information is related.
  * It is here to avoid application of cache access information to wrong object types.
@@ -31,6 +33,8 @@ public class CacheSetAccessInfo<T extends ObjectType> {
     @NotNull final CacheAccessInfo<GlobalObjectCache, T> globalObject;
     @NotNull final CacheAccessInfo<GlobalVersionCache, T> globalVersion;
     @NotNull final CacheAccessInfo<GlobalQueryCache, T> globalQuery;
+    @NotNull final CacheAccessInfo<LocalNotFoundCache, T> localNotFound;
+    @NotNull final CacheAccessInfo<GlobalNotFoundCache, T> globalNotFound;
 
     CacheSetAccessInfo(
             @NotNull CacheAccessInfo<LocalObjectCache, T> localObject,
@@ -38,13 +42,17 @@ public class CacheSetAccessInfo<T extends ObjectType> {
             @NotNull CacheAccessInfo<LocalQueryCache, T> localQuery,
             @NotNull CacheAccessInfo<GlobalObjectCache, T> globalObject,
             @NotNull CacheAccessInfo<GlobalVersionCache, T> globalVersion,
-            @NotNull CacheAccessInfo<GlobalQueryCache, T> globalQuery) {
+            @NotNull CacheAccessInfo<GlobalQueryCache, T> globalQuery,
+            @NotNull CacheAccessInfo<LocalNotFoundCache, T> localNotFound,
+            @NotNull CacheAccessInfo<GlobalNotFoundCache, T> globalNotFound) {
         this.localObject = localObject;
         this.localVersion = localVersion;
         this.localQuery = localQuery;
         this.globalObject = globalObject;
         this.globalVersion = globalVersion;
         this.globalQuery = globalQuery;
+        this.localNotFound = localNotFound;
+        this.globalNotFound = globalNotFound;
     }
 
     boolean isEffectivelySupportedByAnyObjectCache() {
@@ -55,4 +63,8 @@ public class CacheSetAccessInfo<T extends ObjectType> {
         return localQuery.effectivelySupports() || globalQuery.effectivelySupports();
     }
 
+    boolean isEffectivelySupportedByAnyNotFoundCache() {
+        return localNotFound.effectivelySupports() || globalNotFound.effectivelySupports();
+    }
+
 }
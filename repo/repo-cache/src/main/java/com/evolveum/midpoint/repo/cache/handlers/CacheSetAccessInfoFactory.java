@@ -7,11 +7,13 @@
 
 package com.evolveum.midpoint.repo.cache.handlers;
 
+import com.evolveum.midpoint.repo.cache.global.GlobalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalObjectCache;
 
 import com.evolveum.midpoint.repo.cache.global.GlobalQueryCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalVersionCache;
 
+import com.evolveum.midpoint.repo.cache.local.LocalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.local.LocalObjectCache;
 import com.evolveum.midpoint.repo.cache.local.LocalQueryCache;
 import com.evolveum.midpoint.repo.cache.local.LocalVersionCache;
@@ -33,6 +35,7 @@ public class CacheSetAccessInfoFactory {
     @Autowired GlobalObjectCache globalObjectCache;
     @Autowired GlobalVersionCache globalVersionCache;
     @Autowired GlobalQueryCache globalQueryCache;
+    @Autowired GlobalNotFoundCache globalNotFoundCache;
     @Autowired CacheConfigurationManager cacheConfigurationManager;
 
     <T extends ObjectType> CacheSetAccessInfo<T> determine(Class<T> type) {
@@ -77,8 +80,17 @@ public class CacheSetAccessInfoFactory {
             localQueryInfo = CacheAccessInfo.createNotAvailable();
         }
 
+        LocalNotFoundCache localNotFoundCache = getLocalNotFoundCache();
+        CacheAccessInfo<LocalNotFoundCache, T> localNotFoundInfo = localNotFoundCache != null ?
+                new CacheAccessInfo<>(localNotFoundCache, localNotFoundCache.getConfiguration(), type, true) :
+                new CacheAccessInfo<>(null, cacheConfigurationManager.getConfiguration(LOCAL_REPO_NOT_FOUND_CACHE), type, false);
+
+        CacheAccessInfo<GlobalNotFoundCache, T> globalNotFoundInfo = new CacheAccessInfo<>(
+                globalNotFoundCache, globalNotFoundCache.getConfiguration(), type, globalNotFoundCache.isAvailable());
+
         return new CacheSetAccessInfo<>(
                 localObjectInfo, localVersionInfo, localQueryInfo,
-                globalObjectInfo, globalVersionInfo, globalQueryInfo);
+                globalObjectInfo, globalVersionInfo, globalQueryInfo,
+                localNotFoundInfo, globalNotFoundInfo);
     }
 }
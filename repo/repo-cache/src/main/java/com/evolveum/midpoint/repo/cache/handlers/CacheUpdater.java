@@ -283,6 +283,23 @@ class CacheUpdater {
 
     //endregion
 
+    //region Single objects (not found)
+
+    <T extends ObjectType> void storeNotFoundToAll(@NotNull Class<T> type, @NotNull String oid, CacheSetAccessInfo<T> caches) {
+        storeNotFoundToLocal(type, oid, caches);
+        if (caches.globalNotFound.effectivelySupports()) {
+            caches.globalNotFound.getCache().put(type, oid);
+        }
+    }
+
+    <T extends ObjectType> void storeNotFoundToLocal(@NotNull Class<T> type, @NotNull String oid, CacheSetAccessInfo<T> caches) {
+        if (caches.localNotFound.effectivelySupports()) {
+            caches.localNotFound.getCache().put(type, oid);
+        }
+    }
+
+    //endregion
+
     //region Single objects (version only)
 
     <T extends ObjectType> void storeObjectToVersionLocal(PrismObject<T> object, CacheAccessInfo<LocalVersionCache, T> localVersion) {
@@ -8,6 +8,9 @@
 package com.evolveum.midpoint.repo.cache.handlers;
 
 import static com.evolveum.midpoint.repo.cache.other.MonitoringUtil.log;
+import static com.evolveum.midpoint.schema.GetOperationOptions.isAllowNotFound;
+import static com.evolveum.midpoint.schema.SelectorOptions.findRootOptions;
+import static com.evolveum.midpoint.xml.ns._public.common.common_3.CacheUseCategoryTraceType.HIT;
 import static com.evolveum.midpoint.xml.ns._public.common.common_3.CacheUseCategoryTraceType.MISS;
 import static com.evolveum.midpoint.xml.ns._public.common.common_3.CacheUseCategoryTraceType.WEAK_HIT;
 
@@ -16,13 +19,16 @@ import java.util.Collection;
 import org.jetbrains.annotations.NotNull;
 
 import com.evolveum.midpoint.prism.PrismObject;
+import com.evolveum.midpoint.repo.cache.global.GlobalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalObjectCache;
+import com.evolveum.midpoint.repo.cache.local.LocalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.local.LocalObjectCache;
 import com.evolveum.midpoint.schema.GetOperationOptions;
 import com.evolveum.midpoint.schema.SelectorOptions;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.schema.util.ObjectTypeUtil;
 import com.evolveum.midpoint.util.caching.CachePerformanceCollector;
+import com.evolveum.midpoint.util.exception.ObjectNotFoundException;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.RepositoryGetObjectTraceType;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.TracingLevelType;
@@ -81,6 +87,41 @@ class GetObjectOpExecution<O extends ObjectType>
         }
     }
 
+    void reportLocalNotFoundHit() {
+        var info = cachesInfo.localNotFound;
+        info.getCache().registerHit();
+        CachePerformanceCollector.INSTANCE.registerHit(LocalNotFoundCache.class, type, info.statisticsLevel);
+        log("Cache (local not-found): HIT - getObject {}", false, getDescription());
+        if (trace != null) {
+            trace.setLocalCacheUse(createUse(HIT, "not found"));
+        }
+    }
+
+    void reportLocalNotFoundMiss() {
+        var info = cachesInfo.localNotFound;
+        info.getCache().registerMiss();
+        CachePerformanceCollector.INSTANCE.registerMiss(LocalNotFoundCache.class, type, info.statisticsLevel);
+    }
+
+    void reportGlobalNotFoundHit() {
+        var info = cachesInfo.globalNotFound;
+        CachePerformanceCollector.INSTANCE.registerHit(GlobalNotFoundCache.class, type, info.statisticsLevel);
+        log("Cache (global not-found): HIT - getObject {}", false, getDescription());
+        if (trace != null) {
+            trace.setGlobalCacheUse(createUse(HIT, "not found"));
+        }
+    }
+
+    void reportGlobalNotFoundMiss() {
+        var info = cachesInfo.globalNotFound;
+        CachePerformanceCollector.INSTANCE.registerMiss(GlobalNotFoundCache.class, type, info.statisticsLevel);
+    }
+
+    /** The same exception as the repository would throw; including the "allow not found" flag. */
+    @NotNull ObjectNotFoundException createObjectNotFoundException() {
+        return new ObjectNotFoundException(type, oid, isAllowNotFound(findRootOptions(options)));
+    }
+
     void recordResult(PrismObject<O> objectToReturn) {
         if (objectToReturn != null) {
             if (trace != null && tracingAtLeastNormal) {
@@ -26,6 +26,7 @@ import org.springframework.stereotype.Component;
 
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.repo.cache.global.GlobalCacheObjectValue;
+import com.evolveum.midpoint.repo.cache.global.GlobalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.local.LocalCacheObjectValue;
 import com.evolveum.midpoint.schema.GetOperationOptions;
 import com.evolveum.midpoint.schema.SelectorOptions;
@@ -56,6 +57,7 @@ public class GetObjectOpHandler extends CachedOpHandler {
             if (exec.cacheUseMode.canNeverUseCachedData()) {
                 exec.reportLocalAndGlobalPass();
             } else {
+                checkNotFoundCaches(exec);
                 var fromLocalCache = tryLocalCache(exec);
                 if (fromLocalCache != null) {
                     return fromLocalCache;
@@ -75,6 +77,32 @@ public class GetObjectOpHandler extends CachedOpHandler {
         }
     }
 
+    /**
+     * Throws {@link ObjectNotFoundException} if the object is known not to exist (according to the local or global
+     * not-found cache). These caches are disabled by default, so usually this is a no-op.
+     */
+    private <T extends ObjectType> void checkNotFoundCaches(GetObjectOpExecution<T> exec) throws ObjectNotFoundException {
+        var localNotFound = exec.cachesInfo.localNotFound;
+        if (localNotFound.effectivelySupports()) {
+            if (localNotFound.getCache().isKnownNotFound(exec.type, exec.oid)) {
+                exec.reportLocalNotFoundHit();
+                throw exec.createObjectNotFoundException();
+            } else {
+                exec.reportLocalNotFoundMiss();
+            }
+        }
+        var globalNotFound = exec.cachesInfo.globalNotFound;
+        if (globalNotFound.effectivelySupports()) {
+            if (globalNotFound.getCache().isKnownNotFound(exec.type, exec.oid)) {
+                exec.reportGlobalNotFoundHit();
+                cacheUpdater.storeNotFoundToLocal(exec.type, exec.oid, exec.cachesInfo);
+                throw exec.createObjectNotFoundException();
+            } else {
+                exec.reportGlobalNotFoundMiss();
+            }
+        }
+    }
+
     @SuppressWarnings("DuplicatedCode")
     private <T extends ObjectType> @Nullable PrismObject<T> tryLocalCache(GetObjectOpExecution<T> exec)
             throws ObjectNotFoundException {
@@ -192,6 +220,10 @@ public class GetObjectOpHandler extends CachedOpHandler {
     // returns directly returnable object (frozen if readonly, mutable if not readonly)
     private <T extends ObjectType> PrismObject<T> executeAndCache(GetObjectOpExecution<T> exec)
             throws SchemaException, ObjectNotFoundException {
+        // Registered before the read, so the invalidations that come during it can prevent storing stale "not found" entries.
+        GlobalNotFoundCache.PendingRead pendingRead =
+                exec.cacheUseMode.canUpdateObjectCache() && exec.cachesInfo.isEffectivelySupportedByAnyNotFoundCache() ?
+                        globalNotFoundCache.startRead(exec.type, exec.oid) : null;
         try {
             PrismObject<T> object = getObjectInternal(exec);
             exec.recordResult(object);
@@ -220,10 +252,20 @@ public class GetObjectOpHandler extends CachedOpHandler {
                     immutable :
                     object.cloneIfImmutable();
 
-        } catch (ObjectNotFoundException | SchemaException ex) {
+        } catch (ObjectNotFoundException ex) {
             globalObjectCache.remove(exec.oid);
             globalVersionCache.remove(exec.oid);
+            if (pendingRead != null) {
+                pendingRead.executeIfNotInvalidated(
+                        () -> cacheUpdater.storeNotFoundToAll(exec.type, exec.oid, exec.cachesInfo));
+            }
             throw ex;
+        } catch (SchemaException ex) {
+            globalObjectCache.remove(exec.oid);
+            globalVersionCache.remove(exec.oid);
+            throw ex;
+        } finally {
+            globalNotFoundCache.finishRead(pendingRead);
         }
     }
 
@@ -26,9 +26,11 @@ import com.evolveum.midpoint.prism.match.MatchingRuleRegistry;
 import com.evolveum.midpoint.repo.api.CacheDispatcher;
 import com.evolveum.midpoint.repo.api.RepositoryOperationResult;
 import com.evolveum.midpoint.repo.cache.global.GlobalCacheQueryValue;
+import com.evolveum.midpoint.repo.cache.global.GlobalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalObjectCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalQueryCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalVersionCache;
+import com.evolveum.midpoint.repo.cache.local.LocalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.local.LocalObjectCache;
 import com.evolveum.midpoint.repo.cache.local.LocalQueryCache;
 import com.evolveum.midpoint.repo.cache.local.LocalVersionCache;
@@ -57,6 +59,7 @@ public class Invalidator {
     @Autowired private GlobalQueryCache globalQueryCache;
     @Autowired private GlobalObjectCache globalObjectCache;
     @Autowired private GlobalVersionCache globalVersionCache;
+    @Autowired private GlobalNotFoundCache globalNotFoundCache;
     @Autowired CacheDispatcher cacheDispatcher;
     @Autowired MatchingRuleRegistry matchingRuleRegistry;
 
@@ -70,9 +73,11 @@ public class Invalidator {
             globalObjectCache.clear();
             globalVersionCache.clear();
             globalQueryCache.clear();
+            globalNotFoundCache.clear();
         } else {
             globalObjectCache.remove(type, oid);
             globalVersionCache.remove(type, oid);
+            globalNotFoundCache.remove(type, oid);
             if (ObjectType.class.isAssignableFrom(type)) {
                 //noinspection unchecked
                 clearQueryResultsGlobally((Class<? extends ObjectType>) type, oid, context);
@@ -104,10 +109,15 @@ public class Invalidator {
             if (localQueryCache != null) {
                 clearQueryResultsLocally(localQueryCache, type, oid, additionalInfo, matchingRuleRegistry);
             }
+            LocalNotFoundCache localNotFoundCache = getLocalNotFoundCache();
+            if (localNotFoundCache != null) {
+                localNotFoundCache.remove(oid);
+            }
             boolean clusterwide = TYPES_ALWAYS_INVALIDATED_CLUSTERWIDE.contains(type) ||
                     globalObjectCache.hasClusterwideInvalidationFor(type) ||
                     globalVersionCache.hasClusterwideInvalidationFor(type) ||
-                    globalQueryCache.hasClusterwideInvalidationFor(type);
+                    globalQueryCache.hasClusterwideInvalidationFor(type) ||
+                    globalNotFoundCache.hasClusterwideInvalidationFor(type);
             cacheDispatcher.dispatchInvalidation(type, oid, clusterwide,
                     new CacheInvalidationContext(false, new RepositoryCacheInvalidationDetails(additionalInfo)));
         } catch (Throwable t) {
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.repo.cache.local;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.evolveum.midpoint.util.caching.AbstractThreadLocalCache;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectType;
+
+/**
+ * Thread-local cache for "object not found" results of `getObject` operations (a negative cache).
+ *
+ * For each OID we remember the type under which the object was not found. A cached entry is applicable to
+ * a request for that type or any of its subtypes.
+ */
+public class LocalNotFoundCache extends AbstractThreadLocalCache {
+
+    private static final Trace LOGGER_CONTENT = TraceManager.getTrace(LocalNotFoundCache.class.getName() + ".content");
+
+    private final Map<String, Class<? extends ObjectType>> data = new ConcurrentHashMap<>();
+
+    /** Returns `true` if the object with given OID is known not to exist as an instance of given type. */
+    public boolean isKnownNotFound(@NotNull Class<? extends ObjectType> type, @NotNull String oid) {
+        Class<? extends ObjectType> notFoundAs = data.get(oid);
+        return notFoundAs != null && notFoundAs.isAssignableFrom(type);
+    }
+
+    public void put(@NotNull Class<? extends ObjectType> type, @NotNull String oid) {
+        data.put(oid, type);
+    }
+
+    public void remove(String oid) {
+        data.remove(oid);
+    }
+
+    @Override
+    public String description() {
+        return "NF:" + data.size();
+    }
+
+    @Override
+    protected int getSize() {
+        return data.size();
+    }
+
+    public void dumpContent(String threadName) {
+        if (LOGGER_CONTENT.isInfoEnabled()) {
+            data.forEach((k, v) -> LOGGER_CONTENT.info("Cached not-found [{}] {}: {}", threadName, k, v.getSimpleName()));
+        }
+    }
+}
@@ -25,7 +25,7 @@ import com.evolveum.midpoint.util.logging.TraceManager;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.SingleCacheStateInformationType;
 
 /**
- * Set of three thread-local repo caches (object, version, query).
+ * Set of thread-local repo caches (object, version, query; plus optional not-found cache).
  */
 @Component
 public class LocalRepoCacheCollection {
@@ -37,6 +37,7 @@ public class LocalRepoCacheCollection {
     private static final ConcurrentHashMap<Thread, LocalObjectCache> LOCAL_OBJECT_CACHE_INSTANCE = new ConcurrentHashMap<>();
     private static final ConcurrentHashMap<Thread, LocalVersionCache> LOCAL_VERSION_CACHE_INSTANCE = new ConcurrentHashMap<>();
     private static final ConcurrentHashMap<Thread, LocalQueryCache> LOCAL_QUERY_CACHE_INSTANCE = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Thread, LocalNotFoundCache> LOCAL_NOT_FOUND_CACHE_INSTANCE = new ConcurrentHashMap<>();
 
     public static LocalObjectCache getLocalObjectCache() {
         return LOCAL_OBJECT_CACHE_INSTANCE.get(Thread.currentThread());
@@ -50,6 +51,10 @@ public class LocalRepoCacheCollection {
         return LOCAL_QUERY_CACHE_INSTANCE.get(Thread.currentThread());
     }
 
+    public static LocalNotFoundCache getLocalNotFoundCache() {
+        return LOCAL_NOT_FOUND_CACHE_INSTANCE.get(Thread.currentThread());
+    }
+
     public static List<LocalQueryCache> getLocalQueryCaches() {
         List<LocalQueryCache> caches = new ArrayList<>();
         caches.addAll(LOCAL_QUERY_CACHE_INSTANCE.values());
@@ -61,6 +66,7 @@ public class LocalRepoCacheCollection {
         LocalObjectCache.destroy(LOCAL_OBJECT_CACHE_INSTANCE, LOGGER);
         LocalVersionCache.destroy(LOCAL_VERSION_CACHE_INSTANCE, LOGGER);
         LocalQueryCache.destroy(LOCAL_QUERY_CACHE_INSTANCE, LOGGER);
+        LocalNotFoundCache.destroy(LOCAL_NOT_FOUND_CACHE_INSTANCE, LOGGER);
     }
 
     public static void enter(CacheConfigurationManager mgr) {
@@ -69,29 +75,34 @@ public class LocalRepoCacheCollection {
         CacheConfiguration objectCacheConfig = mgr.getConfiguration(LOCAL_REPO_OBJECT_CACHE);
         CacheConfiguration versionCacheConfig = mgr.getConfiguration(LOCAL_REPO_VERSION_CACHE);
         CacheConfiguration queryCacheConfig = mgr.getConfiguration(LOCAL_REPO_QUERY_CACHE);
+        CacheConfiguration notFoundCacheConfig = mgr.getConfiguration(LOCAL_REPO_NOT_FOUND_CACHE);
 
         LocalObjectCache.enter(LOCAL_OBJECT_CACHE_INSTANCE, LocalObjectCache.class, objectCacheConfig, LOGGER);
         LocalVersionCache.enter(LOCAL_VERSION_CACHE_INSTANCE, LocalVersionCache.class, versionCacheConfig, LOGGER);
         LocalQueryCache.enter(LOCAL_QUERY_CACHE_INSTANCE, LocalQueryCache.class, queryCacheConfig, LOGGER);
+        LocalNotFoundCache.enter(LOCAL_NOT_FOUND_CACHE_INSTANCE, LocalNotFoundCache.class, notFoundCacheConfig, LOGGER);
     }
 
     public static void exit() {
         LocalObjectCache.exit(LOCAL_OBJECT_CACHE_INSTANCE, LOGGER);
         LocalVersionCache.exit(LOCAL_VERSION_CACHE_INSTANCE, LOGGER);
         LocalQueryCache.exit(LOCAL_QUERY_CACHE_INSTANCE, LOGGER);
+        LocalNotFoundCache.exit(LOCAL_NOT_FOUND_CACHE_INSTANCE, LOGGER);
     }
 
     public static boolean exists() {
         return LocalObjectCache.exists(LOCAL_OBJECT_CACHE_INSTANCE) ||
                 LocalVersionCache.exists(LOCAL_VERSION_CACHE_INSTANCE) ||
-                LocalQueryCache.exists(LOCAL_QUERY_CACHE_INSTANCE);
+                LocalQueryCache.exists(LOCAL_QUERY_CACHE_INSTANCE) ||
+                LocalNotFoundCache.exists(LOCAL_NOT_FOUND_CACHE_INSTANCE);
     }
 
     public static String debugDump() {
         // TODO
         return LocalObjectCache.debugDump(LOCAL_OBJECT_CACHE_INSTANCE) + "\n" +
                 LocalVersionCache.debugDump(LOCAL_VERSION_CACHE_INSTANCE) + "\n" +
-                LocalQueryCache.debugDump(LOCAL_QUERY_CACHE_INSTANCE);
+                LocalQueryCache.debugDump(LOCAL_QUERY_CACHE_INSTANCE) + "\n" +
+                LocalNotFoundCache.debugDump(LOCAL_NOT_FOUND_CACHE_INSTANCE);
     }
 
     public void getStateInformation(List<SingleCacheStateInformationType> rv) {
@@ -105,6 +116,9 @@ public class LocalRepoCacheCollection {
                 .name(LocalQueryCache.class.getName())
                 .size(LocalQueryCache.getTotalSize(LOCAL_QUERY_CACHE_INSTANCE))
                 .secondarySize(LocalQueryCache.getTotalCachedObjects(LOCAL_QUERY_CACHE_INSTANCE)));
+        rv.add(new SingleCacheStateInformationType(prismContext)
+                .name(LocalNotFoundCache.class.getName())
+                .size(LocalNotFoundCache.getTotalSize(LOCAL_NOT_FOUND_CACHE_INSTANCE)));
 
     }
 
@@ -112,5 +126,6 @@ public class LocalRepoCacheCollection {
         LocalObjectCache.dumpContent(LOCAL_OBJECT_CACHE_INSTANCE);
         LocalVersionCache.dumpContent(LOCAL_VERSION_CACHE_INSTANCE);
         LocalQueryCache.dumpContent(LOCAL_QUERY_CACHE_INSTANCE);
+        LocalNotFoundCache.dumpContent(LOCAL_NOT_FOUND_CACHE_INSTANCE);
     }
 }
@@ -44,12 +44,14 @@ import com.evolveum.midpoint.prism.util.PrismTestUtil;
 import com.evolveum.midpoint.repo.api.RepositoryService;
 import com.evolveum.midpoint.repo.api.perf.OperationPerformanceInformation;
 import com.evolveum.midpoint.repo.api.perf.PerformanceInformation;
+import com.evolveum.midpoint.repo.cache.global.GlobalNotFoundCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalObjectCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalQueryCache;
 import com.evolveum.midpoint.repo.cache.global.GlobalVersionCache;
 import com.evolveum.midpoint.repo.cache.local.QueryKey;
 import com.evolveum.midpoint.repo.sqale.SqaleRepositoryService;
 import com.evolveum.midpoint.schema.*;
+import com.evolveum.midpoint.schema.cache.CacheConfigurationManager;
 import com.evolveum.midpoint.schema.internals.InternalCounters;
 import com.evolveum.midpoint.schema.internals.InternalMonitor;
 import com.evolveum.midpoint.schema.result.OperationResult;
@@ -78,6 +80,8 @@ public class TestRepositoryCache extends AbstractSpringTest implements InfraTest
     @Autowired GlobalObjectCache globalObjectCache;
     @Autowired GlobalVersionCache globalVersionCache;
     @Autowired GlobalQueryCache globalQueryCache;
+    @Autowired GlobalNotFoundCache globalNotFoundCache;
+    @Autowired CacheConfigurationManager cacheConfigurationManager;
     @Autowired PrismContext prismContext;
 
     @SuppressWarnings("unused") // used when heap dumps are uncommented, see dumpHeap method below
@@ -123,6 +127,142 @@ public class TestRepositoryCache extends AbstractSpringTest implements InfraTest
         testGetObjectBasic(SystemConfigurationType.class, getTestNameShort(), true);
     }
 
+    /**
+     * Tests the (opt-in) global not-found cache: repeated `getObject` for a non-existing object should go to the repository
+     * only once, and adding the object should invalidate the cached information.
+     */
+    @Test
+    public void test120GetObjectNotFoundCached() throws CommonException {
+        var result = createOperationResult();
+        clearCaches();
+
+        given("global not-found cache enabled for users");
+        enableGlobalNotFoundCacheForUsers();
+        try {
+            var oid = UUID.randomUUID().toString();
+
+            when("non-existing object is retrieved twice");
+            clearStatistics();
+            for (int i = 0; i < 2; i++) {
+                try {
+                    repositoryCache.getObject(UserType.class, oid, null, result);
+                    fail("unexpected success");
+                } catch (ObjectNotFoundException e) {
+                    displayValue("expected exception", e.getMessage());
+                }
+            }
+
+            then("repository was asked only once");
+            dumpStatistics();
+            assertGetOperations(1);
+            assertThat(globalNotFoundCache.isKnownNotFound(UserType.class, oid)).isTrue();
+            assertThat(globalNotFoundCache.isKnownNotFound(RoleType.class, oid)).isFalse();
+
+            when("the object is added and retrieved");
+            PrismObject<UserType> user = new UserType()
+                    .oid(oid)
+                    .name(getTestNameShort())
+                    .asPrismObject();
+            repositoryCache.addObject(user, null, result);
+            clearStatistics();
+            var retrieved = repositoryCache.getObject(UserType.class, oid, null, result);
+
+            then("it is found");
+            assertEquals("Wrong object", user, retrieved);
+            assertGetOperations(1);
+            assertThat(globalNotFoundCache.isKnownNotFound(UserType.class, oid)).isFalse();
+        } finally {
+            cacheConfigurationManager.applyCachingConfiguration(null);
+            clearCaches();
+        }
+    }
+
+    /**
+     * An object added while a `getObject` call is reading it from the repository must not be remembered as "not found".
+     *
+     * First, the interleaving is simulated deterministically: the invalidation comes between the start of the read and
+     * the attempt to store the result. Then, objects are added while another thread is concurrently trying to read them.
+     */
+    @Test
+    public void test125GetObjectNotFoundRaceWithAdd() throws Exception {
+        var result = createOperationResult();
+        clearCaches();
+
+        given("global not-found cache enabled for users");
+        enableGlobalNotFoundCacheForUsers();
+        try {
+            var oid = UUID.randomUUID().toString();
+            var otherOid = UUID.randomUUID().toString();
+
+            when("object is added while its read is in progress");
+            var read = globalNotFoundCache.startRead(UserType.class, oid);
+            var otherRead = globalNotFoundCache.startRead(UserType.class, otherOid);
+            repositoryCache.addObject(
+                    new UserType().oid(oid).name(getTestNameShort()).asPrismObject(), null, result);
+            boolean stored = read.executeIfNotInvalidated(() -> globalNotFoundCache.put(UserType.class, oid));
+            boolean otherStored = otherRead.executeIfNotInvalidated(() -> globalNotFoundCache.put(UserType.class, otherOid));
+            globalNotFoundCache.finishRead(read);
+            globalNotFoundCache.finishRead(otherRead);
+
+            then("the 'not found' result for the added object is not stored (but the other one is)");
+            assertThat(stored).as("stored for the added object").isFalse();
+            assertThat(globalNotFoundCache.isKnownNotFound(UserType.class, oid)).isFalse();
+            assertThat(otherStored).as("stored for the other object").isTrue();
+            assertThat(globalNotFoundCache.isKnownNotFound(UserType.class, otherOid)).isTrue();
+
+            when("objects are added while being concurrently read");
+            List<String> oids = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                oids.add(UUID.randomUUID().toString());
+            }
+            AtomicBoolean stop = new AtomicBoolean();
+            Thread reader = new Thread(() -> {
+                OperationResult readerResult = new OperationResult("reader");
+                while (!stop.get()) {
+                    for (String o : oids) {
+                        try {
+                            repositoryCache.getObject(UserType.class, o, null, readerResult);
+                        } catch (ObjectNotFoundException e) {
+                            // expected for objects not added yet
+                        } catch (SchemaException e) {
+                            throw new AssertionError(e);
+                        }
+                    }
+                }
+            });
+            reader.start();
+            for (int i = 0; i < oids.size(); i++) {
+                repositoryCache.addObject(
+                        new UserType().oid(oids.get(i)).name(getTestNameShort() + "-" + i).asPrismObject(), null, result);
+            }
+            stop.set(true);
+            reader.join();
+
+            then("all objects are found");
+            for (String o : oids) {
+                assertThat(globalNotFoundCache.isKnownNotFound(UserType.class, o))
+                        .as("known not found: " + o)
+                        .isFalse();
+                repositoryCache.getObject(UserType.class, o, null, result);
+            }
+        } finally {
+            cacheConfigurationManager.applyCachingConfiguration(null);
+            clearCaches();
+        }
+    }
+
+    private void enableGlobalNotFoundCacheForUsers() {
+        cacheConfigurationManager.applyCachingConfiguration(
+                new SystemConfigurationType()
+                        .internals(new InternalsConfigurationType()
+                                .caching(new CachingConfigurationType()
+                                        .profile(new CachingProfileType()
+                                                .global(true)
+                                                .globalRepoNotFoundCache(new CacheSettingsType()
+                                                        .objectTypeSettings(new CacheObjectTypeSettingsType()
+                                                                .objectType(UserType.COMPLEX_TYPE)))))));
+    }
+
     /** Tests `searchObjects` operation passing the cache. */
     @Test
     public void test200SearchObjectsPassingCache() throws CommonException {
@@ -831,6 +971,7 @@ public class TestRepositoryCache extends AbstractSpringTest implements InfraTest
         globalObjectCache.clear();
         globalVersionCache.clear();
         globalQueryCache.clear();
+        globalNotFoundCache.clear();
     }
 
     /**
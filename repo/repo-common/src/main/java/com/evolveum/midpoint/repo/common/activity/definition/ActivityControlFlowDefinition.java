@@ -78,4 +78,9 @@ public class ActivityControlFlowDefinition implements DebugDumpable, Cloneable {
     public @Nullable ExpressionType getBucketProcessingCondition() {
         return bean.getBucketProcessingCondition();
     }
+
+    /** How often should be the position in the search stored (in milliseconds)? Null means "never". */
+    public @Nullable Long getItemCheckpointInterval() {
+        return bean.getItemCheckpointInterval();
+    }
 }
@@ -10,6 +10,7 @@ package com.evolveum.midpoint.repo.common.activity.definition;
 import static com.evolveum.midpoint.util.MiscUtil.or0;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.evolveum.midpoint.util.DebugDumpable;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
@@ -70,6 +71,26 @@ public class ActivityDistributionDefinition implements DebugDumpable, Cloneable
         return or0(bean.getWorkerThreads());
     }
 
+    public boolean isWorkStealing() {
+        return Boolean.TRUE.equals(bean.isWorkStealing());
+    }
+
+    public boolean isVirtualThreads() {
+        return Boolean.TRUE.equals(bean.isVirtualThreads());
+    }
+
+    public int getItemBatchSize() {
+        return Math.max(1, or0(bean.getItemBatchSize()));
+    }
+
+    public int getPrefetchSize() {
+        return Math.max(0, or0(bean.getPrefetchSize()));
+    }
+
+    public @Nullable ResourceConcurrencyLimitDefinitionType getResourceConcurrency() {
+        return bean.getResourceConcurrency();
+    }
+
     void applyChangeTailoring(@NotNull ActivityTailoringType tailoring) {
         if (tailoring.getDistribution() != null) {
             bean = TailoringUtil.getTailoredBean(bean, tailoring.getDistribution());
@@ -140,6 +140,11 @@ public class ActivityReportingDefinition implements DebugDumpable, Cloneable {
                 bean.getStateOverview().getProgressUpdateInterval() : null;
     }
 
+    /** How often should be progress and statistics stored into the task in repository? Null means "use the default". */
+    public @Nullable Long getStatisticsStoreInterval() {
+        return bean.getStatisticsStoreInterval();
+    }
+
     public @NotNull ActivityStateOverviewProgressUpdateModeType getStateOverviewProgressUpdateMode() {
         return MoreObjects.firstNonNull(
                 getStateOverviewProgressUpdateModeRaw(),
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps track of the position in the search within the current bucket, i.e. the OID of the last object such that
+ * it and all the objects before it were processed. Items are processed in parallel, so they can be done out of order.
+ *
+ * Assumes that items are submitted in the order of OIDs (the default ordering of iterative search in the repository).
+ *
+ * Used by {@link SearchBasedActivityRun}: items are submitted by the coordinator thread, and marked as done by workers.
+ */
+class ItemCheckpointTracker {
+
+    /** ID of the bucket the checkpoint belongs to. */
+    private final long bucketId;
+
+    /** How often should be the checkpoint stored (in milliseconds). */
+    private final long interval;
+
+    /** Items submitted and not yet part of the "done" prefix. Key: sequential number, value: OID. Guarded by this. */
+    @NotNull private final NavigableMap<Integer, String> pending = new TreeMap<>();
+
+    /** Sequential numbers of items that are done, but not yet part of the "done" prefix. Guarded by this. */
+    @NotNull private final Set<Integer> done = new HashSet<>();
+
+    /** OID of the last item of the "done" prefix. Guarded by this. */
+    private String lastProcessedOid;
+
+    /** Value that was last returned to be stored. Guarded by this. */
+    private String lastStoredOid;
+
+    /** Guarded by this. */
+    private long lastStoredTimestamp = System.currentTimeMillis();
+
+    ItemCheckpointTracker(long bucketId, long interval) {
+        this.bucketId = bucketId;
+        this.interval = interval;
+    }
+
+    long getBucketId() {
+        return bucketId;
+    }
+
+    synchronized void itemSubmitted(int sequentialNumber, @NotNull String oid) {
+        pending.put(sequentialNumber, oid);
+    }
+
+    synchronized void itemDone(int sequentialNumber) {
+        if (!pending.containsKey(sequentialNumber)) {
+            return; // not tracked by us
+        }
+        done.add(sequentialNumber);
+        Map.Entry<Integer, String> first;
+        while ((first = pending.firstEntry()) != null && done.remove(first.getKey())) {
+            lastProcessedOid = first.getValue();
+            pending.pollFirstEntry();
+        }
+    }
+
+    /** Returns the OID to be stored, if the time has come and the position has moved since the last time. */
+    synchronized @Nullable String getCheckpointToStore() {
+        long now = System.currentTimeMillis();
+        if (lastProcessedOid == null
+                || lastProcessedOid.equals(lastStoredOid)
+                || now - lastStoredTimestamp < interval) {
+            return null;
+        }
+        lastStoredOid = lastProcessedOid;
+        lastStoredTimestamp = now;
+        return lastProcessedOid;
+    }
+
+    /** Called if the store failed, so we should try again next time. */
+    synchronized void checkpointStoreFailed() {
+        lastStoredOid = null;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ItemCheckpointTracker{" +
+                "bucketId=" + bucketId +
+                ", lastProcessedOid=" + lastProcessedOid +
+                ", lastStoredOid=" + lastStoredOid +
+                ", pending=" + pending.size() +
+                ", done=" + done.size() +
+                '}';
+    }
+}
@@ -19,6 +19,7 @@ import com.evolveum.midpoint.prism.xml.XmlTypeConverter;
 
 import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
 import com.evolveum.midpoint.repo.common.activity.run.processing.ProcessingCoordinator;
+import com.evolveum.midpoint.repo.common.activity.run.processing.ResourceConcurrencyLimiter;
 import com.evolveum.midpoint.repo.common.expression.ExpressionUtil;
 import com.evolveum.midpoint.repo.common.activity.run.reports.ConnIdOperationsReport;
 import com.evolveum.midpoint.repo.common.activity.run.reports.ItemsReport;
@@ -151,6 +152,9 @@ public abstract class IterativeActivityRun<
      */
     @NotNull private final ConnIdOperationsListener globalConnIdOperationsListener;
 
+    /** Limits concurrent connector operations of worker threads, if configured. */
+    @Nullable private final ResourceConcurrencyLimiter resourceConcurrencyLimiter;
+
     /**
      * Number of buckets announced to the activity tree state overview. Kept here to eliminate redundant updates.
      */
@@ -164,6 +168,7 @@ public abstract class IterativeActivityRun<
         this.beans = taskRun.getBeans();
         this.errorHandlingStrategyExecutor = new ErrorHandlingStrategyExecutor(getActivity(), getDefaultErrorAction(), beans);
         this.globalConnIdOperationsListener = new GlobalConnIdOperationsListener();
+        this.resourceConcurrencyLimiter = ResourceConcurrencyLimiter.create(getActivity().getDistributionDefinition());
 
         getReportingDefinition().applyDefaults(reportingCharacteristics);
     }
@@ -370,11 +375,20 @@ public abstract class IterativeActivityRun<
     }
 
     private void completeWorkBucketAndUpdateStatistics(OperationResult result) throws ActivityRunException {
+        completeWorkBucketAndUpdateStatistics(null, result);
+    }
+
+    /**
+     * @param processingTime Time spent by processing the bucket, if relevant. It is recorded in the bucket
+     * and used for adaptive bucket sizing.
+     */
+    private void completeWorkBucketAndUpdateStatistics(Long processingTime, OperationResult result)
+            throws ActivityRunException {
         try {
 
             Holder<BucketProgressOverviewType> bucketProgressHolder = new Holder<>();
             beans.bucketingManager.completeWorkBucket(bucketingSituation.coordinatorTaskOid, bucketingSituation.workerTaskOid,
-                    getActivityPath(), bucket.getSequentialNumber(), getLiveBucketManagementStatistics(),
+                    getActivityPath(), bucket.getSequentialNumber(), processingTime, getLiveBucketManagementStatistics(),
                     bucketProgressHolder, result);
 
             activityState.getLiveProgress().onCommitPoint();
@@ -475,7 +489,7 @@ public abstract class IterativeActivityRun<
         if (complete) {
             record.end(getLiveItemProcessing());
 
-            completeWorkBucketAndUpdateStatistics(result);
+            completeWorkBucketAndUpdateStatistics(record.getDuration(), result);
 
             // We want to report bucket as completed only after it's really marked as completed.
             reportBucketCompleted(record, result);
@@ -867,6 +881,10 @@ public abstract class IterativeActivityRun<
         }
     }
 
+    public @Nullable ResourceConcurrencyLimiter getResourceConcurrencyLimiter() {
+        return resourceConcurrencyLimiter;
+    }
+
     public final void disableGlobalConnIdOperationsListener() {
         if (shouldReportConnIdOperations()) {
             getRunningTask().unregisterConnIdOperationsListener(globalConnIdOperationsListener);
@@ -877,6 +895,16 @@ public abstract class IterativeActivityRun<
         return errorState;
     }
 
+    /**
+     * Called by the item processing gatekeeper after the item was processed and acknowledged.
+     * If `release` is false, the item should not be considered done (e.g. because the processing is being stopped).
+     *
+     * Called from worker threads.
+     */
+    public void onItemAcknowledged(
+            @NotNull ItemProcessingRequest<I> request, boolean release, @NotNull OperationResult result) {
+    }
+
     private static class BucketingSituation {
         @NotNull private final String coordinatorTaskOid;
         @Nullable private final String workerTaskOid;
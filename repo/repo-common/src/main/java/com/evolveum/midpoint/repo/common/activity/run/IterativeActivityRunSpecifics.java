@@ -7,7 +7,12 @@
 
 package com.evolveum.midpoint.repo.common.activity.run;
 
+import java.util.List;
+
 import com.evolveum.midpoint.repo.common.activity.definition.ActivityReportingDefinition;
+import com.evolveum.midpoint.repo.common.activity.run.processing.ItemProcessingRequest;
+import com.evolveum.midpoint.task.api.RunningTask;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ActivityDistributionDefinitionType;
 import com.evolveum.midpoint.repo.common.activity.run.buckets.segmentation.ImplicitSegmentationResolver;
 
 import com.evolveum.midpoint.xml.ns._public.common.common_3.AbstractWorkSegmentationType;
@@ -29,7 +34,7 @@ import com.evolveum.midpoint.util.exception.SchemaException;
  * Main responsibilities (at this level of abstraction):
  *
  * 1. provides custom code to be executed before/after the real execution (if needed),
- * 2. provides custom code to be executed before/after individual buckets are executed (if needed),
+ * 2. provides custom code to be executed before/after individual buckets (or item batches) are executed (if needed),
  * 3. provides default reporting configuration,
  * 4. indicates what activity state should be used to keep threshold counters - TODO to be reconsidered,
  * 5. interprets implicit work segmentation configuration.
@@ -70,6 +75,35 @@ public interface IterativeActivityRunSpecifics extends ImplicitSegmentationResol
     default void afterBucketProcessing(OperationResult result) throws ActivityRunException, CommonException {
     }
 
+    /**
+     * Called before a micro-batch of items is processed (only if item batching is configured). It can be used e.g.
+     * to pre-fetch the data needed to process the items in bulk. The items are then processed one by one, via
+     * the standard item processing method.
+     *
+     * An exception thrown here is logged and the items are processed without the preparation.
+     *
+     * See {@link ActivityDistributionDefinitionType#getItemBatchSize()}.
+     */
+    @Experimental
+    default void beforeItemBatchProcessing(@NotNull List<? extends ItemProcessingRequest<?>> requests,
+            @NotNull RunningTask workerTask, @NotNull OperationResult result) throws CommonException {
+    }
+
+    /**
+     * Called after a micro-batch of items is processed (only if item batching is configured). It can be used e.g.
+     * to write the results of the processing together. Only the requests that were really processed are provided.
+     * They are acknowledged (see {@link ItemProcessingRequest#acknowledge(boolean, OperationResult)}) only after this
+     * method returns.
+     *
+     * An exception thrown here stops the whole activity run, because the effects of (already reported) items
+     * processing may not have been fully applied. The items are acknowledged with `release` being `false` then,
+     * and the current bucket is not marked as complete.
+     */
+    @Experimental
+    default void afterItemBatchProcessing(@NotNull List<? extends ItemProcessingRequest<?>> requests,
+            @NotNull RunningTask workerTask, @NotNull OperationResult result) throws CommonException {
+    }
+
     /**
      * @return Reporting characteristics of the activity run. They e.g. provide default values
      * for {@link ActivityReportingDefinition}.
@@ -93,7 +93,9 @@ public abstract class LocalActivityRun<
         // (But are there any such objects? Should not be, because e.g. provisioning retry operations should not be allowed,
         // and plain synchronization is executed within item processing.)
         var oldSimulationTransaction = runningTask.setSimulationTransaction(getSimulationTransaction());
+        long oldStatisticsStoreInterval = runningTask.getStatisticsRepoStoreInterval();
         try {
+            applyStatisticsStoreInterval(runningTask);
             runningTask.setExcludedFromStalenessChecking(isExcludedFromStalenessChecking());
             runningTask.setExecutionMode(getTaskExecutionMode());
             runResult = runLocally(localResult);
@@ -104,6 +106,7 @@ public abstract class LocalActivityRun<
             runningTask.setExcludedFromStalenessChecking(false);
             runningTask.setExecutionMode(oldExecutionMode);
             runningTask.setSimulationTransaction(oldSimulationTransaction);
+            runningTask.setStatisticsRepoStoreInterval(oldStatisticsStoreInterval);
         }
 
         updateStateOnRunEnd(localResult, runResult, result);
@@ -111,6 +114,14 @@ public abstract class LocalActivityRun<
         return runResult;
     }
 
+    /** Statistics are stored at checkpoints (bucket completion, run end) regardless of this interval. */
+    private void applyStatisticsStoreInterval(RunningTask runningTask) {
+        Long configuredValue = getActivity().getReportingDefinition().getStatisticsStoreInterval();
+        if (configuredValue != null) {
+            runningTask.setStatisticsRepoStoreInterval(configuredValue);
+        }
+    }
+
     public @NotNull TaskExecutionMode getTaskExecutionMode() throws ConfigurationException {
         return activity.getDefinition().getExecutionModeDefinition().getTaskExecutionMode();
     }
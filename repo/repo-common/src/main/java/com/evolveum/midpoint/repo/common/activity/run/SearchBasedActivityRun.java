@@ -8,6 +8,9 @@
 package com.evolveum.midpoint.repo.common.activity.run;
 
 import com.evolveum.midpoint.prism.Containerable;
+import com.evolveum.midpoint.prism.PrismConstants;
+import com.evolveum.midpoint.prism.PrismContext;
+import com.evolveum.midpoint.prism.path.ItemPath;
 import com.evolveum.midpoint.prism.query.ObjectFilter;
 import com.evolveum.midpoint.prism.query.ObjectQuery;
 import com.evolveum.midpoint.repo.common.activity.definition.ObjectSetSpecification;
@@ -27,6 +30,7 @@ import com.evolveum.midpoint.task.api.RunningTask;
 import com.evolveum.midpoint.task.api.TaskManager;
 import com.evolveum.midpoint.util.DebugUtil;
 import com.evolveum.midpoint.util.exception.*;
+import com.evolveum.midpoint.util.logging.LoggingUtils;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
@@ -70,6 +74,8 @@ import static java.util.Objects.requireNonNull;
  *   a. checking for already-processed objects (OIDs seen),
  *   b. applying additional filter (currently used for retrying failed objects),
  *   c. applying additional pre-processing to objects (currently used for retrying failed objects),
+ *
+ * 5. Item-level checkpointing (if configured) - see {@link #checkpointTracker}.
  */
 public abstract class SearchBasedActivityRun<
         C extends Containerable,
@@ -121,6 +127,13 @@ public abstract class SearchBasedActivityRun<
      */
     @NotNull private final AtomicInteger sequentialNumberCounter = new AtomicInteger(0);
 
+    /**
+     * Tracks the position in the search within the current bucket, so it can be periodically stored, and the processing
+     * of the bucket can be resumed from there after an interruption. Null if checkpointing is not configured or not
+     * applicable. Re-created for each bucket.
+     */
+    @Nullable private volatile ItemCheckpointTracker checkpointTracker;
+
     public SearchBasedActivityRun(@NotNull ActivityRunInstantiationContext<WD, AH> context,
             @NotNull String shortNameCapitalized) {
         super(context, shortNameCapitalized);
@@ -135,6 +148,7 @@ public abstract class SearchBasedActivityRun<
     private void prepareSearchSpecificationAndSearchableItemSource(OperationResult result)
             throws CommonException, ActivityRunException {
         searchSpecification = createCustomizedSearchSpecification(result);
+        checkpointTracker = createCheckpointTrackerIfApplicable();
 
         narrowQueryForBucketingAndErrorHandling();
         resolveExpressionsInQuery(result);
@@ -242,7 +256,8 @@ public abstract class SearchBasedActivityRun<
                             narrowQueryToProcessBucket(failureNarrowedQuery) : // logging is inside
                             failureNarrowedQuery;
 
-            searchSpecification.setQuery(bucketNarrowedQuery);
+            searchSpecification.setQuery(
+                    narrowQueryToResumeFromCheckpoint(bucketNarrowedQuery));
 
         } catch (Throwable t) {
             // This is most probably a permanent error. (The real communication with a resource is carried out when the
@@ -266,6 +281,52 @@ public abstract class SearchBasedActivityRun<
         return bucketNarrowedQuery;
     }
 
+    private @Nullable ItemCheckpointTracker createCheckpointTrackerIfApplicable() {
+        Long interval = activity.getDefinition().getControlFlowDefinition().getItemCheckpointInterval();
+        if (interval == null || bucket == null) {
+            return null;
+        }
+        String notApplicableReason;
+        if (isWorker()) {
+            notApplicableReason = "running in a worker task";
+        } else if (bucket.getId() == null) {
+            notApplicableReason = "no bucket ID";
+        } else if (!ObjectType.class.isAssignableFrom(getItemType())) {
+            notApplicableReason = "not searching for objects";
+        } else if (searchesResourceObjects()) {
+            notApplicableReason = "searching for resource objects";
+        } else if (hasExplicitOrdering(searchSpecification.getQuery())) {
+            notApplicableReason = "explicit ordering is used";
+        } else {
+            return new ItemCheckpointTracker(bucket.getId(), interval);
+        }
+        LOGGER.debug("{}: Item checkpointing is not applicable: {}", shortName, notApplicableReason);
+        return null;
+    }
+
+    private static boolean hasExplicitOrdering(ObjectQuery query) {
+        if (query == null || query.getPaging() == null) {
+            return false;
+        }
+        var orderings = query.getPaging().getOrderingInstructions();
+        return orderings != null && !orderings.isEmpty();
+    }
+
+    /** If we were interrupted in the middle of the current bucket, we continue after the last stored position. */
+    private ObjectQuery narrowQueryToResumeFromCheckpoint(ObjectQuery query) throws SchemaException {
+        String lastProcessedOid = bucket != null ? bucket.getLastProcessedOid() : null;
+        if (checkpointTracker == null || lastProcessedOid == null) {
+            return query;
+        }
+        LOGGER.debug("{}: resuming the processing of bucket #{} after object {}",
+                shortName, bucket.getSequentialNumber(), lastProcessedOid);
+        return ObjectQueryUtil.addConjunctions(
+                query,
+                PrismContext.get().queryFor(getItemType())
+                        .item(PrismConstants.T_ID).gt(lastProcessedOid)
+                        .buildFilter());
+    }
+
     /**
      * Besides updating the query this method influences the search process:
      *
@@ -484,11 +545,20 @@ public abstract class SearchBasedActivityRun<
 
     /**
      * Retrieves items from the source and passes them to search
+     *
+     * In the multithreaded case, the handler returns as soon as the request is put into the coordinator's buffer.
+     * Hence, if the buffer is large enough (see `distribution/prefetchSize`), the source can fetch the next page(s)
+     * while the workers are processing the items of the current one(s).
      */
     private void searchIterative(OperationResult result) throws CommonException {
+        ItemCheckpointTracker tracker = checkpointTracker;
         ContainerableResultHandler<C> handler = (object, parentResult) -> {
             ItemProcessingRequest<C> request =
                     ContainerableProcessingRequest.create(sequentialNumberCounter.getAndIncrement(), object, this);
+            String oid = request.getItemOid();
+            if (tracker != null && oid != null) {
+                tracker.itemSubmitted(request.getSequentialNumber(), oid);
+            }
             return coordinator.submit(request, parentResult);
         };
 
@@ -502,6 +572,39 @@ public abstract class SearchBasedActivityRun<
         }
     }
 
+    /** Number of items retrieved from the source (and submitted for processing) so far. For diagnostics and tests. */
+    protected int getItemsSubmitted() {
+        return sequentialNumberCounter.get();
+    }
+
+    @Override
+    public final void onItemAcknowledged(
+            @NotNull ItemProcessingRequest<C> request, boolean release, @NotNull OperationResult result) {
+        ItemCheckpointTracker tracker = checkpointTracker;
+        if (tracker == null || !release) {
+            return;
+        }
+        tracker.itemDone(request.getSequentialNumber());
+        String checkpoint = tracker.getCheckpointToStore();
+        if (checkpoint == null) {
+            return;
+        }
+        try {
+            LOGGER.trace("{}: storing checkpoint for bucket ID {}: {}", shortName, tracker.getBucketId(), checkpoint);
+            activityState.setItemRealValues(
+                    ItemPath.create(
+                            ActivityStateType.F_BUCKETING,
+                            ActivityBucketingStateType.F_BUCKET,
+                            tracker.getBucketId(),
+                            WorkBucketType.F_LAST_PROCESSED_OID),
+                    checkpoint);
+            activityState.flushPendingTaskModificationsChecked(result);
+        } catch (ActivityRunException e) {
+            tracker.checkpointStoreFailed();
+            LoggingUtils.logUnexpectedException(LOGGER, "Couldn't store the checkpoint in {}", e, this);
+        }
+    }
+
     private boolean requestSearchTracingIfNeeded(RunningTask task) {
         for (var definition : getReportingDefinition().getTracingConfigurationsSorted()) {
             if (definition.getTracingPoint().contains(TracingRootType.RETRIEVED_RESOURCE_OBJECT_PROCESSING)) {
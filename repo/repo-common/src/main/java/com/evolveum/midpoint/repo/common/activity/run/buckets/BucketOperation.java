@@ -19,6 +19,7 @@ import static com.evolveum.midpoint.xml.ns._public.common.common_3.WorkBucketSta
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Consumer;
 
 import com.evolveum.midpoint.util.PassingHolder;
@@ -30,13 +31,18 @@ import org.jetbrains.annotations.Nullable;
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.prism.delta.ItemDelta;
 import com.evolveum.midpoint.prism.path.ItemPath;
+import com.evolveum.midpoint.repo.api.ModifyObjectResult;
 import com.evolveum.midpoint.repo.api.RepositoryService;
+import com.evolveum.midpoint.repo.api.RepositoryService.ModificationsSupplier;
 import com.evolveum.midpoint.repo.common.activity.run.state.ActivityBucketManagementStatistics;
 import com.evolveum.midpoint.repo.common.activity.run.CommonTaskBeans;
+import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.schema.util.task.ActivityPath;
 import com.evolveum.midpoint.task.api.TaskManager;
 import com.evolveum.midpoint.util.DebugDumpable;
 import com.evolveum.midpoint.util.DebugUtil;
+import com.evolveum.midpoint.util.exception.ObjectAlreadyExistsException;
+import com.evolveum.midpoint.util.exception.ObjectNotFoundException;
 import com.evolveum.midpoint.util.exception.SchemaException;
 import com.evolveum.midpoint.util.logging.Trace;
 import com.evolveum.midpoint.util.logging.TraceManager;
@@ -104,6 +110,30 @@ class BucketOperation implements DebugDumpable {
         return workerTaskOid == null;
     }
 
+    /**
+     * Modifies the coordinator task dynamically, serializing the operation with other bucket operations on this node
+     * that deal with the same coordinator. See {@link CoordinatorTaskLocks}.
+     */
+    ModifyObjectResult<TaskType> modifyCoordinatorDynamically(
+            @NotNull ModificationsSupplier<TaskType> modificationsSupplier, @NotNull OperationResult result)
+            throws ObjectNotFoundException, SchemaException, ObjectAlreadyExistsException {
+        if (BucketingConfigurationOverrides.isNodeLocalSerializationDisabled()) {
+            return plainRepositoryService.modifyObjectDynamically(
+                    TaskType.class, coordinatorTaskOid, null, modificationsSupplier, null, result);
+        }
+        Lock lock = CoordinatorTaskLocks.get(coordinatorTaskOid);
+        long lockRequested = System.currentTimeMillis();
+        lock.lock();
+        try {
+            CONTENTION_LOGGER.trace("Node-local lock for {} acquired after {} ms in {}",
+                    coordinatorTaskOid, System.currentTimeMillis() - lockRequested, workerTaskOid);
+            return plainRepositoryService.modifyObjectDynamically(
+                    TaskType.class, coordinatorTaskOid, null, modificationsSupplier, null, result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /** Buckets have to be detached and ID-less, free to be added to the delta. */
     static Collection<ItemDelta<?, ?>> bucketsAddDeltas(ItemPath statePath, List<WorkBucketType> buckets) {
         try {
@@ -127,6 +157,17 @@ class BucketOperation implements DebugDumpable {
         }
     }
 
+    static List<ItemDelta<?, ?>> bucketProcessingTimeDeltas(ItemPath statePath, WorkBucketType bucket,
+            long processingTime) {
+        try {
+            return PrismContext.get().deltaFor(TaskType.class)
+                    .item(createBucketPath(statePath, bucket).append(WorkBucketType.F_PROCESSING_TIME))
+                    .replace(processingTime).asItemDeltas();
+        } catch (SchemaException e) {
+            throw new IllegalStateException("Unexpected schema exception: " + e.getMessage(), e);
+        }
+    }
+
     @NotNull
     private static ItemPath createBucketPath(ItemPath statePath, WorkBucketType bucket) {
         return statePath.append(F_BUCKETING, F_BUCKET, bucket.getId());
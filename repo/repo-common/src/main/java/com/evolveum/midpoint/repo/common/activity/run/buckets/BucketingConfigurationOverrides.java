@@ -14,6 +14,9 @@ public class BucketingConfigurationOverrides {
 
     private static Long freeBucketWaitIntervalOverride;
 
+    /** Switching this off is useful e.g. for tests that need workers on a single node to access the coordinator directly. */
+    private static boolean nodeLocalSerializationDisabled;
+
     public static void setFreeBucketWaitIntervalOverride(Long value) {
         freeBucketWaitIntervalOverride = value;
     }
@@ -21,4 +24,12 @@ public class BucketingConfigurationOverrides {
     static Long getFreeBucketWaitIntervalOverride() {
         return freeBucketWaitIntervalOverride;
     }
+
+    public static void setNodeLocalSerializationDisabled(boolean value) {
+        nodeLocalSerializationDisabled = value;
+    }
+
+    static boolean isNodeLocalSerializationDisabled() {
+        return nodeLocalSerializationDisabled;
+    }
 }
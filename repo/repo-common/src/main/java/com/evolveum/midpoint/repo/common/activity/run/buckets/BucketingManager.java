@@ -74,8 +74,21 @@ public class BucketingManager {
             @Nullable Consumer<BucketProgressOverviewType> bucketProgressConsumer,
             @NotNull OperationResult result)
             throws ObjectAlreadyExistsException, ObjectNotFoundException, SchemaException {
+        completeWorkBucket(coordinatorTaskOid, workerTaskOid, activityPath, sequentialNumber, null,
+                statistics, bucketProgressConsumer, result);
+    }
+
+    /**
+     * Marks a work bucket as complete, recording the time spent by its processing (used for adaptive bucket sizing).
+     */
+    public void completeWorkBucket(@NotNull String coordinatorTaskOid, @Nullable String workerTaskOid,
+            @NotNull ActivityPath activityPath, int sequentialNumber, @Nullable Long processingTime,
+            @Nullable ActivityBucketManagementStatistics statistics,
+            @Nullable Consumer<BucketProgressOverviewType> bucketProgressConsumer,
+            @NotNull OperationResult result)
+            throws ObjectAlreadyExistsException, ObjectNotFoundException, SchemaException {
         new CompleteBucketOperation(coordinatorTaskOid, workerTaskOid, activityPath, statistics,
-                bucketProgressConsumer, beans, sequentialNumber)
+                bucketProgressConsumer, beans, sequentialNumber, processingTime)
                 .execute(result);
     }
 
@@ -44,12 +44,16 @@ public class CompleteBucketOperation extends BucketOperation {
 
     private final int sequentialNumber;
 
+    /** Time spent by processing the bucket (if known). Stored in the bucket for the sake of adaptive bucket sizing. */
+    @Nullable private final Long processingTime;
+
     CompleteBucketOperation(@NotNull String coordinatorTaskOid, @Nullable String workerTaskOid,
             @NotNull ActivityPath activityPath, ActivityBucketManagementStatistics collector,
             @Nullable Consumer<BucketProgressOverviewType> bucketProgressConsumer, CommonTaskBeans beans,
-            int sequentialNumber) {
+            int sequentialNumber, @Nullable Long processingTime) {
         super(coordinatorTaskOid, workerTaskOid, activityPath, collector, bucketProgressConsumer, beans);
         this.sequentialNumber = sequentialNumber;
+        this.processingTime = processingTime;
     }
 
     public void execute(OperationResult result)
@@ -57,8 +61,7 @@ public class CompleteBucketOperation extends BucketOperation {
 
         LOGGER.trace("Completing work bucket #{} in {} (worker {})", sequentialNumber, coordinatorTaskOid, workerTaskOid);
         ModifyObjectResult<TaskType> modifyObjectResult =
-                plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
-                        this::computeCompletionModifications, null, result);
+                modifyCoordinatorDynamically(this::computeCompletionModifications, result);
         bucketProgressHolder.passValue();
         statisticsKeeper.addToConflictCounts(modifyObjectResult);
         statisticsKeeper.register(BucketingConstants.COMPLETE_WORK_BUCKET);
@@ -80,7 +83,12 @@ public class CompleteBucketOperation extends BucketOperation {
                         .completeBuckets(BucketingUtil.getCompleteBucketsNumber(buckets) + 1));
 
         ItemPath statePath = ActivityStateUtil.getStateItemPath(task.getActivityState(), activityPath);
-        List<ItemDelta<?, ?>> closingMods = bucketStateChangeDeltas(statePath, bucket, WorkBucketStateType.COMPLETE);
+        List<ItemDelta<?, ?>> closingMods = new ArrayList<>(
+                bucketStateChangeDeltas(statePath, bucket, WorkBucketStateType.COMPLETE));
+        if (processingTime != null) {
+            closingMods.addAll(
+                    bucketProcessingTimeDeltas(statePath, bucket, processingTime));
+        }
 
         WorkBucketType bucketBeforeCompletion = bucket.clone();
         bucket.setState(WorkBucketStateType.COMPLETE); // needed for compressing buckets
@@ -133,5 +141,7 @@ public class CompleteBucketOperation extends BucketOperation {
     protected void extendDebugDump(StringBuilder sb, int indent) {
         sb.append("\n");
         DebugUtil.debugDumpWithLabel(sb, "sequentialNumber", sequentialNumber, indent + 1);
+        sb.append("\n");
+        DebugUtil.debugDumpWithLabel(sb, "processingTime", processingTime, indent + 1);
     }
 }
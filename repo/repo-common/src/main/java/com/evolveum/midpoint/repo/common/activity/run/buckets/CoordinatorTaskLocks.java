@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run.buckets;
+
+import java.util.concurrent.locks.Lock;
+
+import com.google.common.util.concurrent.Striped;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Node-local locks that serialize bucket operations (get, complete, release) related to a given coordinator task.
+ *
+ * All these operations modify the coordinator task using `modifyObjectDynamically`, which locks the task row
+ * in the database for the whole read-compute-write cycle (or retries on conflicts, depending on the repository
+ * implementation). When many workers on the same node do that concurrently, each of them holds a DB connection
+ * and an open transaction just to wait for the row. With these locks, at most one worker per node waits
+ * in the database; the others wait here, which is much cheaper.
+ *
+ * Locks are striped by coordinator task OID, so the memory footprint is bounded; unrelated coordinators sharing
+ * a stripe only rarely wait for each other, and only for the duration of a single repository operation.
+ */
+class CoordinatorTaskLocks {
+
+    private static final int STRIPES = 64;
+
+    private static final Striped<Lock> LOCKS = Striped.lazyWeakLock(STRIPES);
+
+    static @NotNull Lock get(@NotNull String coordinatorTaskOid) {
+        return LOCKS.get(coordinatorTaskOid);
+    }
+}
@@ -140,8 +140,7 @@ public class GetBucketOperation extends BucketOperation {
         for (;;) {
 
             Holder<GetBucketOperationAttempt> lastAttemptHolder = new Holder<>();
-            ModifyObjectResult<TaskType> modifyResult = plainRepositoryService.modifyObjectDynamically(TaskType.class,
-                    coordinatorTaskOid, null,
+            ModifyObjectResult<TaskType> modifyResult = modifyCoordinatorDynamically(
                     existingCoordinatorTask -> {
                         var coordinatorTask = existingCoordinatorTask.clone(); // todo check if the code below can change the data
                         GetBucketOperationAttempt attempt =
@@ -150,7 +149,7 @@ public class GetBucketOperation extends BucketOperation {
                         lastAttemptHolder.setValue(attempt);
                         attempt.execute();
                         return attempt.getModifications();
-                    }, null, result);
+                    }, result);
 
             bucketProgressHolder.passValue();
 
@@ -325,7 +324,7 @@ public class GetBucketOperation extends BucketOperation {
         Set<String> liveWorkers = getLiveWorkers(result);
         Holder<Integer> reclaimingHolder = new Holder<>(0);
 
-        plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
+        modifyCoordinatorDynamically(
                 task -> {
                     Collection<ItemDelta<?, ?>> modifications = new ArrayList<>();
                     ItemPath statePath = ActivityStateUtil.getStateItemPath(task.getActivityState(), activityPath);
@@ -345,7 +344,7 @@ public class GetBucketOperation extends BucketOperation {
                     }
                     reclaimingHolder.setValue(reclaiming);
                     return modifications;
-                }, null, result);
+                }, result);
 
         if (reclaimingHolder.getValue() > 0) {
             LOGGER.info("Reclaimed {} buckets in {}", reclaimingHolder.getValue(), coordinatorTaskOid);
@@ -372,7 +371,7 @@ public class GetBucketOperation extends BucketOperation {
 
     private void markScavengingIfNotYet(OperationResult result)
             throws ObjectAlreadyExistsException, ObjectNotFoundException, SchemaException {
-        plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
+        modifyCoordinatorDynamically(
                 task -> {
                     if (BucketingUtil.isInScavengingPhase(task.getActivityState(), activityPath)) {
                         return List.of();
@@ -382,19 +381,19 @@ public class GetBucketOperation extends BucketOperation {
                                 .item(stateItemPath.append(F_BUCKETING, F_SCAVENGING)).replace(true)
                                 .asItemDeltas();
                     }
-                }, null, result);
+                }, result);
     }
 
     private void markWorkComplete(OperationResult result)
             throws ObjectAlreadyExistsException, ObjectNotFoundException, SchemaException {
         // We use dynamic modify only because we do not know the state item path without loading coordinator task first
-        plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
+        modifyCoordinatorDynamically(
                 task -> {
                     ItemPath stateItemPath = ActivityStateUtil.getStateItemPath(task.getActivityState(), activityPath);
                     return prismContext.deltaFor(TaskType.class)
                             .item(stateItemPath.append(F_BUCKETING, F_WORK_COMPLETE)).replace(true)
                             .asItemDeltas();
-                }, null, result);
+                }, result);
     }
 
     private int determineBucketsToGet() {
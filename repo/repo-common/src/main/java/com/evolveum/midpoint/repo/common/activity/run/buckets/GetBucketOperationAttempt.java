@@ -298,7 +298,7 @@ class GetBucketOperationAttempt {
     }
 
     private void setOrUpdateEstimatedNumberOfBuckets() throws SchemaException {
-        Integer number = bucketFactory.estimateNumberOfBuckets();
+        Integer number = bucketFactory.estimateNumberOfBuckets(currentBuckets);
         if (number != null && !number.equals(getNumberOfBuckets(activityState))) {
             List<ItemDelta<?, ?>> numberOfBucketsMods = PrismContext.get().deltaFor(TaskType.class)
                     .item(activityStateItemPath.append(F_BUCKETING, F_NUMBER_OF_BUCKETS))
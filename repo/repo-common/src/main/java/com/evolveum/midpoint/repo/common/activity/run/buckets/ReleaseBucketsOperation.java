@@ -53,8 +53,7 @@ public class ReleaseBucketsOperation extends BucketOperation {
 
         ModifyObjectResult<TaskType> modifyObjectResult;
         try {
-            modifyObjectResult = plainRepositoryService.modifyObjectDynamically(TaskType.class, coordinatorTaskOid, null,
-                    this::computeReleaseModifications, null, result);
+            modifyObjectResult = modifyCoordinatorDynamically(this::computeReleaseModifications, result);
         } catch (ObjectAlreadyExistsException e) {
             throw new SystemException("Unexpected ObjectAlreadyExistsException: " + e.getMessage(), e);
         }
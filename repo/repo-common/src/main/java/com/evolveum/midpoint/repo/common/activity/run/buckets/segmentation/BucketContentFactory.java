@@ -7,9 +7,13 @@
 
 package com.evolveum.midpoint.repo.common.activity.run.buckets.segmentation;
 
+import java.util.List;
+
 import com.evolveum.midpoint.util.exception.SchemaException;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.AbstractWorkBucketContentType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.WorkBucketType;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -25,10 +29,30 @@ public interface BucketContentFactory {
     @Nullable AbstractWorkBucketContentType createNextBucketContent(AbstractWorkBucketContentType lastBucketContent,
             Integer lastBucketSequentialNumber) throws SchemaException;
 
+    /**
+     * Creates a content for the next bucket in a sequence, knowing the current buckets (e.g. their processing times).
+     * By default, the current buckets are ignored.
+     *
+     * @return null if there is no next bucket
+     */
+    default @Nullable AbstractWorkBucketContentType createNextBucketContent(AbstractWorkBucketContentType lastBucketContent,
+            Integer lastBucketSequentialNumber, @NotNull List<WorkBucketType> currentBuckets) throws SchemaException {
+        return createNextBucketContent(lastBucketContent, lastBucketSequentialNumber);
+    }
+
     /**
      * Estimates total number of buckets.
      *
      * @return null if the number cannot be determined
      */
     Integer estimateNumberOfBuckets();
+
+    /**
+     * Estimates total number of buckets, knowing the current buckets. By default, the current buckets are ignored.
+     *
+     * @return null if the number cannot be determined
+     */
+    default Integer estimateNumberOfBuckets(@NotNull List<WorkBucketType> currentBuckets) {
+        return estimateNumberOfBuckets();
+    }
 }
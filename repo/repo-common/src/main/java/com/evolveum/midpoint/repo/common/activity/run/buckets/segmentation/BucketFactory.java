@@ -80,7 +80,7 @@ public class BucketFactory {
         List<AbstractWorkBucketContentType> newContentList = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
             AbstractWorkBucketContentType newContent = contentFactory
-                    .createNextBucketContent(lastContent, lastSequentialNumber);
+                    .createNextBucketContent(lastContent, lastSequentialNumber, currentBuckets);
             if (newContent == null) {
                 break;
             }
@@ -106,4 +106,8 @@ public class BucketFactory {
     public Integer estimateNumberOfBuckets() {
         return contentFactory.estimateNumberOfBuckets();
     }
+
+    public Integer estimateNumberOfBuckets(@NotNull List<WorkBucketType> currentBuckets) {
+        return contentFactory.estimateNumberOfBuckets(currentBuckets);
+    }
 }
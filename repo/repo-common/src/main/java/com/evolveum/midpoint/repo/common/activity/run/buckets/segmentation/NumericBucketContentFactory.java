@@ -8,19 +8,28 @@
 package com.evolveum.midpoint.repo.common.activity.run.buckets.segmentation;
 
 import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.List;
 
 import com.evolveum.midpoint.repo.common.activity.run.buckets.BaseBucketContentFactory;
+import com.evolveum.midpoint.schema.util.task.BucketingUtil;
+
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import com.evolveum.midpoint.xml.ns._public.common.common_3.AbstractWorkBucketContentType;
-import com.evolveum.midpoint.xml.ns._public.common.common_3.NumericIntervalWorkBucketContentType;
-import com.evolveum.midpoint.xml.ns._public.common.common_3.NumericWorkSegmentationType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
 
 /**
  * Implements work state management strategy based on numeric identifier intervals.
+ *
+ * If {@link NumericWorkSegmentationType#getAdaptiveSizing()} is configured, the size of new buckets is derived
+ * from the size and {@link WorkBucketType#getProcessingTime()} of the most recently completed bucket;
+ * see {@link #getCurrentBucketSize(List)}. Near the end of the interval the buckets are made smaller.
  */
 public class NumericBucketContentFactory extends BaseBucketContentFactory<NumericWorkSegmentationType> {
 
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+
     NumericBucketContentFactory(@NotNull NumericWorkSegmentationType segmentationConfig) {
         super(segmentationConfig);
     }
@@ -28,7 +37,13 @@ public class NumericBucketContentFactory extends BaseBucketContentFactory<Numeri
     @Override
     public NumericIntervalWorkBucketContentType createNextBucketContent(AbstractWorkBucketContentType lastBucketContent,
             Integer lastBucketSequentialNumber) {
-        BigInteger bucketSize = getOrComputeBucketSize();
+        return createNextBucketContent(lastBucketContent, lastBucketSequentialNumber, List.of());
+    }
+
+    @Override
+    public NumericIntervalWorkBucketContentType createNextBucketContent(AbstractWorkBucketContentType lastBucketContent,
+            Integer lastBucketSequentialNumber, @NotNull List<WorkBucketType> currentBuckets) {
+        BigInteger bucketSize = getCurrentBucketSize(currentBuckets);
         BigInteger from = getFrom();
         BigInteger to = getOrComputeTo();
 
@@ -40,7 +55,8 @@ public class NumericBucketContentFactory extends BaseBucketContentFactory<Numeri
             if (lastContent.getTo() == null || lastContent.getTo().compareTo(to) >= 0) {
                 return null; // no more buckets
             }
-            BigInteger newEnd = lastContent.getTo().add(bucketSize);
+            BigInteger newEnd = lastContent.getTo().add(
+                    limitNearEnd(bucketSize, to.subtract(lastContent.getTo())));
             if (newEnd.compareTo(to) > 0) {
                 newEnd = to;
             }
@@ -50,10 +66,76 @@ public class NumericBucketContentFactory extends BaseBucketContentFactory<Numeri
         } else {
             return new NumericIntervalWorkBucketContentType()
                     .from(from)
-                    .to(from.add(bucketSize));
+                    .to(from.add(
+                            limitNearEnd(bucketSize, to.subtract(from))));
         }
     }
 
+    /**
+     * Returns the size of the bucket(s) to be created now. Without adaptive sizing, it is the configured (or computed)
+     * size. With adaptive sizing, the size of the most recently completed bucket is scaled by the ratio of target
+     * and observed processing time. To dampen oscillations, the size changes at most by the factor of 2 at once.
+     */
+    @NotNull
+    private BigInteger getCurrentBucketSize(@NotNull List<WorkBucketType> currentBuckets) {
+        BigInteger configuredSize = getOrComputeBucketSize();
+        AdaptiveBucketSizingType adaptiveSizing = segmentationConfig.getAdaptiveSizing();
+        if (adaptiveSizing == null) {
+            return configuredSize;
+        }
+
+        BigInteger size;
+        WorkBucketType measuredBucket = findLastMeasuredBucket(currentBuckets);
+        if (measuredBucket != null) {
+            NumericIntervalWorkBucketContentType measuredContent =
+                    (NumericIntervalWorkBucketContentType) measuredBucket.getContent();
+            BigInteger measuredSize = measuredContent.getTo().subtract(measuredContent.getFrom());
+            long processingTime = Math.max(measuredBucket.getProcessingTime(), 1);
+            size = measuredSize
+                    .multiply(BigInteger.valueOf(adaptiveSizing.getTargetProcessingTime()))
+                    .divide(BigInteger.valueOf(processingTime))
+                    .max(measuredSize.divide(TWO))
+                    .min(measuredSize.multiply(TWO));
+        } else {
+            size = configuredSize;
+        }
+
+        if (adaptiveSizing.getMaxBucketSize() != null) {
+            size = size.min(adaptiveSizing.getMaxBucketSize());
+        }
+        return size.max(getMinBucketSize(adaptiveSizing));
+    }
+
+    /** Returns the most recently completed bucket that has its processing time recorded. */
+    private @Nullable WorkBucketType findLastMeasuredBucket(@NotNull List<WorkBucketType> currentBuckets) {
+        return currentBuckets.stream()
+                .filter(b -> b.getState() == WorkBucketStateType.COMPLETE && b.getProcessingTime() != null)
+                .filter(b -> b.getContent() instanceof NumericIntervalWorkBucketContentType content
+                        && content.getFrom() != null && content.getTo() != null)
+                .max(Comparator.comparing(WorkBucketType::getSequentialNumber))
+                .orElse(null);
+    }
+
+    /**
+     * With adaptive sizing, a bucket never takes more than a half of the remaining space (unless it would be smaller
+     * than the minimal bucket size). So the last buckets get gradually smaller, and are more evenly spread among workers.
+     */
+    @NotNull
+    private BigInteger limitNearEnd(@NotNull BigInteger bucketSize, @NotNull BigInteger remaining) {
+        AdaptiveBucketSizingType adaptiveSizing = segmentationConfig.getAdaptiveSizing();
+        if (adaptiveSizing == null) {
+            return bucketSize;
+        }
+        return bucketSize.min(
+                remaining.divide(TWO).max(getMinBucketSize(adaptiveSizing)));
+    }
+
+    @NotNull
+    private BigInteger getMinBucketSize(@NotNull AdaptiveBucketSizingType adaptiveSizing) {
+        return adaptiveSizing.getMinBucketSize() != null ?
+                adaptiveSizing.getMinBucketSize().max(BigInteger.ONE) : BigInteger.ONE;
+    }
+
     @NotNull
     private BigInteger getOrComputeBucketSize() {
         if (segmentationConfig.getBucketSize() != null) {
@@ -105,4 +187,23 @@ public class NumericBucketContentFactory extends BaseBucketContentFactory<Numeri
             throw new IllegalStateException("Neither numberOfBuckets nor to + bucketSize is specified");
         }
     }
+
+    /**
+     * With adaptive sizing, the estimate is based on the remaining space and the current bucket size.
+     * (The additional buckets created near the end are not taken into account.)
+     */
+    @Override
+    public Integer estimateNumberOfBuckets(@NotNull List<WorkBucketType> currentBuckets) {
+        WorkBucketType lastBucket = BucketingUtil.getLastBucket(currentBuckets);
+        if (segmentationConfig.getAdaptiveSizing() == null
+                || lastBucket == null
+                || !(lastBucket.getContent() instanceof NumericIntervalWorkBucketContentType lastContent)
+                || lastContent.getTo() == null) {
+            return estimateNumberOfBuckets();
+        }
+        BigInteger remaining = getOrComputeTo().subtract(lastContent.getTo()).max(BigInteger.ZERO);
+        BigInteger[] divideAndRemainder = remaining.divideAndRemainder(getCurrentBucketSize(currentBuckets));
+        int remainingBuckets = divideAndRemainder[0].intValue() + (BigInteger.ZERO.equals(divideAndRemainder[1]) ? 0 : 1);
+        return lastBucket.getSequentialNumber() + remainingBuckets;
+    }
 }
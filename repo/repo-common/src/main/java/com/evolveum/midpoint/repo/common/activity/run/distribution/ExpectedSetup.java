@@ -10,16 +10,21 @@ package com.evolveum.midpoint.repo.common.activity.run.distribution;
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.repo.common.activity.Activity;
 import com.evolveum.midpoint.repo.common.activity.run.CommonTaskBeans;
+import com.evolveum.midpoint.repo.common.activity.run.buckets.segmentation.BucketFactory;
+import com.evolveum.midpoint.schema.util.task.BucketingUtil;
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.task.api.Task;
 import com.evolveum.midpoint.task.api.TaskManager;
 import com.evolveum.midpoint.util.MiscUtil;
 import com.evolveum.midpoint.util.exception.SchemaException;
 import com.evolveum.midpoint.util.exception.SystemException;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
 import com.evolveum.midpoint.util.template.StringSubstitutorUtil;
 import com.evolveum.midpoint.xml.ns._public.common.common_3.*;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
@@ -32,8 +37,11 @@ import static org.apache.commons.lang3.ObjectUtils.defaultIfNull;
  */
 class ExpectedSetup {
 
+    private static final Trace LOGGER = TraceManager.getTrace(ExpectedSetup.class);
+
     @NotNull private final Activity<?, ?> activity;
     @NotNull private final WorkersDefinitionType workersDefinitionBean;
+    @NotNull private final ActivityStateType coordinatorActivityState;
     @NotNull private final CommonTaskBeans beans;
     @NotNull private final Task coordinatorTask;
     @NotNull private final Task rootTask;
@@ -54,20 +62,23 @@ class ExpectedSetup {
     private ExpectedSetup(
             @NotNull Activity<?, ?> activity,
             @NotNull WorkersDefinitionType workersDefinitionBean,
+            @NotNull ActivityStateType coordinatorActivityState,
             @NotNull CommonTaskBeans beans,
             @NotNull Task coordinatorTask,
             @NotNull Task rootTask) {
         this.activity = activity;
         this.workersDefinitionBean = workersDefinitionBean;
+        this.coordinatorActivityState = coordinatorActivityState;
         this.beans = beans;
         this.coordinatorTask = coordinatorTask;
         this.rootTask = rootTask;
     }
 
     static ExpectedSetup create(@NotNull Activity<?, ?> activity, @NotNull WorkersDefinitionType workersDefinitionBean,
-            @NotNull CommonTaskBeans beans, @NotNull Task coordinatorTask, @NotNull Task rootTask,
-            @NotNull OperationResult result) {
-        ExpectedSetup setup = new ExpectedSetup(activity, workersDefinitionBean, beans, coordinatorTask, rootTask);
+            @NotNull ActivityStateType coordinatorActivityState, @NotNull CommonTaskBeans beans,
+            @NotNull Task coordinatorTask, @NotNull Task rootTask, @NotNull OperationResult result) {
+        ExpectedSetup setup = new ExpectedSetup(
+                activity, workersDefinitionBean, coordinatorActivityState, beans, coordinatorTask, rootTask);
         setup.initialize(result);
         return setup;
     }
@@ -75,6 +86,7 @@ class ExpectedSetup {
     private void initialize(OperationResult result) {
         determineClusterState(result);
 
+        List<WorkerCandidate> candidates = new ArrayList<>();
         for (WorkersPerNodeDefinitionType perNodeDefinition : getWorkersPerNode()) {
             for (String nodeIdentifier : getNodeIdentifiers(perNodeDefinition)) {
                 int count = defaultIfNull(perNodeDefinition.getCount(), 1);
@@ -82,11 +94,111 @@ class ExpectedSetup {
                 for (int index = 1; index <= count; index++) {
                     WorkerCharacterization characterization = createWorkerCharacterization(nodeIdentifier, index, perNodeDefinition,
                             index <= scavengers);
-                    workers.add(characterization);
-                    workersDefinition.put(characterization, perNodeDefinition);
+                    candidates.add(new WorkerCandidate(nodeIdentifier, index, characterization, perNodeDefinition));
                 }
             }
         }
+
+        for (WorkerCandidate candidate : selectCandidates(candidates)) {
+            workers.add(candidate.characterization());
+            workersDefinition.put(candidate.characterization(), candidate.perNodeDefinition());
+        }
+    }
+
+    /**
+     * Applies the scaling (if defined): keeps only as many workers as needed for the remaining work.
+     * Workers are taken "round-robin" from live nodes first, so that the load is spread evenly.
+     */
+    private @NotNull List<WorkerCandidate> selectCandidates(@NotNull List<WorkerCandidate> candidates) {
+        WorkersScalingDefinitionType scaling = workersDefinitionBean.getScaling();
+        if (scaling == null) {
+            return candidates;
+        }
+        int expected = determineExpectedWorkersCount(scaling, candidates.size());
+        if (expected >= candidates.size()) {
+            return candidates;
+        }
+        List<WorkerCandidate> sorted = new ArrayList<>(candidates);
+        sorted.sort(
+                Comparator.<WorkerCandidate, Boolean>comparing(c -> !nodesUpAndAlive.contains(c.nodeIdentifier()))
+                        .thenComparingInt(WorkerCandidate::index)
+                        .thenComparing(WorkerCandidate::nodeIdentifier));
+        return sorted.subList(0, expected);
+    }
+
+    /**
+     * Determines the number of workers needed for the remaining work. If the total number of buckets is not known
+     * (and cannot be estimated from the segmentation), only the maximum is applied.
+     *
+     * Note that this is evaluated only when the workers are reconciled, not continuously during the processing.
+     */
+    private int determineExpectedWorkersCount(@NotNull WorkersScalingDefinitionType scaling, int available) {
+        int max = Math.max(0, Math.min(available, defaultIfNull(scaling.getMaxWorkers(), available)));
+        Integer numberOfBuckets = getNumberOfBuckets();
+        if (numberOfBuckets == null) {
+            LOGGER.trace("Number of buckets is not known, applying only the maximum number of workers: {}", max);
+            return max;
+        }
+        List<WorkBucketType> buckets = BucketingUtil.getBuckets(coordinatorActivityState);
+        int remaining = Math.max(0, numberOfBuckets - BucketingUtil.getCompleteBucketsNumber(buckets));
+
+        int needed;
+        Long averageProcessingTime = getAverageBucketProcessingTime(buckets);
+        if (scaling.getTargetCompletionTime() != null && averageProcessingTime != null) {
+            long targetTime = Math.max(1, scaling.getTargetCompletionTime().getTimeInMillis(new Date()));
+            needed = (int) Math.min(Integer.MAX_VALUE, divideRoundingUp(remaining * averageProcessingTime, targetTime));
+        } else {
+            int bucketsPerWorker = Math.max(1, defaultIfNull(scaling.getBucketsPerWorker(), 1));
+            needed = (int) divideRoundingUp(remaining, bucketsPerWorker);
+        }
+
+        int min = remaining > 0 ? Math.max(0, defaultIfNull(scaling.getMinWorkers(), 1)) : 0;
+        int expected = Math.max(min, Math.min(max, needed));
+        LOGGER.debug("Scaling workers for {}: remaining buckets: {}, average bucket processing time: {} ms, "
+                        + "needed workers: {}, expected workers: {} (min {}, max {}, available {})",
+                activity.getPath(), remaining, averageProcessingTime, needed, expected, min, max, available);
+        return expected;
+    }
+
+    /**
+     * The number of buckets is stored in the coordinator state only after the first bucket is created, i.e. after
+     * the first worker asks for it. When the coordinator starts, we have to estimate it from the segmentation.
+     * (This is not possible e.g. for the implicit segmentation, as it needs the activity run to be resolved.)
+     */
+    private @Nullable Integer getNumberOfBuckets() {
+        Integer stored = BucketingUtil.getNumberOfBuckets(coordinatorActivityState);
+        if (stored != null) {
+            return stored;
+        }
+        try {
+            return BucketFactory.create(activity.getDistributionDefinition(), null, beans)
+                    .estimateNumberOfBuckets();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Couldn't estimate the number of buckets for {}: {}", activity.getPath(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Average processing time of complete buckets that are still present in the coordinator state.
+     *
+     * Complete buckets are compressed, so only the most recently completed ones (often a single one) are taken
+     * into account here. This makes the value react quickly to changes in processing speed, but also makes it noisy.
+     */
+    private static @Nullable Long getAverageBucketProcessingTime(@NotNull List<WorkBucketType> buckets) {
+        long total = 0;
+        int count = 0;
+        for (WorkBucketType bucket : buckets) {
+            if (bucket.getState() == WorkBucketStateType.COMPLETE && bucket.getProcessingTime() != null) {
+                total += bucket.getProcessingTime();
+                count++;
+            }
+        }
+        return count > 0 ? total / count : null;
+    }
+
+    private static long divideRoundingUp(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
     }
 
     private void determineClusterState(OperationResult result) {
@@ -143,6 +255,14 @@ class ExpectedSetup {
         }
     }
 
+    /** A worker that could be created, along with the information needed to decide whether it should be. */
+    private record WorkerCandidate(
+            @NotNull String nodeIdentifier,
+            int index,
+            @NotNull WorkerCharacterization characterization,
+            @NotNull WorkersPerNodeDefinitionType perNodeDefinition) {
+    }
+
     @NotNull Set<WorkerCharacterization> getWorkers() {
         return workers;
     }
@@ -145,7 +145,8 @@ public class WorkersReconciliation {
                 return reconciliationResult;
             }
 
-            expectedSetup = ExpectedSetup.create(activity, workersDefinitionBean, beans, coordinatorTask, rootTask, result);
+            expectedSetup = ExpectedSetup.create(
+                    activity, workersDefinitionBean, coordinatorActivityState, beans, coordinatorTask, rootTask, result);
             shouldBeWorkers = expectedSetup.getWorkers();
             int startingShouldBeWorkersCount = shouldBeWorkers.size();
 
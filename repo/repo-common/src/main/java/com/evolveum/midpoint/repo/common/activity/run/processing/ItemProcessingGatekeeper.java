@@ -11,6 +11,8 @@ import static java.util.Objects.requireNonNull;
 
 import static com.evolveum.midpoint.util.MiscUtil.argCheck;
 
+import java.util.List;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -128,14 +130,25 @@ class ItemProcessingGatekeeper<I> {
      */
     @Nullable private ConnIdOperationsListener connIdOperationsListener;
 
+    /** Listener that applies resource concurrency limits. Null if there are no such limits. */
+    @Nullable private ResourceConcurrencyLimiter.LimitingListener concurrencyLimitingListener;
+
+    /**
+     * If not null, the acknowledgement of the (regularly) processed item is not sent right away, but put here,
+     * to be sent after the whole batch of items is done. See {@link ProcessingCoordinator}.
+     */
+    @Nullable private final List<DeferredAcknowledgement<I>> deferredAcknowledgements;
+
     ItemProcessingGatekeeper(
             @NotNull ItemProcessingRequest<I> request,
             @NotNull IterativeActivityRun<I, ?, ?, ?> activityRun,
-            @NotNull RunningTask workerTask) {
+            @NotNull RunningTask workerTask,
+            @Nullable List<DeferredAcknowledgement<I>> deferredAcknowledgements) {
         this.request = request;
         this.activityRun = activityRun;
         this.coordinatorTask = activityRun.getRunningTask();
         this.workerTask = workerTask;
+        this.deferredAcknowledgements = deferredAcknowledgements;
         this.iterationItemInformation = request.getIterationItemInformation();
         this.conditionEvaluator = new ItemProcessingConditionEvaluator(this);
         this.itemProcessingMonitor = new ItemProcessingMonitor<>(this);
@@ -223,6 +236,12 @@ class ItemProcessingGatekeeper<I> {
     private void startLocalConnIdListeningIfNeeded(OperationResult result) {
         activityRun.disableGlobalConnIdOperationsListener();
 
+        ResourceConcurrencyLimiter limiter = activityRun.getResourceConcurrencyLimiter();
+        if (limiter != null) {
+            concurrencyLimitingListener = limiter.createListener(workerTask);
+            workerTask.registerConnIdOperationsListener(concurrencyLimitingListener);
+        }
+
         if (!activityRun.shouldReportConnIdOperations() ||
                 !beforeConditionForConnIdReportPasses(result)) {
             return;
@@ -235,6 +254,11 @@ class ItemProcessingGatekeeper<I> {
     private void stopLocalConnIdOperationListening() {
         activityRun.enableGlobalConnIdOperationsListener();
 
+        if (concurrencyLimitingListener != null) {
+            workerTask.unregisterConnIdOperationsListener(concurrencyLimitingListener);
+            concurrencyLimitingListener.releaseAll();
+        }
+
         if (connIdOperationsListener != null) {
             workerTask.unregisterConnIdOperationsListener(connIdOperationsListener);
         }
@@ -341,7 +365,12 @@ class ItemProcessingGatekeeper<I> {
     }
 
     private void acknowledgeItemProcessed(OperationResult result) {
-        request.acknowledge(shouldReleaseItem(), result);
+        var acknowledgement = new DeferredAcknowledgement<>(request, shouldReleaseItem());
+        if (deferredAcknowledgements != null) {
+            deferredAcknowledgements.add(acknowledgement);
+        } else {
+            acknowledgement.send(activityRun, result);
+        }
     }
 
     private boolean shouldReleaseItem() {
@@ -662,4 +691,13 @@ class ItemProcessingGatekeeper<I> {
             activityRun.getConnIdOperationsReport().addRecord(record);
         }
     }
+
+    /** Acknowledgement of a processed item that is to be sent later. */
+    record DeferredAcknowledgement<I>(@NotNull ItemProcessingRequest<I> request, boolean release) {
+
+        void send(@NotNull IterativeActivityRun<I, ?, ?, ?> activityRun, @NotNull OperationResult result) {
+            request.acknowledge(release, result);
+            activityRun.onItemAcknowledged(request, release, result);
+        }
+    }
 }
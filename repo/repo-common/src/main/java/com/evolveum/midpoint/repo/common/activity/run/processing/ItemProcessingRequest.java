@@ -26,6 +26,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.xml.namespace.QName;
+import java.util.List;
 import java.util.Objects;
 
 import static com.evolveum.midpoint.prism.polystring.PolyString.getOrig;
@@ -92,7 +93,14 @@ public abstract class ItemProcessingRequest<I> implements AcknowledgementSink {
     public abstract @NotNull IterationItemInformation getIterationItemInformation();
 
     public boolean process(RunningTask workerTask, OperationResult result) {
-        return new ItemProcessingGatekeeper<>(this, activityRun, workerTask)
+        return new ItemProcessingGatekeeper<>(this, activityRun, workerTask, null)
+                .process(result);
+    }
+
+    /** As {@link #process(RunningTask, OperationResult)}, but the acknowledgement is not sent; it is put into the list. */
+    boolean process(RunningTask workerTask, OperationResult result,
+            @NotNull List<ItemProcessingGatekeeper.DeferredAcknowledgement<I>> deferredAcknowledgements) {
+        return new ItemProcessingGatekeeper<>(this, activityRun, workerTask, deferredAcknowledgements)
                 .process(result);
     }
 
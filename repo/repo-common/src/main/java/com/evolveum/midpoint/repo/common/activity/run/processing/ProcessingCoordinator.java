@@ -10,10 +10,13 @@ package com.evolveum.midpoint.repo.common.activity.run.processing;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
+import com.evolveum.midpoint.repo.common.activity.definition.ActivityDistributionDefinition;
 import com.evolveum.midpoint.repo.common.activity.run.IterativeActivityRun;
 import com.evolveum.midpoint.task.api.RunningLightweightTask;
 
+import com.evolveum.midpoint.util.exception.CommonException;
 import com.evolveum.midpoint.util.exception.ConfigurationException;
 import com.evolveum.midpoint.util.exception.ObjectNotFoundException;
 import com.evolveum.midpoint.util.exception.SchemaException;
@@ -46,6 +49,19 @@ public class ProcessingCoordinator<I> {
 
     private final int threadsCount;
     private final boolean multithreaded;
+
+    /** Whether worker threads should be virtual ones. */
+    private final boolean virtualThreads;
+
+    /**
+     * Maximal number of requests processed together by a thread. See
+     * {@link IterativeActivityRun#beforeItemBatchProcessing(List, RunningTask, OperationResult)}.
+     */
+    private final int itemBatchSize;
+
+    /** Requests waiting to be processed as a batch. Used only in the single-threaded case. */
+    private final List<ItemProcessingRequest<I>> pendingBatch = new ArrayList<>();
+
     private final List<OperationResult> workerSpecificResults;
     private final RequestsBuffer<I> requestsBuffer;
 
@@ -68,11 +84,19 @@ public class ProcessingCoordinator<I> {
         this.coordinatorTask = activityRun.getRunningTask();
         this.activityRun = activityRun;
 
+        ActivityDistributionDefinition distributionDefinition = activityRun.getActivity().getDistributionDefinition();
         this.threadsCount = threadsCount;
+        this.virtualThreads = distributionDefinition.isVirtualThreads();
+        this.itemBatchSize = distributionDefinition.getItemBatchSize();
         if (threadsCount > 0) {
             multithreaded = true;
             workerSpecificResults = new ArrayList<>(threadsCount);
-            requestsBuffer = new RequestsBuffer<>(threadsCount);
+            // Items are read from the source (e.g. the repository search) by the coordinator thread, while the workers
+            // process them. A larger buffer lets the source proceed - and fetch the next page(s) - ahead of the processing.
+            int prefetchSize = distributionDefinition.getPrefetchSize();
+            requestsBuffer = distributionDefinition.isWorkStealing() ?
+                    new WorkStealingRequestsBuffer<>(threadsCount, prefetchSize) :
+                    new SharedQueueRequestsBuffer<>(threadsCount, prefetchSize);
         } else {
             multithreaded = false;
             workerSpecificResults = null;
@@ -117,6 +141,15 @@ public class ProcessingCoordinator<I> {
                 // The processing will continue in a separate thread.
                 result.recordStatus(OperationResultStatus.SUCCESS, "Request submitted for processing");
                 return true;
+            } else if (itemBatchSize > 1) {
+                // In this case the coordinator task is the worker; processing the batch when it is full.
+                pendingBatch.add(request);
+                if (pendingBatch.size() < itemBatchSize && !isCorrelated(request)) {
+                    result.recordStatus(OperationResultStatus.SUCCESS, "Request added to the batch");
+                    return true;
+                } else {
+                    return processPendingBatch(result);
+                }
             } else {
                 // In this case the coordinator task is the worker.
                 return request.process(coordinatorTask, result);
@@ -129,6 +162,69 @@ public class ProcessingCoordinator<I> {
         }
     }
 
+    private boolean processPendingBatch(OperationResult result) {
+        List<ItemProcessingRequest<I>> batch = new ArrayList<>(pendingBatch);
+        pendingBatch.clear();
+        return processBatch(batch, coordinatorTask, result, request -> {});
+    }
+
+    /**
+     * Processes a batch of requests: calls the "before batch" hook, processes the requests one by one (each with full
+     * gatekeeper functionality, i.e. statistics, error handling, and so on), and calls the "after batch" hook.
+     *
+     * The processed requests are acknowledged only after the "after batch" hook succeeds, because the effects
+     * of their processing may not be fully applied until then. If the hook fails, they are acknowledged with release=false.
+     * Requests that cannot be processed (because the processing should stop) are acknowledged with release=false as well.
+     *
+     * @param afterRequest Called after each request is done with (processed or not).
+     * @return false if the processing should stop
+     */
+    private boolean processBatch(List<ItemProcessingRequest<I>> batch, RunningTask workerTask, OperationResult result,
+            Consumer<ItemProcessingRequest<I>> afterRequest) {
+        try {
+            activityRun.beforeItemBatchProcessing(batch, workerTask, result);
+        } catch (CommonException | RuntimeException e) {
+            LoggingUtils.logException(LOGGER, "Couldn't prepare processing of a batch of {} items in {}; "
+                    + "continuing without the preparation", e, batch.size(), activityRun);
+        }
+
+        boolean canContinue = true;
+        List<ItemProcessingRequest<I>> processed = new ArrayList<>(batch.size());
+        List<ItemProcessingGatekeeper.DeferredAcknowledgement<I>> acknowledgements = new ArrayList<>(batch.size());
+        for (ItemProcessingRequest<I> request : batch) {
+            try {
+                if (canContinue && canRun(workerTask)) {
+                    canContinue = request.process(workerTask, result, acknowledgements);
+                    processed.add(request);
+                } else {
+                    request.acknowledge(false, result);
+                }
+            } finally {
+                afterRequest.accept(request);
+            }
+        }
+
+        try {
+            activityRun.afterItemBatchProcessing(processed, workerTask, result);
+        } catch (CommonException | RuntimeException e) {
+            // The items were already reported as processed, so we must not continue (and complete the bucket).
+            activityRun.getErrorState().setStoppingException(e);
+            LoggingUtils.logUnexpectedException(LOGGER, "Couldn't finish processing of a batch of {} items in {}. "
+                    + "Stopping the whole processing.", e, processed.size(), activityRun);
+            acknowledgements.forEach(acknowledgement ->
+                    new ItemProcessingGatekeeper.DeferredAcknowledgement<>(acknowledgement.request(), false)
+                            .send(activityRun, result));
+            return false;
+        }
+        acknowledgements.forEach(acknowledgement -> acknowledgement.send(activityRun, result));
+        return canContinue;
+    }
+
+    private boolean isCorrelated(ItemProcessingRequest<I> request) {
+        return request instanceof CorrelatableProcessingRequest correlatable
+                && correlatable.getCorrelationValue() != null;
+    }
+
     /**
      * This method updates coordinator task statistics. It's here to ensure regular update
      * even in cases when item processing takes too long, so the update in {@link ItemProcessingGatekeeper}
@@ -184,7 +280,7 @@ public class ProcessingCoordinator<I> {
             subtask.setName("Worker thread " + (i+1) + " of " + threadsCount);
             subtask.setExecutionEnvironment(CloneUtil.clone(coordinatorTask.getExecutionEnvironment()));
             subtask.setExecutionMode(activityRun.getTaskExecutionMode());
-            subtask.startLightweightHandler();
+            subtask.startLightweightHandler(virtualThreads);
             LOGGER.trace("Worker subtask {} created", subtask);
         }
     }
@@ -202,10 +298,26 @@ public class ProcessingCoordinator<I> {
         LOGGER.trace("ProcessingCoordinator: finishing processing. Coordinator task canRun = {}", coordinatorTask.canRun());
 
         allItemsSubmitted.set(true);
+        processOrNackPendingBatch(result);
         waitForWorkersFinish(result);
         nackQueuedRequests(result);
     }
 
+    private void processOrNackPendingBatch(OperationResult result) {
+        if (pendingBatch.isEmpty()) {
+            return;
+        }
+        if (canRun() && activityRun.getErrorState().getStoppingException() == null) {
+            if (!processPendingBatch(result)) {
+                stopRequestedByAnyWorker.set(true);
+            }
+        } else {
+            LOGGER.trace("Acknowledging (release=false) {} requests pending in the batch", pendingBatch.size());
+            pendingBatch.forEach(request -> request.acknowledge(false, result));
+            pendingBatch.clear();
+        }
+    }
+
     private void waitForWorkersFinish(OperationResult result) {
         LOGGER.debug("Waiting for workers to finish");
         activityRun.getBeans().taskManager
@@ -246,7 +358,16 @@ public class ProcessingCoordinator<I> {
                 workerTask.refreshThreadLocalStatistics();
                 ItemProcessingRequest<I> request = requestsBuffer.poll(taskIdentifier);
 
-                if (request != null) {
+                if (request != null && itemBatchSize > 1) {
+                    List<ItemProcessingRequest<I>> batch = pollBatch(request, taskIdentifier);
+                    boolean canContinue = processBatch(batch, workerTask, workerSpecificResult, processed -> {
+                        requestsBuffer.markProcessed(processed, taskIdentifier);
+                        treatOperationResultAfterOperation();
+                    });
+                    if (!canContinue) {
+                        stopRequestedByAnyWorker.set(true);
+                    }
+                } else if (request != null) {
                     try {
                         if (!request.process(workerTask, workerSpecificResult)) {
                             stopRequestedByAnyWorker.set(true);
@@ -280,6 +401,27 @@ public class ProcessingCoordinator<I> {
             workerTask.refreshThreadLocalStatistics();
         }
 
+        /**
+         * Collects requests that are immediately available, up to the batch size. A correlated request closes the batch:
+         * otherwise, its correlation value could get unbound from this worker (after the request is processed)
+         * while another request with the same value is still waiting in the batch.
+         */
+        private List<ItemProcessingRequest<I>> pollBatch(ItemProcessingRequest<I> first, String taskIdentifier) {
+            assert requestsBuffer != null;
+            List<ItemProcessingRequest<I>> batch = new ArrayList<>(itemBatchSize);
+            ItemProcessingRequest<I> request = first;
+            for (;;) {
+                batch.add(request);
+                if (batch.size() >= itemBatchSize || isCorrelated(request)) {
+                    return batch;
+                }
+                request = requestsBuffer.poll(taskIdentifier);
+                if (request == null) {
+                    return batch;
+                }
+            }
+        }
+
         private void treatOperationResultAfterOperation() {
             workerSpecificResult.computeStatus(true);
             // We do NOT try to summarize/cleanup the whole results hierarchy.
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run.processing;
+
+import static org.apache.commons.lang3.ObjectUtils.defaultIfNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import com.evolveum.midpoint.repo.common.activity.definition.ActivityDistributionDefinition;
+import com.evolveum.midpoint.schema.reporting.ConnIdOperation;
+import com.evolveum.midpoint.schema.result.OperationResultStatus;
+import com.evolveum.midpoint.task.api.ConnIdOperationsListener;
+import com.evolveum.midpoint.task.api.RunningTask;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ResourceConcurrencyLimitDefinitionType;
+
+/**
+ * Limits the number of worker threads that execute connector operations on any given resource at once.
+ *
+ * The limit for each resource is adapted using the "additive increase, multiplicative decrease" (AIMD) rule,
+ * based on the latency and the status of the operations on that resource - i.e. the same data that are recorded
+ * in the provisioning statistics.
+ *
+ * Like in TCP congestion control, the limit is decreased at most once per "window": the operations that were already
+ * running when the limit was decreased were started under the old limit, so their overload signals do not cause
+ * further decreases. Otherwise, a single overload episode with many operations in flight would drop the limit
+ * to the minimum at once.
+ *
+ * The limiter is hooked into item processing as a {@link ConnIdOperationsListener} registered on the worker task:
+ * the listener is called in the worker thread right before and after each connector operation. Operations executed
+ * outside item processing (e.g. the search in the coordinator thread) are not limited.
+ *
+ * See {@link ResourceConcurrencyLimitDefinitionType}.
+ */
+public class ResourceConcurrencyLimiter {
+
+    private static final Trace LOGGER = TraceManager.getTrace(ResourceConcurrencyLimiter.class);
+
+    /** How long to wait before re-checking whether the task can still run. */
+    private static final long WAIT_SLICE = 1000L;
+
+    private static final double DEFAULT_DECREASE_FACTOR = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    @Nullable private final Long latencyThreshold;
+    private final double decreaseFactor;
+
+    /** Limits for individual resources, keyed by resource OID. */
+    @NotNull private final Map<String, ResourceLimit> limits = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    ResourceConcurrencyLimiter(
+            @NotNull ResourceConcurrencyLimitDefinitionType definition, int workerThreads) {
+        this.minLimit = Math.max(1, defaultIfNull(definition.getMinLimit(), 1));
+        this.maxLimit = Math.max(minLimit, defaultIfNull(definition.getMaxLimit(), workerThreads));
+        this.latencyThreshold = definition.getLatencyThreshold();
+        double factor = defaultIfNull(definition.getDecreaseFactor(), DEFAULT_DECREASE_FACTOR);
+        this.decreaseFactor = factor > 0 && factor < 1 ? factor : DEFAULT_DECREASE_FACTOR;
+    }
+
+    /** Returns the limiter, if it is configured and applicable (i.e. if there are worker threads). */
+    public static @Nullable ResourceConcurrencyLimiter create(@NotNull ActivityDistributionDefinition distributionDefinition) {
+        ResourceConcurrencyLimitDefinitionType definition = distributionDefinition.getResourceConcurrency();
+        int workerThreads = distributionDefinition.getWorkerThreads();
+        if (definition == null || workerThreads == 0) {
+            return null;
+        } else {
+            return new ResourceConcurrencyLimiter(definition, workerThreads);
+        }
+    }
+
+    /** Creates a listener that applies the limits on connector operations executed by given worker task. */
+    @NotNull LimitingListener createListener(@NotNull RunningTask workerTask) {
+        return new LimitingListener(workerTask);
+    }
+
+    /** Current limit for given resource. For diagnostics and tests. */
+    public @Nullable Integer getCurrentLimit(@NotNull String resourceOid) {
+        ResourceLimit limit = limits.get(resourceOid);
+        return limit != null ? limit.getEffectiveLimit() : null;
+    }
+
+    private @NotNull ResourceLimit getLimit(@NotNull String resourceOid) {
+        return limits.computeIfAbsent(resourceOid, ResourceLimit::new);
+    }
+
+    /** Adapts the limit for the operation's resource according to the operation's latency and status. */
+    @VisibleForTesting
+    void recordOperationEnd(@NotNull ConnIdOperation operation) {
+        getLimit(operation.getResourceOid()).recordOperationEnd(
+                operation.getStartTimestamp(),
+                operation.getEndTimestamp(),
+                operation.getNetRunningTime(),
+                operation.getStatus() == OperationResultStatus.FATAL_ERROR);
+    }
+
+    /** The limit and the current usage for a single resource. All access is guarded by {@link #lock}. */
+    private class ResourceLimit {
+
+        @NotNull private final String resourceOid;
+
+        /**
+         * Guards the state. We use explicit lock instead of `synchronized` because worker threads can be virtual ones;
+         * and a virtual thread waiting within a monitor pins its carrier thread (at least in Java 21).
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /** Signalled when a slot may have become available, i.e. when an operation ends or the limit changes. */
+        private final Condition slotAvailable = lock.newCondition();
+
+        /** The limit itself. It is a real number, to allow for smooth additive increase. */
+        private double limit = maxLimit;
+
+        /** Number of operations currently executing. */
+        private int inProgress;
+
+        /**
+         * When the limit was last decreased (end timestamp of the operation that caused it). Operations started
+         * not later than this do not cause further decreases.
+         */
+        private long lastDecreaseTimestamp;
+
+        private ResourceLimit(@NotNull String resourceOid) {
+            this.resourceOid = resourceOid;
+        }
+
+        private int getEffectiveLimit() {
+            lock.lock();
+            try {
+                return (int) limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Waits until the operation can start. Gives up (i.e. lets the operation start) if the task is stopped. */
+        private void acquire(@NotNull RunningTask workerTask) {
+            lock.lock();
+            try {
+                while (inProgress >= getEffectiveLimit() && workerTask.canRun()) {
+                    try {
+                        //noinspection ResultOfMethodCallIgnored
+                        slotAvailable.await(WAIT_SLICE, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                inProgress++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release() {
+            lock.lock();
+            try {
+                inProgress--;
+                slotAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void recordOperationEnd(long startTimestamp, long endTimestamp, long duration, boolean failed) {
+            lock.lock();
+            try {
+                int oldLimit = getEffectiveLimit();
+                boolean overloaded = failed || latencyThreshold != null && duration > latencyThreshold;
+                if (overloaded) {
+                    if (startTimestamp > lastDecreaseTimestamp) {
+                        limit = Math.max(minLimit, limit * decreaseFactor);
+                        lastDecreaseTimestamp = endTimestamp;
+                    } else {
+                        LOGGER.trace("Not decreasing concurrency limit for resource {}, as the operation started before "
+                                + "the last decrease", resourceOid);
+                    }
+                } else {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+                int newLimit = getEffectiveLimit();
+                if (newLimit != oldLimit) {
+                    LOGGER.debug("Concurrency limit for resource {} changed from {} to {} (last operation: {} ms{})",
+                            resourceOid, oldLimit, newLimit, duration, failed ? ", failed" : "");
+                    slotAvailable.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies the limits to operations of a single worker task. Used by a single thread.
+     *
+     * Operations are counted as "in progress" only when the control is within the connector; i.e. not when
+     * they are suspended (e.g. when an object found by the search is being handled).
+     */
+    class LimitingListener implements ConnIdOperationsListener {
+
+        @NotNull private final RunningTask workerTask;
+
+        /** Operations for which we hold a slot. Key: operation identifier, value: resource OID. */
+        @NotNull private final Map<String, String> holding = new HashMap<>();
+
+        private LimitingListener(@NotNull RunningTask workerTask) {
+            this.workerTask = workerTask;
+        }
+
+        @Override
+        public void onConnIdOperationStart(@NotNull ConnIdOperation operation) {
+            getLimit(operation.getResourceOid()).acquire(workerTask);
+            holding.put(operation.getIdentifier(), operation.getResourceOid());
+        }
+
+        @Override
+        public void onConnIdOperationEnd(@NotNull ConnIdOperation operation) {
+            if (holding.remove(operation.getIdentifier()) != null) {
+                getLimit(operation.getResourceOid()).release();
+            }
+            recordOperationEnd(operation);
+        }
+
+        @Override
+        public void onConnIdOperationSuspend(@NotNull ConnIdOperation operation) {
+            if (holding.remove(operation.getIdentifier()) != null) {
+                getLimit(operation.getResourceOid()).release();
+            }
+        }
+
+        @Override
+        public void onConnIdOperationResume(@NotNull ConnIdOperation operation) {
+            getLimit(operation.getResourceOid()).acquire(workerTask);
+            holding.put(operation.getIdentifier(), operation.getResourceOid());
+        }
+
+        /** Releases slots of operations that did not end regularly. Called when the item processing is over. */
+        void releaseAll() {
+            holding.values().forEach(resourceOid -> getLimit(resourceOid).release());
+            holding.clear();
+        }
+    }
+}
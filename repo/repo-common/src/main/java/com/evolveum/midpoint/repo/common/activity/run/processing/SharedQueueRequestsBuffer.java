@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2010-2021 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run.processing;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * Stores requests to be processed in a single queue shared by all worker threads. This is the default
+ * {@link RequestsBuffer} implementation. (See {@link WorkStealingRequestsBuffer} for the alternative.)
+ *
+ * Besides the queue itself, it ensures that requests with the same correlation value (see
+ * {@link CorrelatableProcessingRequest}), e.g. live sync changes related to the same resource object, are processed
+ * one after another, in the order in which they were submitted. This is done by _binding_ and _reservation_:
+ *
+ * - A correlation value is _bound_ to a worker task if a request with this value is being processed by that task,
+ * or is waiting to be processed by it. See {@link #bind(ItemProcessingRequest, String)} and
+ * {@link #unbind(ItemProcessingRequest, String)}.
+ * - If a worker takes a request from the queue whose correlation value is bound to another worker, the request is
+ * _reserved_ for that other worker, i.e. put into its queue of reserved requests (ordered by the natural order
+ * of the requests, e.g. by the sequence number of the live sync change).
+ * Reserved requests are taken before the ones in the shared queue. See {@link #reserve(ItemProcessingRequest, String)}.
+ *
+ * Requests without the correlation value can be processed by any worker.
+ */
+@SuppressWarnings("JavadocReference")
+class SharedQueueRequestsBuffer<I> implements RequestsBuffer<I> {
+
+    private static final Trace LOGGER = TraceManager.getTrace(SharedQueueRequestsBuffer.class);
+
+    private static final long REQUEST_QUEUE_OFFER_TIMEOUT = 1000L;
+
+    /**
+     * Global queue of waiting requests.
+     */
+    private final BlockingQueue<ItemProcessingRequest<I>> globalQueue;
+
+    /**
+     * Current bindings of resource objects (their identifiers) to subtasks.
+     *
+     * Entry key: primary resource object identifier (~ account ID)
+     * Entry value: task identifier
+     */
+    private final Map<Object, String> bindingsMap = new HashMap<>();
+
+    /**
+     * Change requests reserved to be processed by each subtask.
+     *
+     * Entry key: task identifier.
+     * Entry value: queue of requests. The requests are sorted by change identifier, to ensure processing in the correct order.
+     */
+    private final Map<String, PriorityQueue<ItemProcessingRequest<I>>> reservedRequestsQueueMap = new HashMap<>();
+
+    /**
+     * Guards the bindings and reservations. We use explicit lock instead of `synchronized` because worker threads
+     * can be virtual ones; and a virtual thread waiting to enter a monitor pins its carrier thread (at least in Java 21).
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param prefetchSize Number of requests that should fit into the queue in addition to one request per worker.
+     */
+    SharedQueueRequestsBuffer(int threadsCount, int prefetchSize) {
+        int globalQueueSize = Math.max(
+                threadsCount*2, // actually, size of threadsCount should be sufficient but it doesn't hurt if queue is larger
+                threadsCount + prefetchSize);
+        globalQueue = new ArrayBlockingQueue<>(globalQueueSize);
+    }
+
+    /**
+     * Offers a request for processing.
+     *
+     * This method is intentionally NOT synchronized.
+     *
+     * @throws InterruptedException If present, the request was not put into the queue.
+     */
+    @Override
+    public boolean offer(ItemProcessingRequest<I> request) throws InterruptedException {
+        return globalQueue.offer(request, REQUEST_QUEUE_OFFER_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tries to obtain a request to be processed by the specified subtask.
+     * Does NOT wait, it just checks reserved requests and global queues.
+     *
+     * Post-conditions:
+     * - Returns null only if there are no reserved nor globally available requests.
+     * - If the request is not null, the primary identifier of the request is (successfully) bound to the specified task.
+     */
+    @Override
+    public ItemProcessingRequest<I> poll(String taskIdentifier) {
+        lock.lock();
+        try {
+            return pollLocked(taskIdentifier);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ItemProcessingRequest<I> pollLocked(String taskIdentifier) {
+
+        ItemProcessingRequest<I> reserved = getNextReservedRequest(taskIdentifier);
+        if (reserved != null) {
+            LOGGER.trace("Got reserved (pre-assigned) request: {}", reserved);
+            if (bind(reserved, taskIdentifier)) {
+                return reserved;
+            } else {
+                throw new IllegalStateException("A reserved request couldn't be bound to the current task. Request = " +
+                        reserved + ", task = " + taskIdentifier);
+            }
+        }
+
+        for (;;) {
+            ItemProcessingRequest<I> request = globalQueue.poll();
+            LOGGER.trace("Got request from global queue: {}", request);
+
+            if (request == null) {
+                // Nothing in the queue for now. OK, let's try next time.
+                return null;
+            }
+
+            if (bind(request, taskIdentifier)) {
+                return request;
+            } else {
+                // The request couldn't be bound to the specified task. We have to go and try another one.
+            }
+        }
+    }
+
+    /**
+     * Binds a request identifier to specified subtask, if possible i.e. if the request identifier is not bound to another task.
+     * If the request identifier is bound to another task, the request is assigned to it.
+     *
+     * @return true if the request was successfully bound to the current task;
+     *         false if it was reassigned (so this task has to fetch another request).
+     */
+    private boolean bind(ItemProcessingRequest<I> request, String taskIdentifier) {
+        if (!(request instanceof CorrelatableProcessingRequest)) {
+            return true;
+        }
+
+        Object correlationValue = ((CorrelatableProcessingRequest) request).getCorrelationValue();
+        if (correlationValue == null) {
+            LOGGER.warn("Null correlationValue in request {}", request);
+            return true;
+        }
+
+        String boundTo = bindingsMap.get(correlationValue);
+        if (boundTo == null) {
+            LOGGER.trace("Binding {} to {}", correlationValue, taskIdentifier);
+            bindingsMap.put(correlationValue, taskIdentifier);
+            return true;
+        }
+
+        if (boundTo.equals(taskIdentifier)) {
+            LOGGER.trace("Processing {} as it is already bound to current task: {}", correlationValue, taskIdentifier);
+            return true;
+        }
+
+        LOGGER.trace("Request {} (ID {}) is already bound to another task {}. Moving it to the reserved"
+                + " requests queue for that task. Current task: {}", request, correlationValue, boundTo, taskIdentifier);
+        reserve(request, boundTo);
+        return false;
+    }
+
+    /**
+     * Gets a change reserved for given task (if there's any).
+     * REMOVES the reservation.
+     *
+     * @return Change reserved for given task; or null if there's nothing there.
+     */
+    private ItemProcessingRequest<I> getNextReservedRequest(String taskIdentifier) {
+        Queue<ItemProcessingRequest<I>> reservedRequests = reservedRequestsQueueMap.get(taskIdentifier);
+        if (reservedRequests != null) {
+            return reservedRequests.poll();
+        } else {
+            return null;
+        }
+    }
+
+    private void reserve(ItemProcessingRequest<I> request, String owningTaskIdentifier) {
+        reservedRequestsQueueMap
+                .computeIfAbsent(owningTaskIdentifier, key -> new PriorityQueue<>())
+                .offer(request);
+    }
+
+    /**
+     * Marks specified request as processed: Unbinds its primary identifier from the calling subtask.
+     */
+    @Override
+    public void markProcessed(ItemProcessingRequest<I> request, String taskIdentifier) {
+        lock.lock();
+        try {
+            unbind(request, taskIdentifier);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unbind(ItemProcessingRequest<I> request, String taskIdentifier) {
+        if (!(request instanceof CorrelatableProcessingRequest)) {
+            return;
+        }
+
+        Object correlationValue = ((CorrelatableProcessingRequest) request).getCorrelationValue();
+        LOGGER.trace("Trying to unbind {} from {}", correlationValue, taskIdentifier);
+        if (correlationValue == null) {
+            LOGGER.trace("correlationValue is null (warning has been already issued): {}", request);
+            return;
+        }
+
+        if (isReserved(correlationValue, taskIdentifier)) {
+            LOGGER.trace("...but it is reserved to its owner (some relevant changes are waiting), so not unbinding now");
+            return;
+        }
+
+        String previousOwner = bindingsMap.remove(correlationValue);
+        LOGGER.trace("Unbound (previous owner was: {})", previousOwner);
+        assert taskIdentifier.equals(previousOwner);
+    }
+
+    private boolean isReserved(Object primaryIdentifier, String taskIdentifier) {
+        Queue<ItemProcessingRequest<I>> reservedRequests = reservedRequestsQueueMap.get(taskIdentifier);
+        if (reservedRequests != null) {
+            for (ItemProcessingRequest<I> request : reservedRequests) {
+                if (request instanceof CorrelatableProcessingRequest &&
+                        primaryIdentifier.equals(((CorrelatableProcessingRequest) request).getCorrelationValue())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getReservedRequestsCount(String taskIdentifier) {
+        lock.lock();
+        try {
+            Queue<ItemProcessingRequest<I>> reservedRequests = reservedRequestsQueueMap.get(taskIdentifier);
+            return reservedRequests != null ? reservedRequests.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // should be called when there's no concurrency
+    @Override
+    public int nackAllRequests(OperationResult result) {
+        AtomicInteger nackCounter = new AtomicInteger();
+
+        nackAll(globalQueue, nackCounter, result);
+        reservedRequestsQueueMap.values().forEach(queue -> nackAll(queue, nackCounter, result));
+
+        return nackCounter.get();
+    }
+
+    private void nackAll(Queue<ItemProcessingRequest<I>> queue, AtomicInteger counter, OperationResult result) {
+        for (;;) {
+            ItemProcessingRequest<I> request = queue.poll();
+            if (request == null) {
+                break;
+            } else {
+                request.acknowledge(false, result);
+                counter.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run.processing;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
+
+/**
+ * Stores requests to be processed in per-worker queues. Idle workers steal requests from the queues of other workers.
+ *
+ * The ordering guarantee for {@link CorrelatableProcessingRequest} (e.g. live sync changes related to the same resource
+ * object) is ensured by _affinity_: all requests with the same correlation value go to the same queue, and they are
+ * never stolen. So they are processed by a single worker, in the order in which they were submitted.
+ * Requests without correlation value are put to the least occupied queue, and can be stolen by any worker.
+ *
+ * Compared to {@link SharedQueueRequestsBuffer}, there is no global lock nor a single queue all the workers compete for.
+ */
+class WorkStealingRequestsBuffer<I> implements RequestsBuffer<I> {
+
+    private static final Trace LOGGER = TraceManager.getTrace(WorkStealingRequestsBuffer.class);
+
+    private static final long REQUEST_QUEUE_OFFER_TIMEOUT = 1000L;
+
+    /**
+     * Default size of a single worker queue. (The total size is the same as the default size of the shared queue.)
+     * It is increased if prefetching is configured.
+     */
+    private static final int QUEUE_CAPACITY_PER_WORKER = 2;
+
+    /** Queues for individual workers. Indexed by worker index. */
+    private final List<BlockingDeque<ItemProcessingRequest<I>>> queues;
+
+    /** Worker indices, assigned as the workers ask for their first request. */
+    private final Map<String, Integer> workerIndices = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextWorkerIndex = new AtomicInteger();
+
+    /** Where to start looking for a queue for uncorrelated request. Accessed only from the coordinator thread. */
+    private int nextQueueForUncorrelated;
+
+    /**
+     * @param prefetchSize Number of requests that should fit into the buffer in addition to one request per worker.
+     * They are spread among the worker queues.
+     */
+    WorkStealingRequestsBuffer(int threadsCount, int prefetchSize) {
+        int queueCapacity = Math.max(QUEUE_CAPACITY_PER_WORKER, 1 + (prefetchSize + threadsCount - 1) / threadsCount);
+        queues = new ArrayList<>(threadsCount);
+        for (int i = 0; i < threadsCount; i++) {
+            queues.add(new LinkedBlockingDeque<>(queueCapacity));
+        }
+    }
+
+    @Override
+    public boolean offer(ItemProcessingRequest<I> request) throws InterruptedException {
+        Object correlationValue = getCorrelationValue(request);
+        if (correlationValue != null) {
+            int index = Math.floorMod(correlationValue.hashCode(), queues.size());
+            LOGGER.trace("Offering request {} (ID {}) to queue #{}", request, correlationValue, index);
+            return queues.get(index)
+                    .offerLast(request, REQUEST_QUEUE_OFFER_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+
+        // Only the coordinator thread adds the requests, so the free capacity found here cannot disappear.
+        int bestIndex = nextQueueForUncorrelated;
+        int bestCapacity = -1;
+        for (int i = 0; i < queues.size(); i++) {
+            int index = (nextQueueForUncorrelated + i) % queues.size();
+            int capacity = queues.get(index).remainingCapacity();
+            if (capacity > bestCapacity) {
+                bestIndex = index;
+                bestCapacity = capacity;
+            }
+        }
+        nextQueueForUncorrelated = (bestIndex + 1) % queues.size();
+        LOGGER.trace("Offering request {} to queue #{} (remaining capacity: {})", request, bestIndex, bestCapacity);
+        return queues.get(bestIndex)
+                .offerLast(request, REQUEST_QUEUE_OFFER_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public ItemProcessingRequest<I> poll(String taskIdentifier) {
+        int ownIndex = getWorkerIndex(taskIdentifier);
+        ItemProcessingRequest<I> own = queues.get(ownIndex).pollFirst();
+        if (own != null) {
+            LOGGER.trace("Got request from own queue #{}: {}", ownIndex, own);
+            return own;
+        }
+        for (int i = 1; i < queues.size(); i++) {
+            int victimIndex = (ownIndex + i) % queues.size();
+            ItemProcessingRequest<I> stolen = steal(queues.get(victimIndex));
+            if (stolen != null) {
+                LOGGER.trace("Stole request from queue #{}: {}", victimIndex, stolen);
+                return stolen;
+            }
+        }
+        return null;
+    }
+
+    /** Takes the newest uncorrelated request from the queue (if there's any). */
+    private ItemProcessingRequest<I> steal(BlockingDeque<ItemProcessingRequest<I>> queue) {
+        Iterator<ItemProcessingRequest<I>> iterator = queue.descendingIterator();
+        while (iterator.hasNext()) {
+            ItemProcessingRequest<I> candidate = iterator.next();
+            if (getCorrelationValue(candidate) == null && queue.removeLastOccurrence(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private int getWorkerIndex(String taskIdentifier) {
+        return workerIndices.computeIfAbsent(
+                taskIdentifier,
+                k -> nextWorkerIndex.getAndIncrement() % queues.size());
+    }
+
+    private Object getCorrelationValue(ItemProcessingRequest<I> request) {
+        return request instanceof CorrelatableProcessingRequest correlatable ?
+                correlatable.getCorrelationValue() : null;
+    }
+
+    @Override
+    public void markProcessed(ItemProcessingRequest<I> request, String taskIdentifier) {
+        // Nothing to do here. Correlated requests are bound to their queues statically.
+    }
+
+    @Override
+    public int getReservedRequestsCount(String taskIdentifier) {
+        Integer index = workerIndices.get(taskIdentifier);
+        return index != null ? queues.get(index).size() : 0;
+    }
+
+    @Override
+    public int nackAllRequests(OperationResult result) {
+        int counter = 0;
+        for (BlockingDeque<ItemProcessingRequest<I>> queue : queues) {
+            for (;;) {
+                ItemProcessingRequest<I> request = queue.pollFirst();
+                if (request == null) {
+                    break;
+                } else {
+                    request.acknowledge(false, result);
+                    counter++;
+                }
+            }
+        }
+        return counter;
+    }
+}
@@ -323,6 +323,11 @@ public class ActivityItemProcessingStatistics extends Initializable {
         }
     }
 
+    private long getStatisticsUpdateInterval() {
+        Long configuredValue = activityState.getActivity().getReportingDefinition().getStatisticsStoreInterval();
+        return configuredValue != null ? configuredValue : STATISTICS_UPDATE_INTERVAL;
+    }
+
     /**
      * Very ugly hack. We create our own operation result (!!).
      */
@@ -330,7 +335,7 @@ public class ActivityItemProcessingStatistics extends Initializable {
     public void updateStatisticsForSimpleClients(boolean forced) {
         try {
             activityState.updateProgressAndStatisticsNoCommit();
-            if (forced || System.currentTimeMillis() > lastStatisticsUpdatedForSimpleClients + STATISTICS_UPDATE_INTERVAL) {
+            if (forced || System.currentTimeMillis() > lastStatisticsUpdatedForSimpleClients + getStatisticsUpdateInterval()) {
                 lastStatisticsUpdatedForSimpleClients = System.currentTimeMillis();
                 activityState.flushPendingTaskModificationsChecked(new OperationResult(OP_UPDATE_STATISTICS_FOR_SIMPLE_CLIENT));
             }
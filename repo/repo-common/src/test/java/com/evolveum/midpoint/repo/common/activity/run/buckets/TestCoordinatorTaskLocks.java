@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+package com.evolveum.midpoint.repo.common.activity.run.buckets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.repo.common.AbstractRepoCommonTest;
+import com.evolveum.midpoint.repo.common.activity.definition.ActivityDistributionDefinition;
+import com.evolveum.midpoint.repo.common.activity.run.buckets.GetBucketOperationOptions.GetBucketOperationOptionsBuilder;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.schema.util.task.ActivityPath;
+import com.evolveum.midpoint.schema.util.task.BucketingUtil;
+import com.evolveum.midpoint.task.api.Task;
+import com.evolveum.midpoint.test.TestObject;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.TaskType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.WorkBucketStateType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.WorkBucketType;
+
+/**
+ * Checks that bucket operations of workers on a single node are serialized by {@link CoordinatorTaskLocks}.
+ *
+ * The lock for the coordinator is held by the test thread, while two workers ask for their buckets concurrently.
+ */
+@ContextConfiguration(locations = { "classpath:ctx-repo-common-test-main.xml" })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class TestCoordinatorTaskLocks extends AbstractRepoCommonTest {
+
+    private static final File TEST_DIR = new File("src/test/resources/tasks/coordinator-task-locks");
+
+    private static final TestObject<TaskType> TASK_COORDINATOR = TestObject.file(TEST_DIR, "task-c.xml", "6a1f4c2e-8b3d-4e57-9f06-2d7c5b8a1e93");
+    private static final TestObject<TaskType> TASK_WORKER_1 = TestObject.file(TEST_DIR, "task-w1.xml", "b7d3e9a1-4c6f-4b28-8e15-7a9c2f0d6b34");
+    private static final TestObject<TaskType> TASK_WORKER_2 = TestObject.file(TEST_DIR, "task-w2.xml", "2e8c5a7f-1d9b-4f63-a4e0-9b6d3c8f2a51");
+
+    /** How long we wait to see that the workers are (not) blocked by the lock. */
+    private static final long BLOCKING_CHECK_INTERVAL = 1000;
+
+    /**
+     * Two workers request buckets while the node-local lock is held. Neither of them may touch the coordinator
+     * until the lock is released. Then each of them gets its own bucket.
+     */
+    @Test
+    public void test100ConcurrentGetBucketIsSerialized() throws Exception {
+        given();
+        OperationResult result = createOperationResult();
+        taskAdd(TASK_COORDINATOR, result); // suspended
+        taskAdd(TASK_WORKER_1, result); // suspended
+        taskAdd(TASK_WORKER_2, result); // suspended
+
+        Task coordinator = taskManager.getTaskPlain(TASK_COORDINATOR.oid, result);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Lock lock = CoordinatorTaskLocks.get(TASK_COORDINATOR.oid);
+            lock.lock();
+            Future<WorkBucketType> bucket1Future;
+            Future<WorkBucketType> bucket2Future;
+            try {
+                when("workers ask for buckets while the lock is held");
+
+                bucket1Future = executor.submit(() -> getWorkBucket(coordinator, TASK_WORKER_1.oid));
+                bucket2Future = executor.submit(() -> getWorkBucket(coordinator, TASK_WORKER_2.oid));
+                Thread.sleep(BLOCKING_CHECK_INTERVAL);
+
+                then("workers are waiting, and the coordinator is untouched");
+
+                assertThat(bucket1Future.isDone()).as("worker 1 finished").isFalse();
+                assertThat(bucket2Future.isDone()).as("worker 2 finished").isFalse();
+                assertThat(getBuckets(coordinator.getOid(), result)).as("coordinator buckets").isEmpty();
+            } finally {
+                lock.unlock();
+            }
+
+            when("the lock is released");
+
+            WorkBucketType bucket1 = bucket1Future.get(10, TimeUnit.SECONDS);
+            WorkBucketType bucket2 = bucket2Future.get(10, TimeUnit.SECONDS);
+
+            then("each worker gets its own bucket");
+
+            displayValue("bucket for worker 1", bucket1);
+            displayValue("bucket for worker 2", bucket2);
+            assertThat(List.of(bucket1.getSequentialNumber(), bucket2.getSequentialNumber()))
+                    .as("sequential numbers of the buckets obtained")
+                    .containsExactlyInAnyOrder(1, 2);
+
+            List<WorkBucketType> buckets = getBuckets(coordinator.getOid(), result);
+            assertThat(buckets).as("coordinator buckets").hasSize(2);
+            for (WorkBucketType bucket : buckets) {
+                assertThat(bucket.getState()).as("bucket state").isEqualTo(WorkBucketStateType.DELEGATED);
+            }
+            assertThat(BucketingUtil.findBucketByNumberRequired(buckets, bucket1.getSequentialNumber()))
+                    .as("bucket of worker 1")
+                    .extracting(BucketingUtil::getWorkerOid)
+                    .isEqualTo(TASK_WORKER_1.oid);
+            assertThat(BucketingUtil.findBucketByNumberRequired(buckets, bucket2.getSequentialNumber()))
+                    .as("bucket of worker 2")
+                    .extracting(BucketingUtil::getWorkerOid)
+                    .isEqualTo(TASK_WORKER_2.oid);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * With the serialization disabled, the workers go directly to the repository, ignoring the lock.
+     */
+    @Test
+    public void test110SerializationCanBeDisabled() throws Exception {
+        given();
+        OperationResult result = createOperationResult();
+        Task coordinator = taskManager.getTaskPlain(TASK_COORDINATOR.oid, result);
+
+        BucketingConfigurationOverrides.setNodeLocalSerializationDisabled(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Lock lock = CoordinatorTaskLocks.get(TASK_COORDINATOR.oid);
+        lock.lock();
+        try {
+            when("workers ask for buckets while the lock is held");
+
+            Future<WorkBucketType> bucket1Future = executor.submit(() -> getWorkBucket(coordinator, TASK_WORKER_1.oid));
+            Future<WorkBucketType> bucket2Future = executor.submit(() -> getWorkBucket(coordinator, TASK_WORKER_2.oid));
+            WorkBucketType bucket1 = bucket1Future.get(10, TimeUnit.SECONDS);
+            WorkBucketType bucket2 = bucket2Future.get(10, TimeUnit.SECONDS);
+
+            then("workers are not blocked, and they get the buckets they already have");
+
+            assertThat(List.of(bucket1.getSequentialNumber(), bucket2.getSequentialNumber()))
+                    .as("sequential numbers of the buckets obtained")
+                    .containsExactlyInAnyOrder(1, 2);
+            List<WorkBucketType> buckets = getBuckets(coordinator.getOid(), result);
+            assertThat(buckets).as("coordinator buckets").hasSize(2);
+            assertThat(BucketingUtil.findBucketByNumberRequired(buckets, bucket1.getSequentialNumber()))
+                    .as("bucket of worker 1")
+                    .extracting(BucketingUtil::getWorkerOid)
+                    .isEqualTo(TASK_WORKER_1.oid);
+        } finally {
+            lock.unlock();
+            executor.shutdownNow();
+            BucketingConfigurationOverrides.setNodeLocalSerializationDisabled(false);
+        }
+    }
+
+    private WorkBucketType getWorkBucket(Task coordinator, String workerOid) throws Exception {
+        return bucketingManager.getWorkBucket(
+                coordinator.getOid(), workerOid, ActivityPath.empty(),
+                GetBucketOperationOptionsBuilder.anOptions()
+                        .withDistributionDefinition(
+                                ActivityDistributionDefinition.create(coordinator.getRootActivityDefinitionOrClone()))
+                        .build(),
+                null, new OperationResult(TestCoordinatorTaskLocks.class.getName() + ".getWorkBucket"));
+    }
+
+    private List<WorkBucketType> getBuckets(String coordinatorOid, OperationResult result) throws Exception {
+        Task coordinator = taskManager.getTaskPlain(coordinatorOid, result);
+        return BucketingUtil.getBuckets(coordinator.getWorkState(), ActivityPath.empty());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+
+package com.evolveum.midpoint.repo.common.activity.run.processing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.schema.reporting.ConnIdOperation;
+import com.evolveum.midpoint.schema.result.OperationResultStatus;
+import com.evolveum.midpoint.schema.statistics.ProvisioningOperation;
+import com.evolveum.midpoint.tools.testng.AbstractUnitTest;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ObjectReferenceType;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.ResourceConcurrencyLimitDefinitionType;
+
+/**
+ * Tests the AIMD rule of {@link ResourceConcurrencyLimiter}: additive increase, multiplicative decrease (at most once
+ * per window), and the bounds of the limit.
+ */
+public class ResourceConcurrencyLimiterTest extends AbstractUnitTest {
+
+    private static final String RESOURCE_OID = "c3b5f1a2-6d4e-4f8a-9b7c-1e2d3f4a5b6c";
+
+    private int operationCounter;
+
+    @Test
+    public void initialLimitIsMaximal() {
+        var limiter = createLimiter(new ResourceConcurrencyLimitDefinitionType().maxLimit(8), 16);
+
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit before any operation").isNull();
+
+        limiter.recordOperationEnd(operation(1000, 1010, OperationResultStatus.SUCCESS));
+
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after a success").isEqualTo(8);
+    }
+
+    @Test
+    public void maxLimitDefaultsToWorkerThreads() {
+        var limiter = createLimiter(new ResourceConcurrencyLimitDefinitionType(), 6);
+
+        limiter.recordOperationEnd(operation(1000, 1010, OperationResultStatus.SUCCESS));
+
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit").isEqualTo(6);
+    }
+
+    @Test
+    public void failureDecreasesLimit() {
+        var limiter = createLimiter(new ResourceConcurrencyLimitDefinitionType().maxLimit(8), 8);
+
+        limiter.recordOperationEnd(operation(1000, 1010, OperationResultStatus.FATAL_ERROR));
+
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after a failure").isEqualTo(4);
+    }
+
+    @Test
+    public void slowOperationDecreasesLimit() {
+        var limiter = createLimiter(
+                new ResourceConcurrencyLimitDefinitionType().maxLimit(8).latencyThreshold(1000L).decreaseFactor(0.75), 8);
+
+        var fast = ConnIdOperation.ConnIdOperationBuilder.aConnIdOperation()
+                .withIdentifier("fast")
+                .withOperation(ProvisioningOperation.ICF_GET)
+                .withResourceRef(new ObjectReferenceType().oid(RESOURCE_OID))
+                .withStatus(OperationResultStatus.SUCCESS)
+                .build();
+        fast.onEnd();
+        limiter.recordOperationEnd(fast);
+
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after a fast operation").isEqualTo(8);
+
+        var slow = ConnIdOperation.ConnIdOperationBuilder.aConnIdOperation()
+                .withIdentifier("slow")
+                .withOperation(ProvisioningOperation.ICF_GET)
+                .withResourceRef(new ObjectReferenceType().oid(RESOURCE_OID))
+                .withStartTimestamp(System.currentTimeMillis() - 5000)
+                .withStatus(OperationResultStatus.SUCCESS)
+                .build();
+        slow.onEnd();
+        limiter.recordOperationEnd(slow);
+
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after a slow operation").isEqualTo(6);
+    }
+
+    @Test
+    public void limitIsDecreasedOncePerWindow() {
+        var limiter = createLimiter(new ResourceConcurrencyLimitDefinitionType().maxLimit(16), 16);
+
+        when("operations running at the same time fail");
+        limiter.recordOperationEnd(operation(1000, 2000, OperationResultStatus.FATAL_ERROR));
+        limiter.recordOperationEnd(operation(1100, 2010, OperationResultStatus.FATAL_ERROR));
+        limiter.recordOperationEnd(operation(2000, 2020, OperationResultStatus.FATAL_ERROR));
+
+        then("the limit is decreased only once");
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after the first window").isEqualTo(8);
+
+        when("an operation started after the decrease fails");
+        limiter.recordOperationEnd(operation(2001, 3000, OperationResultStatus.FATAL_ERROR));
+
+        then("the limit is decreased again");
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after the second window").isEqualTo(4);
+    }
+
+    @Test
+    public void limitDoesNotDropBelowMinimum() {
+        var limiter = createLimiter(new ResourceConcurrencyLimitDefinitionType().minLimit(3).maxLimit(16), 16);
+
+        for (int i = 0; i < 10; i++) {
+            long start = 1000L * (i + 1);
+            limiter.recordOperationEnd(operation(start, start + 500, OperationResultStatus.FATAL_ERROR));
+        }
+
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after many failures").isEqualTo(3);
+    }
+
+    @Test
+    public void successesIncreaseLimitUpToMaximum() {
+        var limiter = createLimiter(new ResourceConcurrencyLimitDefinitionType().maxLimit(4), 4);
+
+        given("limit decreased to 2");
+        limiter.recordOperationEnd(operation(1000, 1010, OperationResultStatus.FATAL_ERROR));
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after a failure").isEqualTo(2);
+
+        when("two operations succeed");
+        limiter.recordOperationEnd(operation(2000, 2010, OperationResultStatus.SUCCESS));
+        limiter.recordOperationEnd(operation(2100, 2110, OperationResultStatus.SUCCESS));
+
+        then("the limit is increased by 1/limit per operation, so it is still below 3 (2 + 1/2 + 1/2.5)");
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after two successes").isEqualTo(2);
+
+        when("the third operation succeeds");
+        limiter.recordOperationEnd(operation(2200, 2210, OperationResultStatus.SUCCESS));
+
+        then("the limit reaches the next integer value");
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after three successes").isEqualTo(3);
+
+        when("many more operations succeed");
+        for (int i = 0; i < 100; i++) {
+            long start = 3000L + i * 10;
+            limiter.recordOperationEnd(operation(start, start + 5, OperationResultStatus.SUCCESS));
+        }
+
+        then("the limit stays at the maximum");
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after many successes").isEqualTo(4);
+    }
+
+    @Test
+    public void invalidDecreaseFactorIsReplacedByDefault() {
+        var limiter = createLimiter(new ResourceConcurrencyLimitDefinitionType().maxLimit(8).decreaseFactor(1.5), 8);
+
+        limiter.recordOperationEnd(operation(1000, 1010, OperationResultStatus.FATAL_ERROR));
+
+        assertThat(limiter.getCurrentLimit(RESOURCE_OID)).as("limit after a failure").isEqualTo(4);
+    }
+
+    private ResourceConcurrencyLimiter createLimiter(ResourceConcurrencyLimitDefinitionType definition, int workerThreads) {
+        return new ResourceConcurrencyLimiter(definition, workerThreads);
+    }
+
+    /** Operation with the net running time of zero, i.e. never "too slow". */
+    private ConnIdOperation operation(long startTimestamp, long endTimestamp, OperationResultStatus status) {
+        return ConnIdOperation.ConnIdOperationBuilder.aConnIdOperation()
+                .withIdentifier("op-" + (++operationCounter))
+                .withOperation(ProvisioningOperation.ICF_UPDATE)
+                .withResourceRef(new ObjectReferenceType().oid(RESOURCE_OID))
+                .withStartTimestamp(startTimestamp)
+                .withEndTimestamp(endTimestamp)
+                .withStatus(status)
+                .build();
+    }
+}
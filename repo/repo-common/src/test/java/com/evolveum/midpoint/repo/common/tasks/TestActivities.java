@@ -32,6 +32,7 @@ import com.evolveum.midpoint.schema.util.task.*;
 import com.evolveum.midpoint.schema.util.task.work.WorkDefinitionUtil;
 import com.evolveum.midpoint.schema.util.task.work.WorkDefinitionBean;
 import com.evolveum.midpoint.task.api.TaskDebugUtil;
+import com.evolveum.midpoint.test.IntegrationTestTools;
 import com.evolveum.midpoint.test.TestObject;
 import com.evolveum.midpoint.test.asserter.ActivityProgressInformationAsserter;
 import com.evolveum.midpoint.util.Holder;
@@ -70,7 +71,8 @@ import com.evolveum.midpoint.util.DebugUtil;
  * 6. running tree of bucketed activities ({@link #test180RunBucketedTree()}),
  * 7. delegation of processing to separate task(s) - for simple activity ({@link #test200Subtask()}) or children
  * of a semi-composite one ({@link #test220MockCompositeWithSubtasks()}),
- * 8. distribution of a processing to worker tasks ({@link #test300WorkersSimple()}, {@link #test310WorkersScavengerFrozen()}).
+ * 8. distribution of a processing to worker tasks ({@link #test300WorkersSimple()}, {@link #test305WorkersScaling()},
+ * {@link #test306WorkersScalingByBacklog()}, {@link #test310WorkersScavengerFrozen()}).
  *
  * Specifically, the following is checked as well:
  *
@@ -95,8 +97,16 @@ public class TestActivities extends AbstractRepoCommonTest {
     private static final TestObject<TaskType> TASK_135_NO_OP = TestObject.file(TEST_DIR, "task-135-no-op.xml", "d1c750b0-eddc-445f-b907-d19c8ed754b5");
     private static final TestObject<TaskType> TASK_140_CUSTOM_COMPOSITE = TestObject.file(TEST_DIR, "task-140-custom-composite.xml", "65866e01-73cd-4249-9b7b-03ebc4413bd0");
     private static final TestObject<TaskType> TASK_150_MOCK_ITERATIVE = TestObject.file(TEST_DIR, "task-150-mock-iterative.xml", "c21785e9-1c67-492f-bc79-0c51f74561a1");
+    private static final TestObject<TaskType> TASK_151_MOCK_ITERATIVE_RARE_STATISTICS = TestObject.file(TEST_DIR, "task-151-mock-iterative-rare-statistics.xml", "e2d5a8c1-7f4b-4c39-8a16-9b0e3d5f2c74");
+    private static final TestObject<TaskType> TASK_152_MOCK_ITERATIVE_WORK_STEALING = TestObject.file(TEST_DIR, "task-152-mock-iterative-work-stealing.xml", "7f3e5c12-9a0b-4d6e-8c21-5b4a3f2e1d07");
+    private static final TestObject<TaskType> TASK_153_MOCK_ITERATIVE_VIRTUAL_THREADS = TestObject.file(TEST_DIR, "task-153-mock-iterative-virtual-threads.xml", "0c9d4e8a-6b1f-4a73-b2e5-8d3c7f1a9e46");
+    private static final TestObject<TaskType> TASK_154_MOCK_ITERATIVE_ITEM_BATCHES = TestObject.file(TEST_DIR, "task-154-mock-iterative-item-batches.xml", "3a7b9c1d-5e2f-4806-9d4b-6c8e0f2a1b35");
     private static final TestObject<TaskType> TASK_155_MOCK_ITERATIVE_BUCKETED = TestObject.file(TEST_DIR, "task-155-mock-iterative-bucketed.xml", "02a94071-2eff-4ca0-aa63-3fdf9d540064");
+    private static final TestObject<TaskType> TASK_156_MOCK_ITERATIVE_WORK_STEALING_SKEWED = TestObject.file(TEST_DIR, "task-156-mock-iterative-work-stealing-skewed.xml", "5e8c1f3a-2d7b-4a96-8e04-c3b9a1d6f2e7");
     private static final TestObject<TaskType> TASK_160_MOCK_SEARCH_ITERATIVE = TestObject.file(TEST_DIR, "task-160-mock-search-iterative.xml", "9d8384b3-a007-44e2-a9f7-084a64bdc285");
+    private static final TestObject<TaskType> TASK_165_MOCK_SEARCH_ITERATIVE_PREFETCH = TestObject.file(TEST_DIR, "task-165-mock-search-iterative-prefetch.xml", "b4e1f6a2-8c3d-4f57-a0e9-1d2c3b4a5f68");
+    private static final TestObject<TaskType> TASK_167_MOCK_SEARCH_ITERATIVE_CHECKPOINTS = TestObject.file(TEST_DIR, "task-167-mock-search-iterative-checkpoints.xml", "6f2a9d41-3b7c-4e85-9c0d-a1b2e3f4c5d6");
+    private static final TestObject<TaskType> TASK_168_MOCK_SEARCH_ITERATIVE_CHECKPOINTS_RESUME = TestObject.file(TEST_DIR, "task-168-mock-search-iterative-checkpoints-resume.xml", "1d7e3c5a-8b2f-4a96-b0c4-7e9f1a2b3c4d");
     private static final TestObject<TaskType> TASK_170_MOCK_BUCKETED = TestObject.file(TEST_DIR, "task-170-mock-bucketed.xml", "04e257d1-bb25-4675-8e00-f248f164fbc3");
     private static final TestObject<TaskType> TASK_180_BUCKETED_TREE = TestObject.file(TEST_DIR, "task-180-bucketed-tree.xml", "ac3220c5-6ded-4b94-894e-9ed39c05db66");
     private static final TestObject<TaskType> TASK_185_BUCKETED_TREE_ANALYSIS = TestObject.file(TEST_DIR, "task-185-bucketed-tree-analysis.xml", "12f07ab1-41c3-4dba-bf47-3d2a032fa555");
@@ -105,6 +115,8 @@ public class TestActivities extends AbstractRepoCommonTest {
     private static final TestObject<TaskType> TASK_210_SUSPENDING_COMPOSITE_WITH_SUBTASKS = TestObject.file(TEST_DIR, "task-210-suspending-composite-with-subtasks.xml", "cd36ca66-cd49-44cf-9eb2-36928acbe1fd");
     private static final TestObject<TaskType> TASK_220_MOCK_COMPOSITE_WITH_SUBTASKS = TestObject.file(TEST_DIR, "task-220-mock-composite-with-subtasks.xml", "");
     private static final TestObject<TaskType> TASK_300_WORKERS_SIMPLE = TestObject.file(TEST_DIR, "task-300-workers-simple.xml", "5cfa521a-a174-4254-a5cb-199189fe42d5");
+    private static final TestObject<TaskType> TASK_305_WORKERS_SCALING = TestObject.file(TEST_DIR, "task-305-workers-scaling.xml", "8d3c5e7a-1f2b-4a96-b0c4-7e5d9a2f3b81");
+    private static final TestObject<TaskType> TASK_306_WORKERS_SCALING_BY_BACKLOG = TestObject.file(TEST_DIR, "task-306-workers-scaling-by-backlog.xml", "3f6b2c1d-9e4a-4d7b-8c5f-1a2b3c4d5e6f");
     private static final TestObject<TaskType> TASK_310_WORKERS_SCAVENGING = TestObject.file(TEST_DIR, "task-310-workers-scavenging.xml", "1e956013-5997-47bd-8885-4da2340dddfc");
     private static final TestObject<TaskType> TASK_400_LONG_RUNNING = TestObject.file(TEST_DIR, "task-400-long-running.xml", "f179b67d-a4b2-4bd0-af8a-7f814d9f069c");
 
@@ -566,6 +578,239 @@ public class TestActivities extends AbstractRepoCommonTest {
                 .assertHasWallClockTime();
     }
 
+    /**
+     * Runs mock-iterative activity with statistics stored (almost) only at the end of the run.
+     *
+     * The run takes about 5 seconds (30 items, 500 ms each, 3 threads). With the default interval (3 seconds),
+     * the progress would be stored into the repository at least once in the middle of the run. Here, it must not be:
+     * only the very first update (at most one item per thread done) can get there. The final values must be
+     * complete nevertheless.
+     */
+    @Test
+    public void test151RunMockIterativeTaskRareStatistics() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_151_MOCK_ITERATIVE_RARE_STATISTICS, result);
+
+        when("most of the items are processed");
+
+        IntegrationTestTools.waitFor("waiting for 27 items to be processed",
+                () -> recorder.getExecutions().size() >= 27, 20000, 100);
+
+        then("the progress in the repository is not updated");
+
+        long progressInRepo = taskManager.getTaskPlain(task1.getOid(), result).getLegacyProgress();
+        assertThat(progressInRepo).as("progress stored in repository during the run").isLessThanOrEqualTo(3);
+
+        when("the task finishes");
+
+        waitForTaskClose(task1.getOid(), result, 20000);
+
+        then("the final values are stored");
+
+        displayDumpable("recorder", recorder);
+
+        task1.refresh(result);
+        // @formatter:off
+        assertTask(task1, "after")
+                .display()
+                .assertSuccess()
+                .assertClosed()
+                .assertProgress(30)
+                .activityState()
+                    .rootActivity()
+                        .assertComplete()
+                        .assertSuccess()
+                        .progress()
+                            .assertCommitted(30, 0, 0)
+                            .assertNoUncommitted()
+                        .end()
+                        .itemProcessingStatistics()
+                            .assertTotalCounts(30, 0, 0)
+                        .end();
+        // @formatter:on
+
+        assertThat(recorder.getExecutions()).as("recorder")
+                .containsExactlyInAnyOrderElementsOf(
+                        IntStream.rangeClosed(1, 30).mapToObj(i -> "Item: " + i).toList());
+    }
+
+    /**
+     * Runs mock-iterative activity in multiple worker threads, using work-stealing buffer for the requests.
+     */
+    @Test
+    public void test152RunMockIterativeTaskWorkStealing() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_152_MOCK_ITERATIVE_WORK_STEALING, result);
+
+        when();
+
+        waitForTaskClose(task1.getOid(), result, 10000);
+
+        then();
+
+        displayDumpable("recorder", recorder);
+
+        task1.refresh(result);
+        // @formatter:off
+        assertTask(task1, "after")
+                .display()
+                .assertSuccess()
+                .assertClosed()
+                .assertProgress(20)
+                .activityState()
+                    .rootActivity()
+                        .assertComplete()
+                        .assertSuccess()
+                        .itemProcessingStatistics()
+                            .assertTotalCounts(20, 0, 0)
+                        .end();
+        // @formatter:on
+
+        assertThat(recorder.getExecutions()).as("recorder")
+                .containsExactlyInAnyOrderElementsOf(
+                        IntStream.rangeClosed(1, 20).mapToObj(i -> "Item: " + i).toList());
+    }
+
+    /**
+     * Runs mock-iterative activity in worker threads that are virtual (if supported by the JVM).
+     * If they are not supported, the platform threads must be used as a fallback.
+     */
+    @Test
+    public void test153RunMockIterativeTaskVirtualThreads() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_153_MOCK_ITERATIVE_VIRTUAL_THREADS, result);
+
+        when();
+
+        waitForTaskClose(task1.getOid(), result, 10000);
+
+        then();
+
+        displayDumpable("recorder", recorder);
+
+        task1.refresh(result);
+        // @formatter:off
+        assertTask(task1, "after")
+                .display()
+                .assertSuccess()
+                .assertClosed()
+                .assertProgress(20)
+                .activityState()
+                    .rootActivity()
+                        .assertComplete()
+                        .assertSuccess()
+                        .itemProcessingStatistics()
+                            .assertTotalCounts(20, 0, 0)
+                        .end();
+        // @formatter:on
+
+        assertThat(recorder.getExecutions()).as("recorder")
+                .containsExactlyInAnyOrderElementsOf(
+                        IntStream.rangeClosed(1, 20).mapToObj(i -> "Item: " + i).toList());
+    }
+
+    /**
+     * Runs mock-iterative activity in worker threads, with items being processed in micro-batches.
+     *
+     * Checks that the batch hooks are called around the items of each batch, and that each item is acknowledged
+     * only after the "after batch" hook for its batch was called.
+     */
+    @Test
+    public void test154RunMockIterativeTaskItemBatches() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_154_MOCK_ITERATIVE_ITEM_BATCHES, result);
+
+        when();
+
+        waitForTaskClose(task1.getOid(), result, 10000);
+
+        then();
+
+        displayDumpable("recorder", recorder);
+
+        task1.refresh(result);
+        // @formatter:off
+        assertTask(task1, "after")
+                .display()
+                .assertSuccess()
+                .assertClosed()
+                .assertProgress(20)
+                .activityState()
+                    .rootActivity()
+                        .assertComplete()
+                        .assertSuccess()
+                        .itemProcessingStatistics()
+                            .assertTotalCounts(20, 0, 0)
+                        .end();
+        // @formatter:on
+
+        assertThat(recorder.getExecutions()).as("recorder")
+                .containsExactlyInAnyOrderElementsOf(
+                        IntStream.rangeClosed(1, 20).mapToObj(i -> "Item: " + i).toList());
+
+        assertItemBatchEvents(recorder.getItemBatchEvents(), 20, 4);
+    }
+
+    /**
+     * Each item must be in exactly one batch (not larger than `batchSize`), "before" and "after" hooks must be called
+     * for the same items, and the item must be acknowledged after the "after" hook of its batch.
+     */
+    @SuppressWarnings("SameParameterValue")
+    private void assertItemBatchEvents(List<String> events, int items, int batchSize) {
+        List<String> eventsCopy = new ArrayList<>(events);
+        Set<String> batchesBefore = new HashSet<>();
+        Map<String, Integer> afterBatchPosition = new HashMap<>();
+        Map<String, Integer> ackPosition = new HashMap<>();
+        for (int i = 0; i < eventsCopy.size(); i++) {
+            String[] parts = eventsCopy.get(i).split(" ");
+            switch (parts[0]) {
+                case "before" -> batchesBefore.add(parts[1]);
+                case "after" -> {
+                    assertThat(batchesBefore).as("batches with 'before' hook called").contains(parts[1]);
+                    String[] batchItems = parts[1].split(",");
+                    assertThat(batchItems.length).as("batch size").isBetween(1, batchSize);
+                    for (String item : batchItems) {
+                        assertThat(afterBatchPosition.put(item, i)).as("previous batch for " + item).isNull();
+                    }
+                }
+                case "ack" -> assertThat(ackPosition.put(parts[1], i)).as("previous ack for " + parts[1]).isNull();
+                default -> throw new AssertionError("Unexpected item batch event: " + eventsCopy.get(i));
+            }
+        }
+        for (int item = 1; item <= items; item++) {
+            String key = String.valueOf(item);
+            assertThat(afterBatchPosition).as("items in batches").containsKey(key);
+            assertThat(ackPosition).as("acknowledged items").containsKey(key);
+            assertThat(ackPosition.get(key))
+                    .as("position of acknowledgement of " + key)
+                    .isGreaterThan(afterBatchPosition.get(key));
+        }
+    }
+
     /**
      * Runs mock-iterative activity with buckets.
      */
@@ -649,6 +894,54 @@ public class TestActivities extends AbstractRepoCommonTest {
                 .assertHasWallClockTime();
     }
 
+    /**
+     * Work stealing with skewed item costs: the first item takes 5 seconds, the others are processed immediately.
+     *
+     * The requests waiting behind the slow item in its worker's queue must be stolen by the other worker. So the slow item
+     * is the last one to finish, and the items are processed by both workers.
+     */
+    @Test
+    public void test156RunMockIterativeTaskWorkStealingSkewed() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_156_MOCK_ITERATIVE_WORK_STEALING_SKEWED, result);
+
+        when();
+
+        waitForTaskClose(task1.getOid(), result, 20000);
+
+        then();
+
+        displayDumpable("recorder", recorder);
+
+        task1.refresh(result);
+        assertTask(task1, "after")
+                .display()
+                .assertSuccess()
+                .assertClosed()
+                .assertProgress(20);
+
+        List<String> executions = recorder.getExecutions();
+        assertThat(executions).as("recorder")
+                .containsExactlyInAnyOrderElementsOf(
+                        IntStream.rangeClosed(1, 20).mapToObj(i -> "Item: " + i).toList());
+        assertThat(executions.get(executions.size() - 1))
+                .as("last item processed (nothing waited for the slow item)")
+                .isEqualTo("Item: 1");
+
+        Map<String, String> workers = recorder.getExecutionWorkers();
+        assertThat(new HashSet<>(workers.values())).as("workers that processed the items").hasSize(2);
+        String slowWorker = workers.get("Item: 1");
+        assertThat(workers.values().stream().filter(w -> !w.equals(slowWorker)).count())
+                .as("number of items processed by the other worker")
+                .isGreaterThanOrEqualTo(17);
+    }
+
     /**
      * Runs mock search-based activity.
      */
@@ -728,6 +1021,197 @@ public class TestActivities extends AbstractRepoCommonTest {
                 .assertHasWallClockTime();
     }
 
+    /**
+     * Runs mock search-based activity in worker threads, with the search going ahead of the processing.
+     *
+     * Processing of each item takes 100 ms, so the search fills the requests buffer: with 4 threads and the prefetch
+     * of 50 the queue holds max(2 * 4, 4 + 50) = 54 requests. Hence, while an item is being processed, the search
+     * should be about that many items ahead of it, but no further than the queue, the other worker threads,
+     * and the request just being submitted allow.
+     */
+    @Test
+    public void test165RunMockSearchBasedTaskWithPrefetch() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_165_MOCK_SEARCH_ITERATIVE_PREFETCH, result);
+
+        when();
+
+        waitForTaskClose(task1.getOid(), result, 30000);
+
+        then();
+
+        task1.refresh(result);
+        // @formatter:off
+        assertTask(task1, "after")
+                .display()
+                .assertSuccess()
+                .assertClosed()
+                .activityState()
+                    .rootActivity()
+                        .assertComplete()
+                        .assertSuccess()
+                        .itemProcessingStatistics()
+                            .assertTotalCounts(100, 0, 0)
+                            .assertRuns(1)
+                        .end();
+        // @formatter:on
+
+        displayDumpable("recorder", recorder);
+        Set<String> messages = IntStream.range(0, 100)
+                .mapToObj(i -> String.format("Role: " + ROLE_NAME_PATTERN, i))
+                .collect(Collectors.toSet());
+        assertThat(recorder.getExecutions()).as("recorder")
+                .containsExactlyInAnyOrderElementsOf(messages);
+
+        // 54 requests in the queue + 3 in other worker threads + 1 being submitted
+        assertThat(recorder.getMaxItemsReadAhead()).as("max number of items read ahead of the processing")
+                .isBetween(50, 58);
+    }
+
+    /**
+     * Runs mock search-based activity in worker threads, with item-level checkpoints being stored after each item.
+     */
+    @Test
+    public void test167RunMockSearchBasedTaskWithCheckpoints() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_167_MOCK_SEARCH_ITERATIVE_CHECKPOINTS, result);
+
+        when();
+
+        waitForTaskClose(task1.getOid(), result, 10000);
+
+        then();
+
+        task1.refresh(result);
+        // @formatter:off
+        assertTask(task1, "after")
+                .display()
+                .assertSuccess()
+                .assertClosed()
+                .activityState()
+                    .rootActivity()
+                        .assertComplete()
+                        .assertSuccess()
+                        .itemProcessingStatistics()
+                            .assertTotalCounts(100, 0, 0)
+                            .assertRuns(1)
+                        .end();
+        // @formatter:on
+
+        displayDumpable("recorder", recorder);
+        Set<String> messages = IntStream.range(0, 100)
+                .mapToObj(i -> String.format("Role: " + ROLE_NAME_PATTERN, i))
+                .collect(Collectors.toSet());
+        assertThat(recorder.getExecutions()).as("recorder")
+                .containsExactlyInAnyOrderElementsOf(messages);
+    }
+
+    /**
+     * Stops the mock search-based activity after N items (by failing on the N+1-th one), and then resumes it.
+     * The resumed run should continue after the stored checkpoint, i.e. process only the remaining items.
+     *
+     * Single-threaded, so the checkpoint is precisely at the last item processed before the failure.
+     */
+    @Test
+    public void test168ResumeMockSearchBasedTaskFromCheckpoint() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        int processedBeforeFailure = 42;
+
+        // The search goes in the order of OIDs.
+        List<PrismObject<RoleType>> roles = new ArrayList<>(
+                repositoryService.searchObjects(RoleType.class, null, null, result));
+        roles.removeIf(role -> !role.getName().getOrig().matches("r\\d\\d"));
+        roles.sort(Comparator.comparing(PrismObject::getOid));
+        assertThat(roles).as("roles").hasSize(ROLES);
+
+        String failingOid = roles.get(processedBeforeFailure).getOid();
+        String lastProcessedOid = roles.get(processedBeforeFailure - 1).getOid();
+        setRoleDescription(failingOid, "fail", result);
+
+        recorder.reset();
+
+        Task task1 = taskAdd(TASK_168_MOCK_SEARCH_ITERATIVE_CHECKPOINTS_RESUME, result);
+
+        when("run 1");
+
+        waitForTaskCloseOrSuspend(task1.getOid(), 10000, 200);
+
+        then("run 1");
+
+        task1.refresh(result);
+        assertTask(task1, "after run 1")
+                .display()
+                .assertExecutionState(TaskExecutionStateType.SUSPENDED);
+
+        displayDumpable("recorder after run 1", recorder);
+        assertThat(recorder.getExecutions()).as("executions in run 1")
+                .containsExactlyElementsOf(getRoleMessages(roles.subList(0, processedBeforeFailure + 1)));
+        assertThat(recorder.getQueries()).as("queries in run 1").hasSize(1);
+        assertThat(recorder.getQueries().get(0).toString()).as("query in run 1")
+                .doesNotContain(lastProcessedOid);
+
+        List<WorkBucketType> buckets = task1.getActivitiesStateOrClone().getActivity().getBucketing().getBucket();
+        assertThat(buckets).as("buckets after run 1").hasSize(1);
+        assertThat(buckets.get(0).getLastProcessedOid()).as("checkpoint after run 1")
+                .isEqualTo(lastProcessedOid);
+
+        when("run 2");
+
+        setRoleDescription(failingOid, "", result);
+        recorder.reset();
+        taskManager.resumeTask(task1.getOid(), result);
+        waitForTaskCloseOrSuspend(task1.getOid(), 10000, 200);
+
+        then("run 2");
+
+        task1.refresh(result);
+        assertTask(task1, "after run 2")
+                .display()
+                .assertClosed()
+                .activityState()
+                    .rootActivity()
+                        .assertComplete();
+
+        displayDumpable("recorder after run 2", recorder);
+        assertThat(recorder.getExecutions()).as("executions in run 2")
+                .containsExactlyElementsOf(getRoleMessages(roles.subList(processedBeforeFailure, ROLES)));
+        assertThat(recorder.getQueries()).as("queries in run 2").hasSize(1);
+        assertThat(recorder.getQueries().get(0).toString()).as("query in run 2 (narrowed by the checkpoint)")
+                .contains(lastProcessedOid);
+    }
+
+    private void setRoleDescription(String oid, String description, OperationResult result) throws CommonException {
+        repositoryService.modifyObject(
+                RoleType.class,
+                oid,
+                prismContext.deltaFor(RoleType.class)
+                        .item(RoleType.F_DESCRIPTION).replace(description)
+                        .asItemDeltas(),
+                result);
+    }
+
+    private static List<String> getRoleMessages(List<PrismObject<RoleType>> roles) {
+        return roles.stream()
+                .map(role -> "Role: " + role.getName().getOrig())
+                .toList();
+    }
+
     /**
      * Runs mock search-based activity with buckets.
      */
@@ -2468,6 +2952,76 @@ public class TestActivities extends AbstractRepoCommonTest {
                 .hasSize(1);
     }
 
+    /**
+     * Workers are scaled: although 4 of them are defined, only 2 should be created (the maximum).
+     */
+    @Test
+    public void test305WorkersScaling() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task root = taskAdd(TASK_305_WORKERS_SCALING, result);
+
+        when();
+
+        waitForTaskClose(root.getOid(), result, 10000);
+
+        then();
+
+        root.refresh(result);
+
+        assertTaskTree(root.getOid(), "after")
+                .display("root")
+                .assertSuccess()
+                .assertSubtasks(2);
+
+        assertProgress(root.getOid(), "after")
+                .display()
+                .assertComplete()
+                .assertBuckets(11, 11)
+                .assertItems(100, null);
+    }
+
+    /**
+     * Workers are scaled according to the backlog: there are 4 workers defined and no maximum, but 11 buckets
+     * with 4 buckets per worker need only 3 of them. The number of buckets is not stored in the coordinator state
+     * when the workers are created, so it must be estimated from the segmentation.
+     */
+    @Test
+    public void test306WorkersScalingByBacklog() throws Exception {
+        given();
+
+        Task task = getTestTask();
+        OperationResult result = task.getResult();
+
+        recorder.reset();
+
+        Task root = taskAdd(TASK_306_WORKERS_SCALING_BY_BACKLOG, result);
+
+        when();
+
+        waitForTaskClose(root.getOid(), result, 10000);
+
+        then();
+
+        root.refresh(result);
+
+        assertTaskTree(root.getOid(), "after")
+                .display("root")
+                .assertSuccess()
+                .assertSubtasks(3);
+
+        assertProgress(root.getOid(), "after")
+                .display()
+                .assertComplete()
+                .assertBuckets(11, 11)
+                .assertItems(100, null);
+    }
+
     /**
      * When the scavenger (or any worker) is not finished, the realization state
      * in the distributed activity must be "in progress".
@@ -87,6 +87,7 @@ public class TestBucketingStatic extends AbstractRepoCommonTest {
     private static final TestObject<TaskType> TASK_130 = TestObject.file(TEST_DIR, "task-130.xml", "1339d0e9-eb92-4e1a-a48e-86406d1f37c1");
     private static final TestObject<TaskType> TASK_140 = TestObject.file(TEST_DIR, "task-140.xml", "c65a656e-75e9-4d03-a5bc-7e082a19bfb1");
     private static final TestObject<TaskType> TASK_150 = TestObject.file(TEST_DIR, "task-150.xml", "0a278190-ba8e-4684-b95a-57f5198ac8b3");
+    private static final TestObject<TaskType> TASK_160 = TestObject.file(TEST_DIR, "task-160.xml", "5d0b2f7e-3c44-4b8e-9a51-2f6c1e0a8d93");
 
     private static final TestObject<TaskType> TASK_200_COORDINATOR = TestObject.file(TEST_DIR, "task-200-c.xml", "a021d1b0-eea3-4378-87b6-7ab8bf9ab537");
     private static final TestObject<TaskType> TASK_200_WORKER = TestObject.file(TEST_DIR, "task-200-w.xml", "432c09ba-27d5-4012-a30e-6bd16a3ca07f");
@@ -627,6 +628,47 @@ public class TestBucketingStatic extends AbstractRepoCommonTest {
         }
     }
 
+    /**
+     * Checks adaptive sizing of numeric buckets: sizes follow the recorded processing times (changing at most
+     * by the factor of 2 at once), and the buckets get smaller near the end of the interval.
+     */
+    @Test
+    public void test160NumericAdaptiveBuckets() throws Exception {
+        given();
+
+        OperationResult result = createOperationResult();
+        taskAdd(TASK_160, result);
+
+        Task task = taskManager.getTaskPlain(TASK_160.oid, result);
+        ActivityStateType workState = new ActivityStateType();
+
+        when();
+
+        BucketFactory bucketFactory = BucketFactory.create(getDistributionDefinition(task), null, beans);
+
+        then();
+
+        assertEquals("Wrong # of estimated buckets", Integer.valueOf(10), bucketFactory.estimateNumberOfBuckets());
+
+        assumeNextNumericInterval(bucketFactory, workState, 0, 100, 1, 4000); // too slow -> halving
+        assumeNextNumericInterval(bucketFactory, workState, 100, 150, 2, 250); // too fast -> doubling
+        assumeNextNumericInterval(bucketFactory, workState, 150, 250, 3, 1000); // just right
+
+        assertEquals("Wrong # of estimated buckets", Integer.valueOf(11),
+                bucketFactory.estimateNumberOfBuckets(getBuckets(workState)));
+
+        assumeNextNumericInterval(bucketFactory, workState, 250, 350, 4, 100);
+        assumeNextNumericInterval(bucketFactory, workState, 350, 550, 5, 100);
+        assumeNextNumericInterval(bucketFactory, workState, 550, 775, 6, 1000); // half of the remaining space
+        assumeNextNumericInterval(bucketFactory, workState, 775, 887, 7, 1000);
+        assumeNextNumericInterval(bucketFactory, workState, 887, 943, 8, 1000);
+        assumeNextNumericInterval(bucketFactory, workState, 943, 971, 9, 1000);
+        assumeNextNumericInterval(bucketFactory, workState, 971, 985, 10, 1000);
+        assumeNextNumericInterval(bucketFactory, workState, 985, 995, 11, 1000); // minimal bucket size
+        assumeNextNumericInterval(bucketFactory, workState, 995, 1000, 12, 1000);
+        assumeNoNextBucket(bucketFactory, workState);
+    }
+
     /**
      * Checks "get bucket" operation on task pair (coordinator + worker).
      */
@@ -888,6 +930,17 @@ public class TestBucketingStatic extends AbstractRepoCommonTest {
         return newBucket;
     }
 
+    private void assumeNextNumericInterval(BucketFactory bucketFactory, ActivityStateType workState,
+            int expectedFrom, int expectedTo, int expectedSequentialNumber, long processingTime) throws SchemaException {
+        WorkBucketType newBucket = getNextBucket(bucketFactory, workState, expectedSequentialNumber);
+        assertNumericBucket(newBucket, null, expectedSequentialNumber, expectedFrom, expectedTo);
+
+        getOrCreateBuckets(workState)
+                .add(newBucket.clone()
+                        .state(WorkBucketStateType.COMPLETE)
+                        .processingTime(processingTime));
+    }
+
     @NotNull
     private WorkBucketType getNextBucket(BucketFactory bucketFactory, ActivityStateType workState,
             int expectedSequentialNumber) throws SchemaException {
@@ -7,6 +7,7 @@
 
 package com.evolveum.midpoint.repo.common.tasks.handlers;
 
+import com.evolveum.midpoint.prism.query.ObjectQuery;
 import com.evolveum.midpoint.util.DebugDumpable;
 import com.evolveum.midpoint.util.DebugUtil;
 
@@ -15,6 +16,8 @@ import org.springframework.stereotype.Component;
 
 import javax.xml.datatype.XMLGregorianCalendar;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.commons.collections4.ListUtils.synchronizedList;
 
@@ -24,6 +27,23 @@ public class MockRecorder implements DebugDumpable {
     @SuppressWarnings("unchecked")
     private final List<String> executions = synchronizedList(new ArrayList<>());
 
+    /** Calls of item batch hooks and item acknowledgements, e.g. "before 1,2,3", "ack 1", "after 1,2,3". */
+    @SuppressWarnings("unchecked")
+    private final List<String> itemBatchEvents = synchronizedList(new ArrayList<>());
+
+    /** Queries used by search-based activities, one for each bucket processed. */
+    @SuppressWarnings("unchecked")
+    private final List<ObjectQuery> queries = synchronizedList(new ArrayList<>());
+
+    /** Maximal number of items read from the source ahead of the item being processed (for search-based activities). */
+    private final AtomicInteger maxItemsReadAhead = new AtomicInteger();
+
+    /** Worker tasks (their identifiers) that executed the items, keyed by the execution message. */
+    @NotNull private final Map<String, String> executionWorkers = new ConcurrentHashMap<>();
+
+    /** Kinds of threads ("virtual" or "platform") in which the items were processed. */
+    @NotNull private final Set<String> processingThreadKinds = ConcurrentHashMap.newKeySet();
+
     /** This is to verify that realization start timestamps in workers are the same. */
     @NotNull private final Set<XMLGregorianCalendar> realizationStartTimestamps = new HashSet<>();
 
@@ -35,6 +55,55 @@ public class MockRecorder implements DebugDumpable {
         return executions;
     }
 
+    public void recordItemBatchEvent(String value) {
+        itemBatchEvents.add(value);
+    }
+
+    public List<String> getItemBatchEvents() {
+        return itemBatchEvents;
+    }
+
+    public void recordQuery(ObjectQuery value) {
+        queries.add(value);
+    }
+
+    public List<ObjectQuery> getQueries() {
+        return queries;
+    }
+
+    public void recordItemsReadAhead(int value) {
+        maxItemsReadAhead.accumulateAndGet(value, Math::max);
+    }
+
+    public int getMaxItemsReadAhead() {
+        return maxItemsReadAhead.get();
+    }
+
+    public void recordExecutionWorker(String value, String workerIdentifier) {
+        executionWorkers.put(value, workerIdentifier);
+    }
+
+    public @NotNull Map<String, String> getExecutionWorkers() {
+        return executionWorkers;
+    }
+
+    public void recordProcessingThread(Thread thread) {
+        processingThreadKinds.add(isVirtual(thread) ? "virtual" : "platform");
+    }
+
+    public @NotNull Set<String> getProcessingThreadKinds() {
+        return processingThreadKinds;
+    }
+
+    /** We are compiled for Java 17, so `Thread.isVirtual()` must be called via reflection. */
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false; // no virtual threads in this JVM
+        }
+    }
+
     public void recordRealizationStartTimestamp(XMLGregorianCalendar value) {
         realizationStartTimestamps.add(value);
     }
@@ -45,6 +114,11 @@ public class MockRecorder implements DebugDumpable {
 
     public void reset() {
         executions.clear();
+        itemBatchEvents.clear();
+        queries.clear();
+        maxItemsReadAhead.set(0);
+        executionWorkers.clear();
+        processingThreadKinds.clear();
         realizationStartTimestamps.clear();
     }
 
@@ -53,6 +127,11 @@ public class MockRecorder implements DebugDumpable {
         StringBuilder sb = new StringBuilder();
         DebugUtil.debugDumpLabelLn(sb, "MockRecorder", indent);
         DebugUtil.debugDumpWithLabelLn(sb, "executions", executions, indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "item batch events", itemBatchEvents, indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "queries", queries, indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "max items read ahead", maxItemsReadAhead.get(), indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "execution workers", executionWorkers, indent + 1);
+        DebugUtil.debugDumpWithLabelLn(sb, "processing thread kinds", processingThreadKinds, indent + 1);
         DebugUtil.debugDumpWithLabel(sb, "realization start timestamps", realizationStartTimestamps, indent + 1);
         return sb.toString();
     }
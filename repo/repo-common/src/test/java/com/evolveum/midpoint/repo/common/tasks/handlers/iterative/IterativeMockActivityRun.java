@@ -27,6 +27,9 @@ import com.evolveum.midpoint.util.logging.TraceManager;
 
 import static com.evolveum.midpoint.util.MiscUtil.emptyIfNull;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Execution for iterative mock activity.
  */
@@ -87,19 +90,46 @@ final class IterativeMockActivityRun
             @NotNull OperationResult parentResult) {
         IterativeMockWorkDefinition def = getActivity().getWorkDefinition();
 
-        if (def.getDelay() > 0) {
-            MiscUtil.sleepWatchfully(System.currentTimeMillis() + def.getDelay(), 100, workerTask::canRun);
+        Integer item = request.getItem();
+        long delay = def.getDelay(item);
+        if (delay > 0) {
+            MiscUtil.sleepWatchfully(System.currentTimeMillis() + delay, 100, workerTask::canRun);
         }
 
-        Integer item = request.getItem();
         String message = emptyIfNull(def.getMessage()) + item;
         LOGGER.info("Message: {}", message);
         getRecorder().recordExecution(message);
+        getRecorder().recordProcessingThread(Thread.currentThread());
+        getRecorder().recordExecutionWorker(message, workerTask.getTaskIdentifier());
 
         provideSomeMockStatistics(request, workerTask);
         return true;
     }
 
+    @Override
+    public void beforeItemBatchProcessing(@NotNull List<? extends ItemProcessingRequest<?>> requests,
+            @NotNull RunningTask workerTask, @NotNull OperationResult result) {
+        getRecorder().recordItemBatchEvent("before " + getItems(requests));
+    }
+
+    @Override
+    public void afterItemBatchProcessing(@NotNull List<? extends ItemProcessingRequest<?>> requests,
+            @NotNull RunningTask workerTask, @NotNull OperationResult result) {
+        getRecorder().recordItemBatchEvent("after " + getItems(requests));
+    }
+
+    @Override
+    public void onItemAcknowledged(
+            @NotNull ItemProcessingRequest<Integer> request, boolean release, @NotNull OperationResult result) {
+        getRecorder().recordItemBatchEvent((release ? "ack " : "nack ") + request.getItem());
+    }
+
+    private static String getItems(List<? extends ItemProcessingRequest<?>> requests) {
+        return requests.stream()
+                .map(request -> String.valueOf(request.getItem()))
+                .collect(Collectors.joining(","));
+    }
+
     private void provideSomeMockStatistics(ItemProcessingRequest<Integer> request, RunningTask workerTask) {
         Integer item = request.getItem();
         String objectName = String.valueOf(item);
@@ -32,6 +32,7 @@ public class IterativeMockWorkDefinition extends AbstractWorkDefinition {
     private static final ItemName TO_NAME = new ItemName(NS_EXT, "to");
     private static final ItemName MESSAGE_NAME = new ItemName(NS_EXT, "message");
     private static final ItemName DELAY_NAME = new ItemName(NS_EXT, "delay");
+    private static final ItemName DELAYED_ITEM_NAME = new ItemName(NS_EXT, "delayedItem");
 
     static final QName WORK_DEFINITION_TYPE_QNAME = new QName(NS_EXT, "IterativeMockDefinitionType");
     static final QName WORK_DEFINITION_ITEM_QNAME = new QName(NS_EXT, "iterativeMock");
@@ -46,6 +47,9 @@ public class IterativeMockWorkDefinition extends AbstractWorkDefinition {
 
     private final long delay;
 
+    /** If not null, only this item is delayed. */
+    private final Integer delayedItem;
+
     IterativeMockWorkDefinition(@NotNull WorkDefinitionFactory.WorkDefinitionInfo info) {
         super(info);
         PrismContainerValue<?> pcv = info.source().getValue();
@@ -53,6 +57,7 @@ public class IterativeMockWorkDefinition extends AbstractWorkDefinition {
         this.to = MoreObjects.firstNonNull(pcv.getPropertyRealValue(TO_NAME, Integer.class), from);
         this.message = pcv.getPropertyRealValue(MESSAGE_NAME, String.class);
         this.delay = or0(pcv.getPropertyRealValue(DELAY_NAME, Long.class));
+        this.delayedItem = pcv.getPropertyRealValue(DELAYED_ITEM_NAME, Integer.class);
     }
 
     public int getFrom() {
@@ -75,6 +80,10 @@ public class IterativeMockWorkDefinition extends AbstractWorkDefinition {
         return delay;
     }
 
+    public long getDelay(int item) {
+        return delayedItem == null || delayedItem == item ? delay : 0;
+    }
+
     @Override
     public @NotNull AffectedObjectsInformation.ObjectSet getAffectedObjectSetInformation(@Nullable AbstractActivityWorkStateType state) {
         return AffectedObjectsInformation.ObjectSet.notSupported(); // not relevant here
@@ -85,6 +94,7 @@ public class IterativeMockWorkDefinition extends AbstractWorkDefinition {
         DebugUtil.debugDumpWithLabelLn(sb, "from", from, indent+1);
         DebugUtil.debugDumpWithLabelLn(sb, "to", to, indent+1);
         DebugUtil.debugDumpWithLabelLn(sb, "message", message, indent+1);
-        DebugUtil.debugDumpWithLabel(sb, "delay", delay, indent+1);
+        DebugUtil.debugDumpWithLabelLn(sb, "delay", delay, indent+1);
+        DebugUtil.debugDumpWithLabel(sb, "delayedItem", delayedItem, indent+1);
     }
 }
@@ -66,6 +66,11 @@ final class SearchBasedMockActivityRun
                 activityState.getRealizationStartTimestamp());
     }
 
+    @Override
+    public void beforeBucketProcessing(OperationResult result) {
+        getRecorder().recordQuery(getQuery());
+    }
+
     @Override
     public boolean processItem(@NotNull ObjectType object,
             @NotNull ItemProcessingRequest<ObjectType> request, RunningTask workerTask, OperationResult result)
@@ -78,6 +83,13 @@ final class SearchBasedMockActivityRun
         checkFailOn(object);
         checkFreezeIfScavenger();
 
+        long delay = getWorkDefinition().getDelay();
+        if (delay > 0) {
+            MiscUtil.sleepWatchfully(System.currentTimeMillis() + delay, 100, workerTask::canRun);
+        }
+        // How many items were retrieved from the source after this one, while this one was being processed
+        getRecorder().recordItemsReadAhead(getItemsSubmitted() - request.getSequentialNumber() - 1);
+
         provideSomeMockStatistics(request, workerTask);
         return true;
     }
@@ -4584,6 +4584,15 @@ public abstract class AbstractIntegrationTest extends AbstractSpringTest
         return repositoryService.isNative();
     }
 
+    /**
+     * Name of the repository operation as recorded by the repository performance monitor, e.g. for {@link RepoOpAsserter}.
+     * Assumes that the operations are not classified by object type (the default). The native repository prefixes
+     * the operations by the name of the service.
+     */
+    protected String repoOp(String operation) {
+        return isNativeRepository() ? "SqaleRepositoryService." + operation : operation;
+    }
+
     /** To be overridden by test classes that require native repo as a whole. */
     protected boolean requiresNativeRepository() {
         return false;
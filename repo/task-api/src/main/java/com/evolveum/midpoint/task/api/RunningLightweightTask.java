@@ -34,6 +34,14 @@ public interface RunningLightweightTask extends RunningTask {
      */
     void startLightweightHandler();
 
+    /**
+     * Request the start of the execution of this task's handler, optionally in a virtual thread.
+     * If virtual threads are not supported by the JVM, a platform thread is used.
+     * The handler is executed asynchronously.
+     */
+    @Experimental
+    void startLightweightHandler(boolean virtualThread);
+
     /**
      * Was the task requested to start? (It may or may not actually started.)
      */
@@ -109,4 +109,9 @@ public interface RunningTaskStatisticsCollector extends ProgressCollector {
      * Sets the interval for storing statistics into the repository.
      */
     void setStatisticsRepoStoreInterval(long interval);
+
+    /**
+     * Returns the interval for storing statistics into the repository.
+     */
+    long getStatisticsRepoStoreInterval();
 }
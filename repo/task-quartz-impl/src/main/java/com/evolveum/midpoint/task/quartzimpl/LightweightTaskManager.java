@@ -14,12 +14,17 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.evolveum.midpoint.schema.result.OperationResult;
 import com.evolveum.midpoint.task.api.RunningTask;
+import com.evolveum.midpoint.util.logging.Trace;
+import com.evolveum.midpoint.util.logging.TraceManager;
 
 /**
  * Manages lightweight asynchronous tasks.
@@ -29,14 +34,50 @@ import com.evolveum.midpoint.task.api.RunningTask;
 @Component
 public class LightweightTaskManager {
 
+    private static final Trace LOGGER = TraceManager.getTrace(LightweightTaskManager.class);
+
+    private static final String VIRTUAL_THREAD_NAME_PREFIX = "midpoint-lightweight-";
+
     @Autowired private LocalNodeState localNodeState;
 
     private final ExecutorService lightweightHandlersExecutor = Executors.newCachedThreadPool();
 
-    Future<?> submit(Runnable r) {
+    /** Executor for handlers running in virtual threads. Null if virtual threads are not supported by the JVM. */
+    @Nullable private final ExecutorService virtualThreadsExecutor = createVirtualThreadsExecutor();
+
+    /** To report the lack of virtual threads support only once. */
+    private final AtomicBoolean virtualThreadsFallbackReported = new AtomicBoolean();
+
+    Future<?> submit(Runnable r, boolean virtualThread) {
+        if (virtualThread) {
+            if (virtualThreadsExecutor != null) {
+                return virtualThreadsExecutor.submit(r);
+            } else if (virtualThreadsFallbackReported.compareAndSet(false, true)) {
+                LOGGER.warn("Virtual threads were requested but they are not supported by this JVM. "
+                        + "Using platform threads instead.");
+            }
+        }
         return lightweightHandlersExecutor.submit(r);
     }
 
+    /**
+     * Virtual threads are available since Java 21, while we are compiled for Java 17. Hence the reflection.
+     */
+    private static @Nullable ExecutorService createVirtualThreadsExecutor() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, VIRTUAL_THREAD_NAME_PREFIX, 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Virtual threads are not available: {}", e.toString());
+            return null;
+        }
+    }
+
     public void waitForTransientChildrenAndCloseThem(RunningTask task, OperationResult result) {
         for (RunningLightweightTaskImpl subtask : ((RunningTaskQuartzImpl) task).getRunnableOrRunningLightweightAsynchronousSubtasks()) {
             subtask.waitForCompletion(result);
@@ -24,6 +24,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.evolveum.midpoint.util.MiscUtil.stateCheck;
 
@@ -51,10 +52,17 @@ public class RunningLightweightTaskImpl extends RunningTaskQuartzImpl implements
      *
      * Once set, remains set.
      *
-     * Guarded by `this`.
+     * Guarded by {@link #lightweightHandlerLock}.
      */
     private Future<?> lightweightHandlerFuture;
 
+    /**
+     * Guards {@link #lightweightHandlerFuture}. We use explicit lock instead of `synchronized` because the handler
+     * can run in a virtual thread; and a virtual thread waiting to enter a monitor pins its carrier thread
+     * (at least in Java 21).
+     */
+    private final ReentrantLock lightweightHandlerLock = new ReentrantLock();
+
     /**
      * An indication whether lightweight handler is currently executing or not.
      * Used for waiting upon its completion (because java.util.concurrent facilities are not able
@@ -79,17 +87,36 @@ public class RunningLightweightTaskImpl extends RunningTaskQuartzImpl implements
         return lightweightTaskHandler;
     }
 
-    private synchronized Future<?> getLightweightHandlerFuture() {
-        return lightweightHandlerFuture;
+    private Future<?> getLightweightHandlerFuture() {
+        lightweightHandlerLock.lock();
+        try {
+            return lightweightHandlerFuture;
+        } finally {
+            lightweightHandlerLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean lightweightHandlerStartRequested() {
+        return getLightweightHandlerFuture() != null;
     }
 
     @Override
-    public synchronized boolean lightweightHandlerStartRequested() {
-        return lightweightHandlerFuture != null;
+    public void startLightweightHandler() {
+        startLightweightHandler(false);
     }
 
     @Override
-    public synchronized void startLightweightHandler() {
+    public void startLightweightHandler(boolean virtualThread) {
+        lightweightHandlerLock.lock();
+        try {
+            startLightweightHandlerLocked(virtualThread);
+        } finally {
+            lightweightHandlerLock.unlock();
+        }
+    }
+
+    private void startLightweightHandlerLocked(boolean virtualThread) {
         stateCheck(isTransient(),
                 "An attempt to start LightweightTaskHandler in a persistent task %s", this);
         stateCheck(lightweightHandlerFuture == null,
@@ -126,7 +153,7 @@ public class RunningLightweightTaskImpl extends RunningTaskQuartzImpl implements
             LOGGER.debug("Lightweight task handler shell finishing; task = {}", this);
         };
 
-        lightweightHandlerFuture = beans.lightweightTaskManager.submit(r);
+        lightweightHandlerFuture = beans.lightweightTaskManager.submit(r, virtualThread);
         LOGGER.debug("Lightweight task handler submitted to start; task = {}", this);
     }
 
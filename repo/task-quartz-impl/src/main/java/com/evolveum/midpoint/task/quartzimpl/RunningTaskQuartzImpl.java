@@ -262,6 +262,11 @@ public class RunningTaskQuartzImpl extends TaskQuartzImpl implements RunningTask
         this.operationStatsUpdateInterval = interval;
     }
 
+    @Override
+    public long getStatisticsRepoStoreInterval() {
+        return operationStatsUpdateInterval;
+    }
+
     @Override
     public void incrementLegacyProgressAndStoreStatisticsIfTimePassed(OperationResult result)
             throws SchemaException, ObjectNotFoundException {
@@ -68,6 +68,10 @@ public class TaskManagerConfiguration {
     @Deprecated private static final String QUARTZ_NODE_REGISTRATION_INTERVAL_CONFIG_ENTRY = "quartzNodeRegistrationInterval";
     private static final String QUARTZ_CLUSTER_CHECKIN_INTERVAL_CONFIG_ENTRY = "quartzClusterCheckinInterval";
     private static final String QUARTZ_CLUSTER_CHECKIN_GRACE_PERIOD_CONFIG_ENTRY = "quartzClusterCheckinGracePeriod";
+    private static final String QUARTZ_IDLE_WAIT_TIME_CONFIG_ENTRY = "quartzIdleWaitTime";
+    private static final String QUARTZ_BATCH_TRIGGER_ACQUISITION_MAX_COUNT_CONFIG_ENTRY = "quartzBatchTriggerAcquisitionMaxCount";
+    private static final String QUARTZ_BATCH_TRIGGER_ACQUISITION_FIRE_AHEAD_TIME_WINDOW_CONFIG_ENTRY =
+            "quartzBatchTriggerAcquisitionFireAheadTimeWindow";
     private static final String NODE_REGISTRATION_INTERVAL_CONFIG_ENTRY = "nodeRegistrationInterval";
     private static final String NODE_ALIVENESS_CHECK_INTERVAL_CONFIG_ENTRY = "nodeAlivenessCheckInterval";
     private static final String NODE_ALIVENESS_TIMEOUT_CONFIG_ENTRY = "nodeAlivenessTimeout";
@@ -185,6 +189,34 @@ public class TaskManagerConfiguration {
 
     private static final long QUARTZ_CLUSTER_CHECKIN_GRACE_PERIOD_DEFAULT = 7500;
 
+    /**
+     * How long does Quartz scheduler thread wait before re-querying for available triggers when the scheduler
+     * is otherwise idle (in milliseconds). If not specified, a default depending on the mode (test or not, JDBC or not)
+     * is used.
+     *
+     * Lower values decrease the latency of starting tasks scheduled on other nodes, at the cost of more frequent
+     * queries to the Quartz database.
+     */
+    private Integer quartzIdleWaitTime;
+
+    /**
+     * The maximum number of triggers that Quartz node is allowed to acquire (for firing) at once.
+     *
+     * Acquiring more triggers at once decreases the number of database round-trips when many tasks are scheduled
+     * to run at (approximately) the same time. The default is 1, i.e. no batching.
+     */
+    private int quartzBatchTriggerAcquisitionMaxCount;
+
+    private static final int QUARTZ_BATCH_TRIGGER_ACQUISITION_MAX_COUNT_DEFAULT = 1;
+
+    /**
+     * How long before their scheduled fire time can be the triggers acquired and fired (in milliseconds).
+     * Relevant mainly with {@link #quartzBatchTriggerAcquisitionMaxCount} greater than 1.
+     */
+    private long quartzBatchTriggerAcquisitionFireAheadTimeWindow;
+
+    private static final long QUARTZ_BATCH_TRIGGER_ACQUISITION_FIRE_AHEAD_TIME_WINDOW_DEFAULT = 0;
+
     private boolean checkForTaskConcurrentExecution;
     private UseThreadInterrupt useThreadInterrupt;
     private int waitingTasksCheckInterval;
@@ -246,6 +278,9 @@ public class TaskManagerConfiguration {
             USE_THREAD_INTERRUPT_CONFIG_ENTRY,
             QUARTZ_CLUSTER_CHECKIN_INTERVAL_CONFIG_ENTRY,
             QUARTZ_CLUSTER_CHECKIN_GRACE_PERIOD_CONFIG_ENTRY,
+            QUARTZ_IDLE_WAIT_TIME_CONFIG_ENTRY,
+            QUARTZ_BATCH_TRIGGER_ACQUISITION_MAX_COUNT_CONFIG_ENTRY,
+            QUARTZ_BATCH_TRIGGER_ACQUISITION_FIRE_AHEAD_TIME_WINDOW_CONFIG_ENTRY,
             NODE_REGISTRATION_INTERVAL_CONFIG_ENTRY,
             NODE_TIMEOUT_CONFIG_ENTRY,
             TEST_MODE_CONFIG_ENTRY,
@@ -358,6 +393,12 @@ public class TaskManagerConfiguration {
 
         quartzClusterCheckinInterval = c.getLong(QUARTZ_CLUSTER_CHECKIN_INTERVAL_CONFIG_ENTRY, QUARTZ_CLUSTER_CHECKIN_INTERVAL_DEFAULT);
         quartzClusterCheckinGracePeriod = c.getLong(QUARTZ_CLUSTER_CHECKIN_GRACE_PERIOD_CONFIG_ENTRY, QUARTZ_CLUSTER_CHECKIN_GRACE_PERIOD_DEFAULT);
+        quartzIdleWaitTime = c.getInteger(QUARTZ_IDLE_WAIT_TIME_CONFIG_ENTRY, null);
+        quartzBatchTriggerAcquisitionMaxCount = c.getInt(
+                QUARTZ_BATCH_TRIGGER_ACQUISITION_MAX_COUNT_CONFIG_ENTRY, QUARTZ_BATCH_TRIGGER_ACQUISITION_MAX_COUNT_DEFAULT);
+        quartzBatchTriggerAcquisitionFireAheadTimeWindow = c.getLong(
+                QUARTZ_BATCH_TRIGGER_ACQUISITION_FIRE_AHEAD_TIME_WINDOW_CONFIG_ENTRY,
+                QUARTZ_BATCH_TRIGGER_ACQUISITION_FIRE_AHEAD_TIME_WINDOW_DEFAULT);
 
         checkForTaskConcurrentExecution = c.getBoolean(CHECK_FOR_TASK_CONCURRENT_EXECUTION_CONFIG_ENTRY, CHECK_FOR_TASK_CONCURRENT_EXECUTION_DEFAULT);
 
@@ -608,6 +649,18 @@ public class TaskManagerConfiguration {
         return quartzClusterCheckinGracePeriod;
     }
 
+    public Integer getQuartzIdleWaitTime() {
+        return quartzIdleWaitTime;
+    }
+
+    public int getQuartzBatchTriggerAcquisitionMaxCount() {
+        return quartzBatchTriggerAcquisitionMaxCount;
+    }
+
+    public long getQuartzBatchTriggerAcquisitionFireAheadTimeWindow() {
+        return quartzBatchTriggerAcquisitionFireAheadTimeWindow;
+    }
+
     public int getNodeAlivenessCheckInterval() {
         return nodeAlivenessCheckInterval;
     }
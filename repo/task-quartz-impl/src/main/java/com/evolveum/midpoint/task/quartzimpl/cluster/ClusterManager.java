@@ -6,6 +6,8 @@
  */
 package com.evolveum.midpoint.task.quartzimpl.cluster;
 
+import static com.evolveum.midpoint.schema.GetOperationOptions.readOnly;
+
 import com.evolveum.midpoint.prism.PrismContext;
 import com.evolveum.midpoint.prism.PrismObject;
 import com.evolveum.midpoint.prism.query.ObjectQuery;
@@ -142,7 +144,7 @@ public class ClusterManager {
     public @NotNull ClusterStateType determineClusterState(OperationResult result) throws SchemaException {
         // We do not want to query cluster nodes at this moment. We rely on the repository information.
         SearchResultList<PrismObject<NodeType>> nodes =
-                getRepositoryService().searchObjects(NodeType.class, null, null, result);
+                getRepositoryService().searchObjects(NodeType.class, null, readOnly(), result);
         ClusterStateType clusterState = new ClusterStateType();
         // TODO use query after making operationalState indexed
         for (PrismObject<NodeType> node : nodes) {
@@ -238,7 +240,7 @@ public class ClusterManager {
 
     private void checkNodeAliveness(OperationResult result) throws SchemaException {
         SearchResultList<PrismObject<NodeType>> nodes =
-                getRepositoryService().searchObjects(NodeType.class, null, null, result);
+                getRepositoryService().searchObjects(NodeType.class, null, readOnly(), result);
         Set<String> nodesMarkedAsDown = new HashSet<>();
         for (PrismObject<NodeType> nodeObject : nodes) {
             NodeType node = nodeObject.asObjectable();
@@ -25,6 +25,7 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
+import com.google.common.annotations.VisibleForTesting;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.DependsOn;
@@ -126,6 +127,12 @@ public class NodeRegistrar implements Cache {
      */
     private volatile PrismObject<NodeType> cachedLocalNodeObject;
 
+    /**
+     * The thread that is currently writing the heartbeat, if any. Invalidation events caused by that write
+     * are ignored, as the cached node object is updated directly by the writer.
+     */
+    private volatile Thread heartbeatThread;
+
     private String discoveredUrlScheme;
     private Integer discoveredHttpPort;
 
@@ -380,42 +387,28 @@ public class NodeRegistrar implements Cache {
 
     /**
      * Updates registration of this node (runs periodically within ClusterManager thread and on system startup).
+     *
+     * This is the node "heartbeat". To keep it cheap, only the check-in time and the items that really changed
+     * are written. The cached node object is then updated locally, without re-reading it from the repository.
+     * (The cached object is refreshed from the repository by {@link #verifyNodeObject(OperationResult)} that
+     * is called in each cluster manager cycle anyway.)
      */
     void updateNodeObject(OperationResult result) {
         String nodeOid = getCachedLocalNodeObjectOid();
         String nodeName = configuration.getNodeId();
         try {
-            refreshCachedLocalNodeObject(nodeOid, result);
             LOGGER.trace("Updating this node registration:\n{}", cachedLocalNodeObject.debugDumpLazily());
-
-            XMLGregorianCalendar currentTime = XmlTypeConverter.createXMLGregorianCalendar();
-            String myUrl = getMyUrl();
-            LOGGER.debug("My intra-cluster communication URL is '{}'", myUrl);
-            List<ItemDelta<?, ?>> modifications = prismContext.deltaFor(NodeType.class)
-                    .item(NodeType.F_HOSTNAME).replace(getMyHostname())
-                    .item(NodeType.F_IP_ADDRESS).replaceRealValues(getMyIpAddresses())
-                    .item(NodeType.F_LAST_CHECK_IN_TIME).replace(currentTime)
-                    .item(NodeType.F_OPERATIONAL_STATE).replace(operationalStatus)
-                    .asItemDeltas();
-            if (shouldRenewSecret(cachedLocalNodeObject.asObjectable())) {
-                LOGGER.info("Renewing node secret for the current node");
-                modifications.addAll(prismContext.deltaFor(NodeType.class)
-                        .item(NodeType.F_SECRET).replace(generateNodeSecret())
-                        .item(NodeType.F_SECRET_UPDATE_TIMESTAMP).replace(currentTime)
-                        .asItemDeltas());
-            }
-            if (myUrl != null) {    // i.e. if known (might not be known during startup)
-                modifications.add(prismContext.deltaFor(NodeType.class)
-                        .item(NodeType.F_URL).replace(myUrl)
-                        .asItemDelta());
-                String oldUrl = cachedLocalNodeObject.asObjectable().getUrl();
-                if (!myUrl.equals(oldUrl)) {
-                    LOGGER.info("Changing node URL from {} to {}", oldUrl, myUrl);
-                }
+            List<ItemDelta<?, ?>> modifications = computeHeartbeatModifications(
+                    cachedLocalNodeObject.asObjectable(), XmlTypeConverter.createXMLGregorianCalendar());
+            LOGGER.trace("Node registration modifications: {}", modifications);
+            heartbeatThread = Thread.currentThread();
+            try {
+                repositoryService.modifyObject(NodeType.class, nodeOid, modifications, result);
+            } finally {
+                heartbeatThread = null;
             }
-            repositoryService.modifyObject(NodeType.class, nodeOid, modifications, result);
             LOGGER.trace("Node registration successfully updated.");
-            refreshCachedLocalNodeObject(nodeOid, result);
+            applyToCachedLocalNodeObject(modifications);
         } catch (ObjectNotFoundException e) {
             LoggingUtils.logUnexpectedException(LOGGER, "Cannot update registration of this node (name {}, oid {}), because it "
                             + "does not exist in repository. It is probably caused by cluster misconfiguration (other "
@@ -436,6 +429,58 @@ public class NodeRegistrar implements Cache {
         }
     }
 
+    /** Returns the check-in time modification, plus modifications of the items that differ from the cached node object. */
+    @VisibleForTesting
+    @NotNull List<ItemDelta<?, ?>> computeHeartbeatModifications(
+            @NotNull NodeType cachedNode, @NotNull XMLGregorianCalendar currentTime) throws SchemaException {
+        String myUrl = getMyUrl();
+        LOGGER.debug("My intra-cluster communication URL is '{}'", myUrl);
+        List<ItemDelta<?, ?>> modifications = prismContext.deltaFor(NodeType.class)
+                .item(NodeType.F_LAST_CHECK_IN_TIME).replace(currentTime)
+                .asItemDeltas();
+        String myHostname = getMyHostname();
+        if (!Objects.equals(myHostname, cachedNode.getHostname())) {
+            modifications.add(prismContext.deltaFor(NodeType.class)
+                    .item(NodeType.F_HOSTNAME).replace(myHostname)
+                    .asItemDelta());
+        }
+        List<String> myIpAddresses = getMyIpAddresses();
+        if (!new HashSet<>(myIpAddresses).equals(new HashSet<>(cachedNode.getIpAddress()))) {
+            modifications.add(prismContext.deltaFor(NodeType.class)
+                    .item(NodeType.F_IP_ADDRESS).replaceRealValues(myIpAddresses)
+                    .asItemDelta());
+        }
+        if (operationalStatus != cachedNode.getOperationalState()) {
+            modifications.add(prismContext.deltaFor(NodeType.class)
+                    .item(NodeType.F_OPERATIONAL_STATE).replace(operationalStatus)
+                    .asItemDelta());
+        }
+        if (shouldRenewSecret(cachedNode)) {
+            LOGGER.info("Renewing node secret for the current node");
+            modifications.addAll(prismContext.deltaFor(NodeType.class)
+                    .item(NodeType.F_SECRET).replace(generateNodeSecret())
+                    .item(NodeType.F_SECRET_UPDATE_TIMESTAMP).replace(currentTime)
+                    .asItemDeltas());
+        }
+        // i.e. if known (might not be known during startup)
+        if (myUrl != null && !myUrl.equals(cachedNode.getUrl())) {
+            LOGGER.info("Changing node URL from {} to {}", cachedNode.getUrl(), myUrl);
+            modifications.add(prismContext.deltaFor(NodeType.class)
+                    .item(NodeType.F_URL).replace(myUrl)
+                    .asItemDelta());
+        }
+        return modifications;
+    }
+
+    /** Updates the cached local node object by applying modifications that were successfully written to the repository. */
+    private void applyToCachedLocalNodeObject(List<ItemDelta<?, ?>> modifications) throws SchemaException {
+        PrismObject<NodeType> updated = cachedLocalNodeObject.clone();
+        for (ItemDelta<?, ?> modification : modifications) {
+            modification.applyTo(updated);
+        }
+        setCachedLocalNodeObject(updated);
+    }
+
     private void refreshCachedLocalNodeObject(String nodeOid, OperationResult result)
             throws ObjectNotFoundException, SchemaException {
         setCachedLocalNodeObject(
@@ -764,6 +809,9 @@ public class NodeRegistrar implements Cache {
             return; // nothing to invalidate (shouldn't occur, as the current node should be non-null)
         }
         String currentNodeOid = currentNodeObject.getOid();
+        if (heartbeatThread == Thread.currentThread()) {
+            return; // caused by our own heartbeat; the cached object is updated by the heartbeat itself
+        }
         if (oid != null) {
             if (oid.equals(currentNodeOid)) {
                 refreshCachedLocalNodeObjectOnInvalidation(currentNodeOid);
@@ -91,6 +91,10 @@ class QuartzInitializationHelper {
             }
 
             quartzProperties.put("org.quartz.jobStore.isClustered", configuration.isClustered() ? "true" : "false");
+            if (configuration.getQuartzBatchTriggerAcquisitionMaxCount() > 1) {
+                // Recommended by Quartz when acquiring more triggers at once, to avoid firing them by more nodes.
+                quartzProperties.put("org.quartz.jobStore.acquireTriggersWithinLock", "true");
+            }
 
         } else {
             quartzProperties.put("org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore");
@@ -102,6 +106,10 @@ class QuartzInitializationHelper {
         quartzProperties.put("org.quartz.scheduler.skipUpdateCheck", "true");
         quartzProperties.put("org.quartz.threadPool.threadCount", Integer.toString(configuration.getThreads()));
         quartzProperties.put("org.quartz.scheduler.idleWaitTime", Integer.toString(determineIdleWaitTime()));
+        quartzProperties.put("org.quartz.scheduler.batchTriggerAcquisitionMaxCount",
+                Integer.toString(Math.max(1, configuration.getQuartzBatchTriggerAcquisitionMaxCount())));
+        quartzProperties.put("org.quartz.scheduler.batchTriggerAcquisitionFireAheadTimeWindow",
+                Long.toString(Math.max(0, configuration.getQuartzBatchTriggerAcquisitionFireAheadTimeWindow())));
 
         quartzProperties.put("org.quartz.scheduler.jmx.export", "true");
 
@@ -128,7 +136,9 @@ class QuartzInitializationHelper {
 
     private int determineIdleWaitTime() {
         int idleWaitTime;
-        if (configuration.isTestMode()) {
+        if (configuration.getQuartzIdleWaitTime() != null) {
+            idleWaitTime = configuration.getQuartzIdleWaitTime();
+        } else if (configuration.isTestMode()) {
             if (configuration.isJdbcJobStore()) {
                 idleWaitTime = IDLE_WAIT_TIME_FOR_TEST_MODE_JDBC;
             } else {
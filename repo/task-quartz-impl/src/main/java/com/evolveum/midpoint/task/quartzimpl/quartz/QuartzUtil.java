@@ -172,9 +172,11 @@ public class QuartzUtil {
         String executionGroup = executionConstraints != null
                 ? MiscUtil.nullIfEmpty(executionConstraints.getGroup())
                 : null;
+        Integer priority = executionConstraints != null ? executionConstraints.getPriority() : null;
         return TriggerBuilder.newTrigger()
                 .forJob(createJobKeyForTask(task))
-                .executionGroup(executionGroup);
+                .executionGroup(executionGroup)
+                .withPriority(priority != null ? priority : Trigger.DEFAULT_PRIORITY);
     }
 
     static Trigger createTriggerNowForTask(Task task) {
@@ -209,6 +211,7 @@ public class QuartzUtil {
 
     static boolean triggersDiffer(Trigger triggerAsIs, Trigger triggerToBe) {
         return !Objects.equals(triggerAsIs.getExecutionGroup(), triggerToBe.getExecutionGroup())
+                || triggerAsIs.getPriority() != triggerToBe.getPriority()
                 || triggerDataMapsDiffer(triggerAsIs, triggerToBe);
     }
 
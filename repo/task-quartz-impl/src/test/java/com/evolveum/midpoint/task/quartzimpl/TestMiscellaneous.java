@@ -27,6 +27,8 @@ import org.quartz.JobBuilder;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
 import org.quartz.impl.matchers.GroupMatcher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.DirtiesContext;
@@ -316,6 +318,73 @@ public class TestMiscellaneous extends AbstractTaskManagerTest {
                 .assertSuccess();
     }
 
+    /** The priority is propagated to the Quartz trigger, and its change causes the trigger to be re-created. */
+    @Test
+    public void test230TriggerPriority() throws Exception {
+        var result = createOperationResult();
+        Scheduler scheduler = localScheduler.getQuartzScheduler();
+
+        given("a future task with the priority of 8");
+        var oid = addDummyFutureTask(new TaskExecutionConstraintsType().priority(8), result);
+        var task = taskManager.getTaskPlain(oid, result);
+
+        then("the trigger (both computed and in Quartz) has the priority of 8");
+        assertThat(QuartzUtil.createTriggerForTask(task).getPriority())
+                .as("priority of the computed trigger")
+                .isEqualTo(8);
+        assertThat(scheduler.getTrigger(new TriggerKey(oid)).getPriority())
+                .as("priority of the trigger in Quartz")
+                .isEqualTo(8);
+
+        when("the priority is changed to 3 and the task is synchronized");
+        repositoryService.modifyObject(
+                TaskType.class, oid,
+                deltaFor(TaskType.class)
+                        .item(TaskType.F_EXECUTION_CONSTRAINTS, TaskExecutionConstraintsType.F_PRIORITY)
+                        .replace(3)
+                        .asItemDeltas(),
+                result);
+        boolean changed = taskSynchronizer.synchronizeTask(taskManager.getTaskPlain(oid, result), result);
+
+        then("the trigger is re-created with the new priority");
+        assertThat(changed).as("changed flag").isTrue();
+        assertThat(scheduler.getTrigger(new TriggerKey(oid)).getPriority())
+                .as("priority of the trigger in Quartz")
+                .isEqualTo(3);
+
+        when("the task is synchronized again");
+        boolean changedAgain = taskSynchronizer.synchronizeTask(taskManager.getTaskPlain(oid, result), result);
+
+        then("nothing is changed");
+        assertThat(changedAgain).as("changed flag").isFalse();
+
+        when("a task without the priority is added");
+        var defaultOid = addDummyFutureTask(null, result);
+
+        then("its trigger has the default priority");
+        assertThat(scheduler.getTrigger(new TriggerKey(defaultOid)).getPriority())
+                .as("priority of the trigger in Quartz")
+                .isEqualTo(Trigger.DEFAULT_PRIORITY);
+    }
+
+    private String addDummyFutureTask(TaskExecutionConstraintsType executionConstraints, OperationResult result)
+            throws ObjectAlreadyExistsException, SchemaException {
+        String oid = UUID.randomUUID().toString();
+        TaskType task = new TaskType()
+                .oid(oid)
+                .name(oid)
+                .ownerRef(SystemObjectsType.USER_ADMINISTRATOR.value(), UserType.COMPLEX_TYPE)
+                .executionState(TaskExecutionStateType.RUNNABLE)
+                .schedulingState(TaskSchedulingStateType.READY)
+                .handlerUri(MOCK_TASK_HANDLER_URI)
+                .executionConstraints(executionConstraints)
+                // Far in the future, to prevent Quartz from executing the task
+                .schedule(new ScheduleType().earliestStartTime(
+                        Instant.now().plus(48, ChronoUnit.HOURS).toString()));
+        taskManager.addTask(task.asPrismObject(), result);
+        return oid;
+    }
+
     private Set<String> addDummyFutureTasks(int numberOfTasks, OperationResult result)
             throws ObjectAlreadyExistsException, SchemaException {
         Set<String> oids = new HashSet<>();
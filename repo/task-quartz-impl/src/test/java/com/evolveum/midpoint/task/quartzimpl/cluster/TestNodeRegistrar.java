@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2010-2025 Evolveum and contributors
+ *
+ * This work is dual-licensed under the Apache License 2.0
+ * and European Union Public License. See LICENSE file for details.
+ */
+package com.evolveum.midpoint.task.quartzimpl.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.testng.annotations.Test;
+
+import com.evolveum.midpoint.prism.xml.XmlTypeConverter;
+import com.evolveum.midpoint.schema.result.OperationResult;
+import com.evolveum.midpoint.task.quartzimpl.AbstractTaskManagerTest;
+import com.evolveum.midpoint.test.asserter.RepoOpAsserter;
+import com.evolveum.midpoint.xml.ns._public.common.common_3.NodeType;
+
+/**
+ * Tests the node "heartbeat" in {@link NodeRegistrar}.
+ */
+@ContextConfiguration(locations = { "classpath:ctx-task-test.xml" })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class TestNodeRegistrar extends AbstractTaskManagerTest {
+
+    @Autowired private NodeRegistrar nodeRegistrar;
+
+    /**
+     * When nothing about the node changes, the heartbeat writes only the check-in time. The cached node object
+     * is updated directly, not re-read from the repository because of the invalidation caused by the write.
+     */
+    @Test
+    public void test100NoChangeHeartbeat() throws Exception {
+        OperationResult result = createOperationResult();
+
+        given("the node registration is up to date");
+        nodeRegistrar.updateNodeObject(result);
+        NodeType cachedBefore = nodeRegistrar.getCachedLocalNodeObjectRequired().asObjectable();
+
+        when("the heartbeat is written again");
+        repositoryService.getPerformanceMonitor().startThreadLocalPerformanceInformationCollection();
+        nodeRegistrar.updateNodeObject(result);
+
+        then("only the check-in time is modified, and the node is not re-read");
+        new RepoOpAsserter(
+                repositoryService.getPerformanceMonitor().getThreadLocalPerformanceInformation(), getTestNameShort())
+                .display()
+                .assertOp(repoOp("modifyObject"), 1)
+                .assertOp(repoOp("getObject"), 0);
+
+        NodeType cachedAfter = nodeRegistrar.getCachedLocalNodeObjectRequired().asObjectable();
+        assertThat(cachedAfter).as("cached node after").isNotSameAs(cachedBefore);
+        NodeType nodeInRepo = repositoryService
+                .getObject(NodeType.class, cachedAfter.getOid(), null, result)
+                .asObjectable();
+        assertThat(cachedAfter.getLastCheckInTime())
+                .as("cached check-in time")
+                .isEqualTo(nodeInRepo.getLastCheckInTime());
+
+        and("the next heartbeat would again contain the check-in time only");
+        var modifications = nodeRegistrar.computeHeartbeatModifications(
+                cachedAfter, XmlTypeConverter.createXMLGregorianCalendar());
+        assertThat(modifications).as("heartbeat modifications").hasSize(1);
+        assertThat(modifications.get(0).getPath().equivalent(NodeType.F_LAST_CHECK_IN_TIME))
+                .as("modification of the check-in time")
+                .isTrue();
+    }
+}